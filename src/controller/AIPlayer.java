@@ -2,112 +2,430 @@ package controller;
 
 import model.board.Board;
 import model.board.Move;
-import model.board.Position;
-import model.pieces.Piece;
-import model.pieces.King;
+import model.board.PositionHistory;
+import model.board.Zobrist;
+import model.book.OpeningBook;
+import model.pieces.Pawn;
+import model.tablebase.Tablebase;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class AIPlayer {
+    // Uma única thread para as buscas: no máximo uma IA pensa por vez e a thread não impede a JVM de sair
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ai-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private Board board;
     private boolean isAIWhite;
     private Random random;
+    private OpeningBook openingBook;
+    private Tablebase tablebase;
+    private Evaluation evaluation;
+    private SearchParams searchParams = new SearchParams();
+    private long thinkTimeMillis = 1500;
+    private int maxDepth = Search.MAX_PLY;
+    private long nodeLimit;
+    private int multiPv = 1;
+    private ChessClock clock;
+    private volatile SearchInfo lastSearchInfo;
+    private TranspositionTable transpositionTable; // criada na primeira busca
+    private PositionHistory positionHistory;       // posições da partida, para a busca ver repetições
+
+    // Ponderação: busca da resposta ao lance esperado do adversário, feita no tempo dele
+    private volatile Move expectedReply;
+    private Move ponderMove;
+    private Search ponderSearch;
+    private CompletableFuture<Move> ponderResult;
 
     public AIPlayer(Board board, boolean isAIWhite) {
         this.board = board;
         this.isAIWhite = isAIWhite;
         this.random = new Random();
+        this.openingBook = OpeningBook.openDefault();
+        this.tablebase = Tablebase.openDefault();
+        this.evaluation = new Evaluation();
     }
 
     public boolean isAIWhite() {
         return isAIWhite;
     }
 
+    /**
+     * Posições já jogadas na partida do tabuleiro. Cada busca recebe uma cópia, para tratar
+     * como empate as linhas que repetem uma posição (null: só as repetições dentro da busca).
+     */
+    public void setPositionHistory(PositionHistory positionHistory) {
+        this.positionHistory = positionHistory;
+    }
+
+    /**
+     * Define o livro de aberturas consultado antes de procurar um lance (null desativa).
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Define as tabelas de finais consultadas antes de procurar um lance (null desativa).
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Define a avaliação usada pela busca (ex: pesos ajustados por TexelTuner).
+     */
+    public void setEvaluation(Evaluation evaluation) {
+        this.evaluation = evaluation;
+    }
+
+    /**
+     * Define os parâmetros da busca (margens de poda, reduções e janela de aspiração),
+     * ex: os valores perturbados pelo SpsaTuner.
+     */
+    public void setSearchParams(SearchParams searchParams) {
+        this.searchParams = searchParams;
+    }
+
+    public SearchParams getSearchParams() {
+        return searchParams;
+    }
+
+    /**
+     * Tempo máximo de busca por lance, em milissegundos.
+     */
+    public void setThinkTimeMillis(long thinkTimeMillis) {
+        this.thinkTimeMillis = thinkTimeMillis;
+    }
+
+    /**
+     * Profundidade máxima da busca, em meias-jogadas.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Limita a busca a uma quantidade de nós (0 = sem limite), em vez de ou além do tempo.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Joga com relógio: o tempo de cada lance é dividido por um TimeManager a partir do tempo
+     * restante da IA, do incremento e do atraso, em vez do tempo fixo de setThinkTimeMillis
+     * (null volta ao tempo fixo).
+     */
+    public void setClock(ChessClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Quantidade de linhas procuradas (MultiPV); com mais de uma, o resultado da busca traz as
+     * melhores linhas em SearchInfo.getLines(). Usado principalmente por analyze.
+     */
+    public void setMultiPv(int multiPv) {
+        this.multiPv = multiPv;
+    }
+
+    /**
+     * Usa uma tabela de transposição fornecida por quem chama (ex: uma por thread em partidas
+     * em massa), em vez de criar a própria.
+     */
+    public synchronized void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * Resultado da última busca concluída, ou null se o último lance veio do livro ou das tabelas.
+     */
+    public SearchInfo getLastSearchInfo() {
+        return lastSearchInfo;
+    }
+
+    /**
+     * Escolhe o lance de forma síncrona, na thread de quem chama.
+     */
     public Move makeMove() {
-        List<Move> possibleMoves = new ArrayList<>();
-
-        // Coleta todos os movimentos possíveis para as peças da IA
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position from = new Position(r, c);
-                Piece piece = board.getPieceAt(from);
-
-                if (piece != null && piece.isWhite() == isAIWhite) {
-                    for (Position to : piece.getPossibleMoves()) {
-                        // Verifica se o movimento é válido e não coloca o próprio rei em xeque
-                        if (piece.canMoveTo(to) && !simulatedMoveCausesCheck(piece, from, to)) {
-                            possibleMoves.add(new Move(from, to));
-                        }
-                    }
-                }
+        Board position = board.copy();
+        Search search = newSearch(position);
+        return chooseMove(position, search, null, moveTime(search));
+    }
+
+    /**
+     * Procura o lance em uma thread própria da IA, sem bloquear quem chama (ex: a thread do Swing).
+     * A posição é copiada antes de retornar, então o tabuleiro da partida pode mudar durante a busca.
+     * Cancelar o futuro interrompe a busca.
+     * @param progress Recebe o resultado de cada iteração da busca (na thread da IA); pode ser null.
+     * @return O lance escolhido, ou null se não houver lances legais.
+     */
+    public CompletableFuture<Move> makeMoveAsync(Consumer<SearchInfo> progress) {
+        Board position = board.copy();
+        Search search = newSearch(position);
+        return submit(position, search, progress, moveTime(search));
+    }
+
+    /**
+     * Analisa a posição atual para o lado indicado, sem livro nem tabelas de finais, com as
+     * MultiPV melhores linhas (cada uma com pontuação, profundidade e variante) em getLines().
+     * Usa o limite de tempo, de nós e de profundidade da IA.
+     * @return O resultado da última iteração completa, ou null se não houver lances legais.
+     */
+    public SearchInfo analyze(boolean white) {
+        Board position = board.copy();
+        return analyze(newSearch(position), white, null, thinkTimeMillis);
+    }
+
+    /**
+     * Como analyze, na thread da IA. Com tempo 0 a análise continua até o futuro ser cancelado
+     * (ex: o painel de análise da interface), e progress recebe as linhas de cada iteração.
+     */
+    public CompletableFuture<SearchInfo> analyzeAsync(boolean white, long timeMillis, Consumer<SearchInfo> progress) {
+        Search search = newSearch(board.copy());
+        return submit(search, () -> analyze(search, white, progress, timeMillis));
+    }
+
+    private Search newSearch(Board position) {
+        Search search = new Search(position, evaluation);
+        if (positionHistory != null) search.setPositionHistory(positionHistory.copy());
+        return search;
+    }
+
+    private SearchInfo analyze(Search search, boolean white, Consumer<SearchInfo> progress, long timeMillis) {
+        configure(search, progress);
+        return search.search(white, maxDepth, timeMillis);
+    }
+
+    private CompletableFuture<Move> submit(Board position, Search search, Consumer<SearchInfo> progress,
+                                           long timeMillis) {
+        return submit(search, () -> chooseMove(position, search, progress, timeMillis));
+    }
+
+    // Executa a tarefa na thread da IA; cancelar o futuro interrompe a busca
+    private <T> CompletableFuture<T> submit(Search search, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) search.stop();
+        });
+        SEARCH_EXECUTOR.execute(() -> {
+            if (future.isDone()) return;
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Lance do adversário que a última busca concluída espera como resposta (segundo lance da variante
+     * principal), ou null se o último lance veio do livro ou das tabelas de finais.
+     */
+    public Move getExpectedReply() {
+        return expectedReply;
+    }
+
+    /**
+     * Começa a procurar, no tempo do adversário, a resposta ao lance esperado dele.
+     * Deve ser chamado logo após o lance da IA ser aplicado ao tabuleiro, com o adversário a jogar.
+     * A busca não tem limite de tempo até ponderHit; a tabela de transposição fica aquecida
+     * mesmo quando o adversário joga outro lance.
+     * @return true se a ponderação começou.
+     */
+    public boolean startPondering() {
+        stopPondering();
+        Move reply = expectedReply;
+        if (reply == null) return false;
+
+        Board position = board.copy();
+        Move legalReply = null;
+        for (Move move : position.generateLegalMoves(!isAIWhite)) {
+            if (move.equals(reply)) {
+                legalReply = move;
+                break;
             }
         }
+        if (legalReply == null) return false;
+        position.makeMove(legalReply);
 
-        if (possibleMoves.isEmpty()) {
-            return null; // Sem movimentos possíveis
+        Search search = new Search(position, evaluation);
+        if (positionHistory != null) {
+            PositionHistory history = positionHistory.copy();
+            history.push(Zobrist.key(position, isAIWhite),
+                    legalReply.getCapturedPiece() != null || legalReply.getPiece() instanceof Pawn);
+            search.setPositionHistory(history);
         }
+        ponderMove = reply;
+        ponderSearch = search;
+        ponderResult = submit(position, search, null, 0);
+        return true;
+    }
 
-        // Por enquanto, a IA escolhe um movimento aleatório
-        return possibleMoves.get(random.nextInt(possibleMoves.size()));
+    /**
+     * Informa o lance que o adversário de fato jogou.
+     * Se for o lance esperado, a busca da ponderação continua, agora com o tempo normal de um lance,
+     * e o seu resultado é devolvido. Caso contrário, a ponderação é interrompida.
+     * @param progress Passa a receber o progresso da busca, como em makeMoveAsync.
+     * @return O futuro com o lance da IA, ou null se não houve acerto (use makeMoveAsync).
+     */
+    public CompletableFuture<Move> ponderHit(Move played, Consumer<SearchInfo> progress) {
+        if (ponderResult == null) return null;
+        if (!ponderMove.equals(played) || ponderResult.isCompletedExceptionally()) {
+            stopPondering();
+            return null;
+        }
+        CompletableFuture<Move> result = ponderResult;
+        ponderSearch.setListener(progress);
+        long timeMillis = moveTime(ponderSearch);
+        if (timeMillis > 0) ponderSearch.setTimeLimit(timeMillis);
+        ponderMove = null;
+        ponderSearch = null;
+        ponderResult = null;
+        return result;
     }
 
-    // Simula um movimento para verificar se ele causa xeque no próprio rei
-    private boolean simulatedMoveCausesCheck(Piece piece, Position from, Position to) {
-        Piece captured = board.getPieceAt(to);
+    /**
+     * Interrompe a ponderação em andamento, se houver.
+     */
+    public void stopPondering() {
+        if (ponderResult != null) {
+            ponderResult.cancel(false);
+        }
+        ponderMove = null;
+        ponderSearch = null;
+        ponderResult = null;
+    }
 
-        boolean originalHasMoved = piece.hasMoved();
-        boolean capturedOriginalHasMoved = (captured != null) ? captured.hasMoved() : false;
+    public boolean isPondering() {
+        return ponderResult != null;
+    }
 
-        // Faz o movimento simulado
-        board.removePiece(from);
-        if (captured != null) board.removePiece(to);
-        board.placePiece(piece, to);
+    private Move chooseMove(Board position, Search search, Consumer<SearchInfo> progress, long timeMillis) {
+        // Na abertura, um lance do livro é respondido sem nenhuma busca
+        if (openingBook != null) {
+            Move bookMove = openingBook.pickMove(position, isAIWhite, random);
+            if (bookMove != null) {
+                expectedReply = null;
+                lastSearchInfo = null;
+                return bookMove;
+            }
+        }
 
-        boolean inCheck;
-        try {
-            Position myKing = findKingPosition(isAIWhite);
-            if (myKing == null) {
-                return true; // Rei não encontrado, algo está errado
+        // Nos finais cobertos pelas tabelas, a consulta substitui a busca
+        if (tablebase != null) {
+            Move tablebaseMove = tablebaseMove(position);
+            if (tablebaseMove != null) {
+                expectedReply = null;
+                lastSearchInfo = null;
+                return tablebaseMove;
             }
-            inCheck = isSquareAttacked(myKing, !isAIWhite);
-        } finally {
-            // Desfaz o movimento simulado
-            board.removePiece(to);
-            board.placePiece(piece, from);
-            piece.setHasMoved(originalHasMoved);
-            if (captured != null) board.placePiece(captured, to);
-            if (captured != null) captured.setHasMoved(capturedOriginalHasMoved);
         }
-        return inCheck;
+
+        configure(search, progress);
+        SearchInfo result = search.search(isAIWhite, maxDepth, timeMillis);
+        lastSearchInfo = result;
+        if (result == null) {
+            expectedReply = null;
+            return null; // Sem movimentos possíveis
+        }
+        expectedReply = expectedReply(position, result);
+        return detach(result.getBestMove());
+    }
+
+    // Tempo do lance que começa agora: com relógio, os limites vêm de um TimeManager ligado à
+    // busca (e o tempo devolvido é 0); sem relógio, é o tempo fixo por lance
+    private long moveTime(Search search) {
+        if (clock == null) return thinkTimeMillis;
+        search.setTimeManager(new TimeManager(clock.getRemainingMillis(isAIWhite), clock.getIncrementMillis(),
+                clock.getDelayMillis()));
+        return 0;
+    }
+
+    private void configure(Search search, Consumer<SearchInfo> progress) {
+        search.setTablebase(tablebase);
+        search.setParams(searchParams);
+        search.setTranspositionTable(transpositionTable());
+        if (progress != null) search.setListener(progress);
+        search.setNodeLimit(nodeLimit);
+        search.setMultiPv(multiPv);
+    }
+
+    // Partidas sem IA (ex: jogos em massa sem interface) não pagam pela memória da tabela
+    private synchronized TranspositionTable transpositionTable() {
+        if (transpositionTable == null) transpositionTable = new TranspositionTable(32);
+        return transpositionTable;
     }
 
-    private Position findKingPosition(boolean whiteKing) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position p = new Position(r, c);
-                Piece piece = board.getPieceAt(p);
-                if (piece instanceof King && piece.isWhite() == whiteKing) {
-                    return p;
+    // Resposta esperada: o segundo lance da variante principal ou, se ela foi cortada pela
+    // tabela de transposição, o melhor lance guardado para a posição após o lance escolhido
+    private Move expectedReply(Board position, SearchInfo result) {
+        List<Move> pv = result.getPrincipalVariation();
+        if (pv.size() > 1) return detach(pv.get(1));
+
+        Move best = result.getBestMove();
+        position.makeMove(best);
+        Move reply = null;
+        int code = TranspositionTable.move(transpositionTable().probe(Zobrist.key(position, !isAIWhite)));
+        if (code != 0) {
+            for (Move move : position.generateLegalMoves(!isAIWhite)) {
+                if (TranspositionTable.encodeMove(move) == code) {
+                    reply = detach(move);
+                    break;
                 }
             }
         }
-        return null;
+        position.unmakeMove(best);
+        return reply;
+    }
+
+    // Cópia do lance sem referências às peças do tabuleiro usado na busca
+    private static Move detach(Move move) {
+        Move detached = new Move(move.getFrom(), move.getTo());
+        detached.setPromotionSymbol(move.getPromotionSymbol());
+        return detached;
     }
 
-    private boolean isSquareAttacked(Position square, boolean byWhite) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position from = new Position(r, c);
-                Piece p = board.getPieceAt(from);
-                if (p == null || p.isWhite() != byWhite) continue;
-                if (from.equals(square)) continue;
-                if (p.canMoveTo(square)) return true;
+    /**
+     * Escolhe o lance com o melhor resultado nas tabelas de finais: o mate mais rápido quando
+     * a posição é ganha, a defesa mais longa quando é perdida.
+     * @return O lance, ou null se a posição (ou as posições seguintes) não estiverem nas tabelas.
+     */
+    private Move tablebaseMove(Board board) {
+        if (tablebase.probe(board, isAIWhite) < 0) return null;
+
+        Move best = null;
+        int bestScore = Integer.MIN_VALUE;
+        for (Move move : board.generateLegalMoves(isAIWhite)) {
+            board.makeMove(move);
+            int child = tablebase.probe(board, !isAIWhite);
+            board.unmakeMove(move);
+            if (child < 0) continue;
+            int score = -tablebaseScore(child);
+            if (score > bestScore) {
+                bestScore = score;
+                best = detach(move);
             }
         }
-        return false;
+        return best;
     }
-}
-
 
+    // Pontuação de um valor das tabelas para o lado a jogar: mates mais curtos valem mais
+    static int tablebaseScore(int value) {
+        switch (Tablebase.wdl(value)) {
+            case Tablebase.WIN: return 1000 - Tablebase.movesToMate(value);
+            case Tablebase.LOSS: return -1000 + Tablebase.movesToMate(value);
+            default: return 0;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package controller;
+
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Casas atacadas por cada lado, em bitboards (bit linha * 8 + coluna, com a linha 0 na oitava
+ * fileira), calculadas uma única vez por posição avaliada e compartilhadas pelos termos da
+ * avaliação: mobilidade, ataques à zona do rei, peças penduradas e ameaças.
+ *
+ * Os vetores são reaproveitados entre chamadas de compute, sem alocação por nó;
+ * por isso cada busca usa a sua própria instância (ver Evaluation.attach).
+ */
+public final class AttackMap {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final int[][] ORTHOGONAL = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] DIAGONAL = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    static {
+        int[][] knight = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+        int[][] king = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+        for (int square = 0; square < 64; square++) {
+            int row = square >> 3;
+            int col = square & 7;
+            KNIGHT_ATTACKS[square] = offsets(row, col, knight);
+            KING_ATTACKS[square] = offsets(row, col, king);
+            // O peão branco ataca na direção da linha 0, o preto na direção da linha 7
+            PAWN_ATTACKS[WHITE][square] = offsets(row, col, new int[][] {{-1, -1}, {-1, 1}});
+            PAWN_ATTACKS[BLACK][square] = offsets(row, col, new int[][] {{1, -1}, {1, 1}});
+        }
+    }
+
+    private static long offsets(int row, int col, int[][] offsets) {
+        long bits = 0;
+        for (int[] d : offsets) {
+            int r = row + d[0];
+            int c = col + d[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) bits |= 1L << (r * 8 + c);
+        }
+        return bits;
+    }
+
+    private final long[] pieces = new long[2];
+    private final long[][] piecesByType = new long[2][6];
+    private final long[] attacks = new long[2];
+    private final long[][] attacksByType = new long[2][6];
+    private final int[][] mobility = new int[2][6];
+    private final int[][] kingZoneAttacks = new int[2][6];
+    private final long[] kingZone = new long[2];
+
+    // Peças da posição (no máximo 32), para a segunda passada sem percorrer o tabuleiro de novo
+    private final int[] squares = new int[32];
+    private final int[] types = new int[32];
+    private final int[] sides = new int[32];
+    private final long[] pieceAttacks = new long[32];
+
+    /**
+     * Calcula os ataques da posição.
+     */
+    public void compute(Board board) {
+        for (int side = 0; side < 2; side++) {
+            pieces[side] = 0;
+            attacks[side] = 0;
+            kingZone[side] = 0;
+            for (int type = 0; type < 6; type++) {
+                piecesByType[side][type] = 0;
+                attacksByType[side][type] = 0;
+                mobility[side][type] = 0;
+                kingZoneAttacks[side][type] = 0;
+            }
+        }
+
+        int count = 0;
+        for (int square = 0; square < 64 && count < squares.length; square++) {
+            Piece piece = board.getPieceAt(square >> 3, square & 7);
+            if (piece == null) continue;
+            int side = piece.isWhite() ? WHITE : BLACK;
+            int type = Evaluation.pieceType(piece);
+            pieces[side] |= 1L << square;
+            piecesByType[side][type] |= 1L << square;
+            squares[count] = square;
+            types[count] = type;
+            sides[count] = side;
+            count++;
+        }
+        long occupancy = pieces[WHITE] | pieces[BLACK];
+        for (int side = 0; side < 2; side++) {
+            long king = piecesByType[side][KING];
+            if (king != 0) {
+                int square = Long.numberOfTrailingZeros(king);
+                kingZone[side] = KING_ATTACKS[square] | king;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            long attacked = attacksFrom(types[i], sides[i], squares[i], occupancy);
+            pieceAttacks[i] = attacked;
+            int side = sides[i];
+            attacks[side] |= attacked;
+            attacksByType[side][types[i]] |= attacked;
+        }
+
+        // Mobilidade: casas atacadas que não têm peça própria nem são atacadas por peões adversários
+        for (int i = 0; i < count; i++) {
+            int type = types[i];
+            if (type == PAWN || type == KING) continue;
+            int side = sides[i];
+            int other = side ^ 1;
+            long attacked = pieceAttacks[i];
+            mobility[side][type] += Long.bitCount(attacked & ~pieces[side] & ~attacksByType[other][PAWN]);
+            kingZoneAttacks[side][type] += Long.bitCount(attacked & kingZone[other]);
+        }
+    }
+
+    private static long attacksFrom(int type, int side, int square, long occupancy) {
+        switch (type) {
+            case PAWN: return PAWN_ATTACKS[side][square];
+            case KNIGHT: return KNIGHT_ATTACKS[square];
+            case KING: return KING_ATTACKS[square];
+            case BISHOP: return slide(square, occupancy, DIAGONAL);
+            case ROOK: return slide(square, occupancy, ORTHOGONAL);
+            default: return slide(square, occupancy, DIAGONAL) | slide(square, occupancy, ORTHOGONAL);
+        }
+    }
+
+    // Raios até a primeira peça (inclusive), em qualquer uma das direções
+    private static long slide(int square, long occupancy, int[][] directions) {
+        long bits = 0;
+        int row = square >> 3;
+        int col = square & 7;
+        for (int[] d : directions) {
+            int r = row + d[0];
+            int c = col + d[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                long bit = 1L << (r * 8 + c);
+                bits |= bit;
+                if ((occupancy & bit) != 0) break;
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return bits;
+    }
+
+    public long pieces(int side) {
+        return pieces[side];
+    }
+
+    public long pieces(int side, int type) {
+        return piecesByType[side][type];
+    }
+
+    /**
+     * Todas as casas atacadas pelo lado (inclusive as ocupadas por peças dele, que estão defendidas).
+     */
+    public long attacks(int side) {
+        return attacks[side];
+    }
+
+    public long attacks(int side, int type) {
+        return attacksByType[side][type];
+    }
+
+    /**
+     * Casas seguras alcançadas pelas peças do tipo: sem peça própria e fora do ataque de peões adversários.
+     */
+    public int mobility(int side, int type) {
+        return mobility[side][type];
+    }
+
+    /**
+     * Ataques das peças do tipo às casas em volta do rei adversário (contando cada casa por peça).
+     */
+    public int kingZoneAttacks(int side, int type) {
+        return kingZoneAttacks[side][type];
+    }
+}
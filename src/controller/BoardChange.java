@@ -0,0 +1,43 @@
+package controller;
+
+/**
+ * Mudança no tabuleiro de uma partida: as casas cuja peça mudou desde a mudança anterior
+ * (bit linha * 8 + coluna, com a linha 0 na oitava fileira), o lado a jogar e a situação.
+ * Permite à interface redesenhar só as casas afetadas.
+ */
+public final class BoardChange {
+    private final long squares;
+    private final boolean whiteToMove;
+    private final GameStatus status;
+
+    public BoardChange(long squares, boolean whiteToMove, GameStatus status) {
+        this.squares = squares;
+        this.whiteToMove = whiteToMove;
+        this.status = status;
+    }
+
+    public static long bit(int row, int col) {
+        return 1L << (row * 8 + col);
+    }
+
+    public long getSquares() {
+        return squares;
+    }
+
+    public boolean contains(int row, int col) {
+        return (squares & bit(row, col)) != 0;
+    }
+
+    public boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return Long.bitCount(squares) + " casas, " + (whiteToMove ? "brancas" : "pretas") + " a jogar, " + status;
+    }
+}
@@ -0,0 +1,118 @@
+package controller;
+
+/**
+ * Relógio de xadrez com o tempo de cada lado, medido com System.nanoTime (monotônico, imune a
+ * ajustes do relógio do sistema).
+ *
+ * Depois de cada lance o lado que jogou recebe o incremento (Fischer). Com atraso (delay), os
+ * primeiros segundos de cada lance não são descontados. O relógio só começa a correr no primeiro
+ * lance, para o adversário de quem o jogou.
+ *
+ * Os métodos podem ser chamados de qualquer thread (a interface lê o tempo enquanto a IA pensa).
+ */
+public class ChessClock {
+    private final long[] remainingNanos = new long[2]; // 0 = brancas, 1 = pretas
+    private final long incrementNanos;
+    private final long delayNanos;
+    private boolean running;
+    private boolean whiteRunning;
+    private long turnStart;
+
+    /**
+     * @param initialMillis Tempo inicial de cada lado.
+     * @param incrementMillis Acrescentado ao tempo de quem jogou, após cada lance.
+     * @param delayMillis Tempo de cada lance que não é descontado do relógio.
+     */
+    public ChessClock(long initialMillis, long incrementMillis, long delayMillis) {
+        remainingNanos[0] = initialMillis * 1_000_000L;
+        remainingNanos[1] = initialMillis * 1_000_000L;
+        this.incrementNanos = incrementMillis * 1_000_000L;
+        this.delayNanos = delayMillis * 1_000_000L;
+    }
+
+    /**
+     * Lê um controle de tempo no formato "minutos+incremento" ou "minutos d atraso", com o
+     * incremento e o atraso em segundos: "5+3", "0.5+0.05", "15d5".
+     * @throws IllegalArgumentException se o formato for inválido.
+     */
+    public static ChessClock parse(String timeControl) {
+        try {
+            String spec = timeControl.trim();
+            int separator = Math.max(spec.indexOf('+'), spec.indexOf('d'));
+            double minutes = Double.parseDouble(separator < 0 ? spec : spec.substring(0, separator));
+            double seconds = separator < 0 ? 0 : Double.parseDouble(spec.substring(separator + 1));
+            long initial = Math.round(minutes * 60_000);
+            long extra = Math.round(seconds * 1000);
+            if (initial <= 0 || extra < 0) throw new IllegalArgumentException("Tempo inválido: " + timeControl);
+            boolean delay = separator >= 0 && spec.charAt(separator) == 'd';
+            return new ChessClock(initial, delay ? 0 : extra, delay ? extra : 0);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Controle de tempo inválido: " + timeControl, e);
+        }
+    }
+
+    /**
+     * Encerra o lance do lado indicado: desconta o tempo gasto (menos o atraso), acrescenta o
+     * incremento e põe o relógio do adversário para correr.
+     * @return false se o tempo do lado tinha acabado antes do lance (nesse caso o relógio para).
+     */
+    public synchronized boolean press(boolean white) {
+        if (running && whiteRunning == white) {
+            int side = white ? 0 : 1;
+            charge(side);
+            if (remainingNanos[side] <= 0) {
+                running = false;
+                return false;
+            }
+            remainingNanos[side] += incrementNanos;
+        }
+        running = true;
+        whiteRunning = !white;
+        turnStart = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Para o relógio (fim de partida), descontando o tempo do lance em andamento.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        charge(whiteRunning ? 0 : 1);
+        running = false;
+    }
+
+    private void charge(int side) {
+        long elapsed = System.nanoTime() - turnStart;
+        remainingNanos[side] -= Math.max(0, elapsed - delayNanos);
+    }
+
+    /**
+     * Tempo restante do lado, contando o lance em andamento (pode ser negativo se o tempo acabou).
+     */
+    public synchronized long getRemainingMillis(boolean white) {
+        long remaining = remainingNanos[white ? 0 : 1];
+        if (running && whiteRunning == white) {
+            remaining -= Math.max(0, System.nanoTime() - turnStart - delayNanos);
+        }
+        return remaining / 1_000_000L;
+    }
+
+    /**
+     * @return true se o relógio do lado está correndo e o tempo dele acabou.
+     */
+    public synchronized boolean isFlagged(boolean white) {
+        return running && whiteRunning == white && getRemainingMillis(white) <= 0;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public long getIncrementMillis() {
+        return incrementNanos / 1_000_000L;
+    }
+
+    public long getDelayMillis() {
+        return delayNanos / 1_000_000L;
+    }
+}
@@ -0,0 +1,176 @@
+package controller;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import model.board.Board;
+import model.board.Move;
+import model.board.PackedPosition;
+import model.pieces.Pawn;
+
+/**
+ * Gera dados de treino jogando partidas da IA contra ela mesma, com busca de nós fixos,
+ * em todos os núcleos.
+ *
+ * Cada posição jogada vira uma amostra de PackedPosition.SIZE bytes (posição, pontuação da
+ * busca e resultado da partida). Cada thread grava seus próprios arquivos, com buffer, e troca
+ * de arquivo a cada "positionsPerFile" amostras. Posições em xeque, lances táticos (capturas e
+ * promoções) e pontuações de mate são descartados, pois atrapalham o ajuste da avaliação.
+ *
+ * Uso: java -cp out controller.DataGenerator diretorio [posições] [nós] [threads]
+ */
+public class DataGenerator {
+    private static final int RANDOM_OPENING_PLIES = 8;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final EngineConfig engine;
+    private long positionsPerFile = 10_000_000;
+    private final AtomicLong positions = new AtomicLong();
+    private final AtomicLong games = new AtomicLong();
+
+    public DataGenerator(Path directory, EngineConfig engine) {
+        this.directory = directory;
+        this.engine = engine;
+    }
+
+    public void setPositionsPerFile(long positionsPerFile) {
+        this.positionsPerFile = positionsPerFile;
+    }
+
+    /**
+     * Gera amostras até atingir o total pedido.
+     */
+    public void run(long targetPositions, int threads) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                try (SampleWriter writer = new SampleWriter(id)) {
+                    SplittableRandom random = new SplittableRandom(System.nanoTime() ^ ((long) id << 32));
+                    TranspositionTable table = new TranspositionTable(16);
+                    while (positions.get() < targetPositions) {
+                        playGame(writer, random, table);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, "datagen-" + t);
+            workers[t].start();
+        }
+
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                worker.join(5000);
+                report(start);
+            }
+        }
+        report(start);
+    }
+
+    private void report(long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Partidas: %d  Posições: %d  (%.0f posições/s)%n",
+                games.get(), positions.get(), positions.get() / seconds);
+    }
+
+    private void playGame(SampleWriter writer, SplittableRandom random, TranspositionTable table) throws IOException {
+        Game game = new Game();
+        // Lances aleatórios no início para variar as partidas
+        for (int i = 0; i < RANDOM_OPENING_PLIES && !game.isGameOver(); i++) {
+            List<Move> moves = game.getBoard().generateLegalMoves(game.isWhiteTurn());
+            game.applyMove(moves.get(random.nextInt(moves.size())));
+        }
+        if (game.isGameOver()) return;
+        game.setTablebaseAdjudication(true);
+
+        table.clear();
+        AIPlayer white = engine.createPlayer(game.getBoard(), true, table);
+        AIPlayer black = engine.createPlayer(game.getBoard(), false, table);
+
+        // As amostras ficam em memória até o resultado da partida ser conhecido
+        ByteBuffer samples = ByteBuffer.allocate(PackedPosition.SIZE * 512).order(ByteOrder.LITTLE_ENDIAN);
+        int[] ply = {RANDOM_OPENING_PLIES};
+        double whiteScore = MatchRunner.play(game, white, black, (position, move, info) -> {
+            ply[0]++;
+            if (info == null || info.isMateScore() || !samples.hasRemaining()) return;
+            Board board = position.getBoard();
+            // Um peão que muda de coluna captura, mesmo en passant (a casa de destino está vazia)
+            boolean pawnCapture = board.getPieceAt(move.getFrom()) instanceof Pawn
+                    && move.getFrom().getColumn() != move.getTo().getColumn();
+            if (board.getPieceAt(move.getTo()) != null || pawnCapture || move.isPromotion()) return;
+            if (board.isInCheck(position.isWhiteTurn())) return;
+            int score = position.isWhiteTurn() ? info.getScore() : -info.getScore();
+            // O resultado é preenchido depois, no byte 27 de cada amostra
+            PackedPosition.pack(board, position.isWhiteTurn(), score, 0, ply[0], samples);
+        });
+
+        byte result = (byte) (whiteScore == 1 ? 1 : whiteScore == 0 ? -1 : 0);
+        int count = samples.position() / PackedPosition.SIZE;
+        for (int i = 0; i < count; i++) {
+            samples.put(i * PackedPosition.SIZE + 27, result);
+        }
+        writer.write(samples.array(), count);
+        positions.addAndGet(count);
+        games.incrementAndGet();
+    }
+
+    // Arquivos de uma thread: dados-<thread>-<n>.bin, trocados a cada positionsPerFile amostras
+    private class SampleWriter implements AutoCloseable {
+        private final int id;
+        private int fileNumber;
+        private long inFile;
+        private OutputStream out;
+
+        SampleWriter(int id) throws IOException {
+            this.id = id;
+            open();
+        }
+
+        private void open() throws IOException {
+            Path file = directory.resolve(String.format("dados-%02d-%04d.bin", id, fileNumber++));
+            out = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+            inFile = 0;
+        }
+
+        void write(byte[] data, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                if (inFile == positionsPerFile) {
+                    out.close();
+                    open();
+                }
+                out.write(data, i * PackedPosition.SIZE, PackedPosition.SIZE);
+                inFile++;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Uso: java -cp out controller.DataGenerator diretorio [posições] [nós] [threads]");
+            return;
+        }
+        long target = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        long nodes = args.length > 2 ? Long.parseLong(args[2]) : 5000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        EngineConfig engine = EngineConfig.parse("name=datagen,nodes=" + nodes);
+        new DataGenerator(Paths.get(args[0]), engine).run(target, threads);
+    }
+}
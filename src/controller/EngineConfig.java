@@ -0,0 +1,104 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import controller.nnue.NnueEvaluation;
+import model.board.Board;
+
+/**
+ * Configuração de um jogador da IA para partidas automáticas (torneios, geração de dados).
+ *
+ * Pode ser lida de um texto "chave=valor" separado por vírgulas, por exemplo
+ * "name=novo,nodes=20000,depth=8". Chaves: name, nodes, depth, time (ms), book (true/false),
+ * weights (arquivo de pesos da avaliação, ver Evaluation.save), nnue (arquivo de uma rede
+ * neural, que substitui a avaliação manual) e params (arquivo de parâmetros da busca,
+ * ver SearchParams.save).
+ */
+public class EngineConfig {
+    private String name = "engine";
+    private long nodeLimit = 20000;
+    private int maxDepth = Search.MAX_PLY;
+    private long thinkTimeMillis;
+    private boolean useBook;
+    private Evaluation evaluation;
+    private SearchParams searchParams;
+
+    public static EngineConfig parse(String spec) {
+        EngineConfig config = new EngineConfig();
+        if (spec == null || spec.isEmpty()) return config;
+        for (String option : spec.split(",")) {
+            String[] pair = option.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Opção inválida: " + option);
+            }
+            String value = pair[1].trim();
+            switch (pair[0].trim()) {
+                case "name": config.name = value; break;
+                case "nodes": config.nodeLimit = Long.parseLong(value); break;
+                case "depth": config.maxDepth = Integer.parseInt(value); break;
+                case "time": config.thinkTimeMillis = Long.parseLong(value); break;
+                case "book": config.useBook = Boolean.parseBoolean(value); break;
+                case "weights":
+                    try {
+                        config.evaluation = Evaluation.load(Paths.get(value));
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Não foi possível ler os pesos: " + e.getMessage(), e);
+                    }
+                    break;
+                case "nnue":
+                    try {
+                        config.evaluation = NnueEvaluation.load(Paths.get(value));
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Não foi possível ler a rede: " + e.getMessage(), e);
+                    }
+                    break;
+                case "params":
+                    try {
+                        config.searchParams = SearchParams.load(Paths.get(value));
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Não foi possível ler os parâmetros: " + e.getMessage(), e);
+                    }
+                    break;
+                default: throw new IllegalArgumentException("Opção desconhecida: " + pair[0]);
+            }
+        }
+        return config;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getThinkTimeMillis() {
+        return thinkTimeMillis;
+    }
+
+    /**
+     * Cria um jogador com esta configuração para o tabuleiro indicado.
+     * @param transpositionTable Tabela a reaproveitar (ex: uma por thread), ou null para a padrão.
+     */
+    public AIPlayer createPlayer(Board board, boolean white, TranspositionTable transpositionTable) {
+        AIPlayer player = new AIPlayer(board, white);
+        player.setNodeLimit(nodeLimit);
+        player.setMaxDepth(maxDepth);
+        player.setThinkTimeMillis(thinkTimeMillis);
+        if (!useBook) player.setOpeningBook(null);
+        if (evaluation != null) player.setEvaluation(evaluation);
+        if (searchParams != null) player.setSearchParams(searchParams);
+        if (transpositionTable != null) player.setTranspositionTable(transpositionTable);
+        return player;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (nodes=" + nodeLimit + ", depth=" + maxDepth + ", time=" + thinkTimeMillis + "ms)";
+    }
+}
@@ -0,0 +1,293 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import model.board.Board;
+import model.board.Zobrist;
+import model.pieces.Piece;
+
+/**
+ * Avaliação estática da posição, em centipeões, do ponto de vista do lado a jogar.
+ *
+ * Todos os termos são pesos inteiros guardados em um único vetor (material e tabelas de
+ * casas por tipo de peça), para que possam ser ajustados por ferramentas externas.
+ * As tabelas de casas estão do ponto de vista das brancas, com a casa 0 em a8;
+ * para as pretas a casa é espelhada verticalmente.
+ *
+ * Os termos de ataque (mobilidade, ataques à zona do rei, peças penduradas e ameaças) usam um
+ * único AttackMap calculado por posição. Como ele é reaproveitado entre chamadas, uma instância
+ * não deve ser usada por duas threads ao mesmo tempo; cada busca usa a sua, criada por attach.
+ * Todos os termos são lineares nos pesos (ver features), o que permite ajustá-los com o TexelTuner.
+ */
+public class Evaluation {
+    public static final int MATERIAL = 0;                 // 6 pesos: p, n, b, r, q, k
+    public static final int PIECE_SQUARE = MATERIAL + 6;  // 6 x 64 pesos
+    public static final int MOBILITY = PIECE_SQUARE + 6 * 64;  // 4 pesos por casa segura: n, b, r, q
+    public static final int KING_ATTACK = MOBILITY + 4;        // 4 pesos por ataque à zona do rei: n, b, r, q
+    public static final int HANGING = KING_ATTACK + 4;         // 5 pesos por peça adversária pendurada: p, n, b, r, q
+    public static final int THREAT = HANGING + 5;              // 2 pesos: peça atacada por peão, torre ou rainha por peça menor
+    public static final int SIZE = THREAT + 2;
+    private static final int ATTACK_TERMS = SIZE - MOBILITY;
+
+    private static final int[] DEFAULT_MATERIAL = {100, 320, 330, 500, 900, 0};
+    private static final int[] DEFAULT_ATTACK_TERMS = {
+        4, 5, 2, 1,         // mobilidade
+        6, 4, 5, 6,         // zona do rei
+        5, 15, 15, 20, 30,  // penduradas
+        30, 20              // ameaças
+    };
+
+    private static final int[][] DEFAULT_PIECE_SQUARE = {
+        { // Peão
+             0,   0,   0,   0,   0,   0,   0,   0,
+            50,  50,  50,  50,  50,  50,  50,  50,
+            10,  10,  20,  30,  30,  20,  10,  10,
+             5,   5,  10,  25,  25,  10,   5,   5,
+             0,   0,   0,  20,  20,   0,   0,   0,
+             5,  -5, -10,   0,   0, -10,  -5,   5,
+             5,  10,  10, -20, -20,  10,  10,   5,
+             0,   0,   0,   0,   0,   0,   0,   0
+        },
+        { // Cavalo
+           -50, -40, -30, -30, -30, -30, -40, -50,
+           -40, -20,   0,   0,   0,   0, -20, -40,
+           -30,   0,  10,  15,  15,  10,   0, -30,
+           -30,   5,  15,  20,  20,  15,   5, -30,
+           -30,   0,  15,  20,  20,  15,   0, -30,
+           -30,   5,  10,  15,  15,  10,   5, -30,
+           -40, -20,   0,   5,   5,   0, -20, -40,
+           -50, -40, -30, -30, -30, -30, -40, -50
+        },
+        { // Bispo
+           -20, -10, -10, -10, -10, -10, -10, -20,
+           -10,   0,   0,   0,   0,   0,   0, -10,
+           -10,   0,   5,  10,  10,   5,   0, -10,
+           -10,   5,   5,  10,  10,   5,   5, -10,
+           -10,   0,  10,  10,  10,  10,   0, -10,
+           -10,  10,  10,  10,  10,  10,  10, -10,
+           -10,   5,   0,   0,   0,   0,   5, -10,
+           -20, -10, -10, -10, -10, -10, -10, -20
+        },
+        { // Torre
+             0,   0,   0,   0,   0,   0,   0,   0,
+             5,  10,  10,  10,  10,  10,  10,   5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+            -5,   0,   0,   0,   0,   0,   0,  -5,
+             0,   0,   0,   5,   5,   0,   0,   0
+        },
+        { // Rainha
+           -20, -10, -10,  -5,  -5, -10, -10, -20,
+           -10,   0,   0,   0,   0,   0,   0, -10,
+           -10,   0,   5,   5,   5,   5,   0, -10,
+            -5,   0,   5,   5,   5,   5,   0,  -5,
+             0,   0,   5,   5,   5,   5,   0,  -5,
+           -10,   5,   5,   5,   5,   5,   0, -10,
+           -10,   0,   5,   0,   0,   0,   0, -10,
+           -20, -10, -10,  -5,  -5, -10, -10, -20
+        },
+        { // Rei
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -30, -40, -40, -50, -50, -40, -40, -30,
+           -20, -30, -30, -40, -40, -30, -30, -20,
+           -10, -20, -20, -20, -20, -20, -20, -10,
+            20,  20,   0,   0,   0,   0,  20,  20,
+            20,  30,  10,   0,   0,  10,  30,  20
+        }
+    };
+
+    private final int[] weights;
+    private final AttackMap attacks = new AttackMap();
+    private final int[] attackCounts = new int[ATTACK_TERMS];
+
+    public Evaluation() {
+        this(defaultWeights());
+    }
+
+    public Evaluation(int[] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * @return Uma cópia dos pesos padrão, no layout descrito pelas constantes da classe.
+     */
+    public static int[] defaultWeights() {
+        int[] weights = new int[SIZE];
+        System.arraycopy(DEFAULT_MATERIAL, 0, weights, MATERIAL, 6);
+        for (int type = 0; type < 6; type++) {
+            System.arraycopy(DEFAULT_PIECE_SQUARE[type], 0, weights, PIECE_SQUARE + type * 64, 64);
+        }
+        System.arraycopy(DEFAULT_ATTACK_TERMS, 0, weights, MOBILITY, ATTACK_TERMS);
+        return weights;
+    }
+
+    public int[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Lê os pesos de um arquivo de texto no formato de save: números inteiros separados por
+     * espaços, com linhas de comentário iniciadas por "#". Arquivos só com o material e as tabelas
+     * de casas (gravados antes dos termos de ataque) ficam com os valores padrão desses termos.
+     * @throws IOException se o arquivo não puder ser lido ou não tiver SIZE pesos.
+     */
+    public static Evaluation load(Path file) throws IOException {
+        int[] weights = new int[SIZE];
+        int count = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            for (String token : line.split("\\s+")) {
+                if (count == SIZE) throw new IOException("Pesos demais em " + file);
+                weights[count++] = Integer.parseInt(token);
+            }
+        }
+        if (count == MOBILITY) {
+            System.arraycopy(DEFAULT_ATTACK_TERMS, 0, weights, MOBILITY, ATTACK_TERMS);
+            count = SIZE;
+        }
+        if (count != SIZE) {
+            throw new IOException("Esperados " + SIZE + " pesos em " + file + ", encontrados " + count);
+        }
+        return new Evaluation(weights);
+    }
+
+    /**
+     * Grava os pesos em texto: o material em uma linha e cada tabela de casas em 8 linhas.
+     */
+    public static void save(Path file, int[] weights) throws IOException {
+        String[] names = {"Peão", "Cavalo", "Bispo", "Torre", "Rainha", "Rei"};
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("# Material: p n b r q k");
+            for (int i = 0; i < 6; i++) {
+                out.print((i > 0 ? " " : "") + weights[MATERIAL + i]);
+            }
+            out.println();
+            for (int type = 0; type < 6; type++) {
+                out.println("# Tabela de casas: " + names[type] + " (a8 ... h1, do ponto de vista das brancas)");
+                for (int row = 0; row < 8; row++) {
+                    StringBuilder line = new StringBuilder();
+                    for (int col = 0; col < 8; col++) {
+                        line.append(String.format("%5d", weights[PIECE_SQUARE + type * 64 + row * 8 + col]));
+                    }
+                    out.println(line);
+                }
+            }
+            printTerms(out, "# Mobilidade: n b r q", weights, MOBILITY, 4);
+            printTerms(out, "# Ataques à zona do rei: n b r q", weights, KING_ATTACK, 4);
+            printTerms(out, "# Peças adversárias penduradas: p n b r q", weights, HANGING, 5);
+            printTerms(out, "# Ameaças: peça atacada por peão, torre ou rainha atacada por peça menor", weights, THREAT, 2);
+        }
+    }
+
+    private static void printTerms(PrintWriter out, String comment, int[] weights, int start, int count) {
+        out.println(comment);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            line.append(i > 0 ? " " : "").append(weights[start + i]);
+        }
+        out.println(line);
+    }
+
+    /**
+     * Tipo da peça de 0 a 5, na ordem p, n, b, r, q, k.
+     */
+    public static int pieceType(Piece piece) {
+        return Zobrist.pieceIndex(piece) >> 1;
+    }
+
+    /**
+     * Avaliação usada por uma busca sobre o tabuleiro indicado: uma instância própria, com os
+     * mesmos pesos e o seu próprio AttackMap. Avaliações com estado incremental (ex: NnueEvaluation)
+     * devolvem uma instância ligada ao tabuleiro.
+     */
+    public Evaluation attach(Board board) {
+        return new Evaluation(weights);
+    }
+
+    /**
+     * Avalia a posição do ponto de vista do lado a jogar (positivo = vantagem de quem joga).
+     */
+    public int evaluate(Board board, boolean whiteToMove) {
+        int score = 0;
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.getPieceAt(row, col);
+                if (piece == null) continue;
+                int type = pieceType(piece);
+                int square = piece.isWhite() ? row * 8 + col : (7 - row) * 8 + col;
+                int value = weights[MATERIAL + type] + weights[PIECE_SQUARE + type * 64 + square];
+                score += piece.isWhite() ? value : -value;
+            }
+        }
+        attackTerms(board, attackCounts);
+        for (int i = 0; i < ATTACK_TERMS; i++) {
+            score += attackCounts[i] * weights[MOBILITY + i];
+        }
+        return whiteToMove ? score : -score;
+    }
+
+    /**
+     * Soma em dense o coeficiente de cada peso na avaliação da posição, do ponto de vista das
+     * brancas: a avaliação é a soma de weights[i] * dense[i] (com o sinal de quem joga).
+     */
+    public void features(Board board, int[] dense) {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.getPieceAt(row, col);
+                if (piece == null) continue;
+                int type = pieceType(piece);
+                int square = piece.isWhite() ? row * 8 + col : (7 - row) * 8 + col;
+                int sign = piece.isWhite() ? 1 : -1;
+                dense[MATERIAL + type] += sign;
+                dense[PIECE_SQUARE + type * 64 + square] += sign;
+            }
+        }
+        attackTerms(board, attackCounts);
+        for (int i = 0; i < ATTACK_TERMS; i++) {
+            dense[MOBILITY + i] += attackCounts[i];
+        }
+    }
+
+    // Contagens dos termos de ataque, brancas menos pretas, na ordem dos pesos a partir de MOBILITY
+    private void attackTerms(Board board, int[] counts) {
+        attacks.compute(board);
+        for (int type = AttackMap.KNIGHT; type <= AttackMap.QUEEN; type++) {
+            counts[type - 1] =
+                    attacks.mobility(AttackMap.WHITE, type) - attacks.mobility(AttackMap.BLACK, type);
+            counts[KING_ATTACK - MOBILITY + type - 1] =
+                    attacks.kingZoneAttacks(AttackMap.WHITE, type) - attacks.kingZoneAttacks(AttackMap.BLACK, type);
+        }
+        for (int type = AttackMap.PAWN; type <= AttackMap.QUEEN; type++) {
+            counts[HANGING - MOBILITY + type] = hanging(AttackMap.BLACK, type) - hanging(AttackMap.WHITE, type);
+        }
+        counts[THREAT - MOBILITY] = pawnThreats(AttackMap.WHITE) - pawnThreats(AttackMap.BLACK);
+        counts[THREAT - MOBILITY + 1] = minorThreats(AttackMap.WHITE) - minorThreats(AttackMap.BLACK);
+    }
+
+    // Peças do lado atacadas pelo adversário e sem nenhuma defesa
+    private int hanging(int side, int type) {
+        return Long.bitCount(attacks.pieces(side, type) & attacks.attacks(side ^ 1) & ~attacks.attacks(side));
+    }
+
+    // Cavalos, bispos, torres e rainhas adversários atacados por peões do lado
+    private int pawnThreats(int side) {
+        int other = side ^ 1;
+        long targets = attacks.pieces(other) & ~attacks.pieces(other, AttackMap.PAWN) & ~attacks.pieces(other, AttackMap.KING);
+        return Long.bitCount(attacks.attacks(side, AttackMap.PAWN) & targets);
+    }
+
+    // Torres e rainhas adversárias atacadas por cavalos ou bispos do lado
+    private int minorThreats(int side) {
+        int other = side ^ 1;
+        long targets = attacks.pieces(other, AttackMap.ROOK) | attacks.pieces(other, AttackMap.QUEEN);
+        return Long.bitCount((attacks.attacks(side, AttackMap.KNIGHT) | attacks.attacks(side, AttackMap.BISHOP)) & targets);
+    }
+}
@@ -1,24 +1,78 @@
 package controller;
 
-import javax.swing.JOptionPane;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import model.board.Board;
+import model.board.BoardListener;
+import model.board.Fen;
+import model.board.GameTree;
 import model.board.Position;
+import model.board.PositionHistory;
+import model.board.Zobrist;
 import model.pieces.*;
 import model.board.Move;
+import model.board.MoveHistory;
+import model.tablebase.Tablebase;
 import controller.AIPlayer;
 
 /**
  * A classe Game gerencia a lógica principal do jogo de xadrez, incluindo o estado do tabuleiro,
  * turnos, seleção e movimento de peças, e condições de fim de jogo (xeque, xeque-mate, empate).
+ *
+ * O núcleo não depende da interface gráfica: os lances entram por applyMove (com a peça da
+ * promoção no próprio lance) e a situação da partida é devolvida como GameStatus e enviada aos
+ * GameListener registrados. Cada instância deve ser usada por uma thread de cada vez, mas
+ * instâncias diferentes podem jogar em paralelo.
  */
 public class Game {
     private Board board;
     private boolean isWhiteTurn;
     private boolean isGameOver;
+    private GameStatus status;
+    private String result;
     private Piece selectedPiece;
     private AIPlayer aiPlayer;
     private boolean aiMode;
     private boolean isPlayerWhite;
+    private boolean tablebaseAdjudication;
+    private ChessClock clock;
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Busca da IA em andamento; a geração invalida resultados de buscas canceladas ou de outro turno
+    private CompletableFuture<Move> pendingAIMove;
+    private int aiGeneration;
+    private Executor callbackExecutor = Runnable::run;
+    private boolean pondering;
+    private Move lastMove;
+
+    // Lances da partida, um int por meia-jogada, e a posição de onde ela partiu
+    private final MoveHistory history = new MoveHistory(); // lances do caminho até o nó atual
+    private final PositionHistory positions = new PositionHistory(); // repetições e regra dos 50 lances
+
+    // Todos os lances já jogados, com as variantes deixadas ao voltar lances
+    private GameTree tree;
+    private int currentNode = GameTree.ROOT;
+    private int rootHalfmoveClock;
+
+    // Lances legais da posição atual, gerados uma vez por meia-jogada e identificados pela chave
+    // Zobrist do nó atual da árvore; targetsFrom[casa] tem os destinos legais da peça na casa
+    // (bit linha * 8 + coluna)
+    private List<Move> legalMoves = Collections.emptyList();
+    private final long[] targetsFrom = new long[64];
+    private long legalMovesKey;
+    private boolean legalMovesValid;
+
+    // Casas tocadas desde o último BoardChange (inclusive pelos lances de teste da geração de
+    // lances legais) e a peça de cada casa no último BoardChange, para publicar só o que mudou
+    private long touchedSquares;
+    private final Piece[] publishedPieces = new Piece[64];
 
     /**
      * Construtor da classe Game.
@@ -28,44 +82,77 @@ public class Game {
         board = new Board();
         isWhiteTurn = true;
         isGameOver = false;
+        status = GameStatus.IN_PROGRESS;
+        result = "*";
         setupPieces();
         this.aiMode = false;
         this.isPlayerWhite = true; // Por padrão, o jogador é branco
         this.aiPlayer = new AIPlayer(board, !isPlayerWhite); // A IA joga com a cor oposta ao jogador
+        positions.reset(Zobrist.key(board, isWhiteTurn), 0);
+        aiPlayer.setPositionHistory(positions);
+        tree = new GameTree(board, isWhiteTurn);
+        board.setListener(new BoardListener() {
+            @Override
+            public void piecePlaced(Piece piece, int row, int col) {
+                touchedSquares |= BoardChange.bit(row, col);
+            }
+
+            @Override
+            public void pieceRemoved(Piece piece, int row, int col) {
+                touchedSquares |= BoardChange.bit(row, col);
+            }
+        });
+        markPublished();
     }
 
     /**
-     * Configura as peças iniciais no tabuleiro para um jogo de xadrez padrão.
-     * Coloca todas as peças brancas e pretas em suas posições iniciais.
+     * Cria uma partida a partir de uma posição em FEN.
+     * @throws IllegalArgumentException se a posição for inválida.
      */
-    private void setupPieces() {
-        // Peças brancas
-        board.placePiece(new Rook(board, true), new Position(7, 0));
-        board.placePiece(new Knight(board, true), new Position(7, 1));
-        board.placePiece(new Bishop(board, true), new Position(7, 2));
-        board.placePiece(new Queen(board, true), new Position(7, 3));
-        board.placePiece(new King(board, true), new Position(7, 4));
-        board.placePiece(new Bishop(board, true), new Position(7, 5));
-        board.placePiece(new Knight(board, true), new Position(7, 6));
-        board.placePiece(new Rook(board, true), new Position(7, 7));
-        for (int col = 0; col < 8; col++) {
-            board.placePiece(new Pawn(board, true), new Position(6, col));
+    public Game(String fen) {
+        this();
+        isWhiteTurn = Fen.load(board, fen);
+        rootHalfmoveClock = Fen.halfmoveClock(fen);
+        positions.reset(Zobrist.key(board, isWhiteTurn), rootHalfmoveClock);
+        tree = new GameTree(board, isWhiteTurn);
+        status = checkGameStatus();
+        markPublished();
+    }
+
+    // A posição atual passa a ser a referência das próximas mudanças
+    private void markPublished() {
+        for (int square = 0; square < 64; square++) {
+            publishedPieces[square] = board.getPieceAt(square >> 3, square & 7);
         }
+        touchedSquares = 0;
+    }
 
-        // Peças pretas
-        board.placePiece(new Rook(board, false), new Position(0, 0));
-        board.placePiece(new Knight(board, false), new Position(0, 1));
-        board.placePiece(new Bishop(board, false), new Position(0, 2));
-        board.placePiece(new Queen(board, false), new Position(0, 3));
-        board.placePiece(new King(board, false), new Position(0, 4));
-        board.placePiece(new Bishop(board, false), new Position(0, 5));
-        board.placePiece(new Knight(board, false), new Position(0, 6));
-        board.placePiece(new Rook(board, false), new Position(0, 7));
-        for (int col = 0; col < 8; col++) {
-            board.placePiece(new Pawn(board, false), new Position(1, col));
+    // Envia aos ouvintes as casas que de fato mudaram desde a última mudança publicada
+    private void publishChange() {
+        long changed = 0;
+        for (long bits = touchedSquares; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            Piece piece = board.getPieceAt(square >> 3, square & 7);
+            if (piece != publishedPieces[square]) {
+                publishedPieces[square] = piece;
+                changed |= 1L << square;
+            }
+        }
+        touchedSquares = 0;
+        BoardChange change = new BoardChange(changed, isWhiteTurn, status);
+        for (GameListener listener : listeners) {
+            listener.onBoardChanged(change);
         }
     }
 
+    /**
+     * Configura as peças iniciais no tabuleiro para um jogo de xadrez padrão.
+     * Coloca todas as peças brancas e pretas em suas posições iniciais.
+     */
+    private void setupPieces() {
+        board.setupInitialPosition();
+    }
+
     public Board getBoard() {
         return board;
     }
@@ -78,6 +165,202 @@ public class Game {
         return isGameOver;
     }
 
+    /**
+     * Situação da partida depois do último lance.
+     */
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Resultado no formato PGN: "1-0", "0-1", "1/2-1/2" ou "*" enquanto a partida não termina.
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Número de meias-jogadas feitas na partida.
+     */
+    public int getMoveCount() {
+        return history.size();
+    }
+
+    /**
+     * Meias-jogadas desde a última captura ou lance de peão (regra dos 50 lances).
+     */
+    public int getHalfmoveClock() {
+        return positions.getHalfmoveClock();
+    }
+
+    /**
+     * Chaves das posições da partida, para a busca da IA reconhecer repetições. Só deve ser lida.
+     */
+    public PositionHistory getPositionHistory() {
+        return positions;
+    }
+
+    /**
+     * Lance da meia-jogada (0 = primeiro), codificado como em MoveHistory.
+     */
+    public int getMoveCode(int ply) {
+        return history.get(ply);
+    }
+
+    /**
+     * Tabuleiro novo com a posição depois das primeiras meias-jogadas da partida (0 = posição
+     * inicial), refeito a partir do quadro-chave mais próximo da árvore. Não altera a partida.
+     */
+    public Board positionAt(int ply) {
+        if (ply < 0 || ply > history.size()) throw new IndexOutOfBoundsException("Meia-jogada " + ply);
+        return tree.getBoard(tree.ancestorAt(currentNode, ply));
+    }
+
+    /**
+     * Coloca num tabuleiro já existente a posição depois das primeiras meias-jogadas, como
+     * positionAt, mas sem criar um tabuleiro novo: para percorrer a partida posição a posição.
+     */
+    public void loadPosition(int ply, Board target) {
+        if (ply < 0 || ply > history.size()) throw new IndexOutOfBoundsException("Meia-jogada " + ply);
+        tree.load(tree.ancestorAt(currentNode, ply), target);
+    }
+
+    /**
+     * Árvore com todos os lances jogados na partida, inclusive as variantes abandonadas ao voltar
+     * lances. Só deve ser lida.
+     */
+    public GameTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Nó da árvore com a posição atual.
+     */
+    public int getCurrentNode() {
+        return currentNode;
+    }
+
+    /**
+     * Volta o número indicado de meias-jogadas (até a posição inicial, no máximo). Os lances
+     * desfeitos continuam na árvore e podem ser retomados com goToNode.
+     * @return A situação da partida na posição a que se voltou.
+     */
+    public GameStatus takeBack(int plies) {
+        return goToNode(tree.ancestorAt(currentNode, Math.max(0, tree.getDepth(currentNode) - plies)));
+    }
+
+    /**
+     * Coloca a partida na posição de um nó da árvore: desfaz lances, retoma uma variante ou
+     * volta à linha principal. Uma partida que tinha terminado continua a partir dali, e a IA
+     * joga se for a vez dela.
+     * @return A situação da partida na nova posição.
+     * @throws IllegalStateException se a partida tem relógio (o tempo gasto não pode ser desfeito).
+     */
+    public GameStatus goToNode(int node) {
+        if (node < 0 || node >= tree.size()) throw new IndexOutOfBoundsException("Nó " + node);
+        if (clock != null) throw new IllegalStateException("Não é possível voltar lances numa partida com relógio");
+        cancelAIMove();
+        selectedPiece = null;
+
+        // Refaz o último lance a partir da posição anterior para ter o lance completo (peça e captura)
+        int parent = tree.getParent(node);
+        if (parent == GameTree.NONE) {
+            tree.load(node, board);
+            lastMove = null;
+        } else {
+            tree.load(parent, board);
+            currentNode = parent;
+            isWhiteTurn = tree.whiteToMove(parent);
+            lastMove = findLegalMove(tree.toMove(node));
+            board.makeMove(lastMove);
+        }
+        currentNode = node;
+        isWhiteTurn = tree.whiteToMove(node);
+
+        // Lances e chaves do caminho até o nó
+        int[] path = tree.path(node);
+        history.clear();
+        positions.reset(tree.getKey(GameTree.ROOT), rootHalfmoveClock);
+        for (int i = 1; i < path.length; i++) {
+            int code = tree.getMove(path[i]);
+            history.add(code);
+            positions.push(tree.getKey(path[i]), MoveHistory.isIrreversible(code));
+        }
+
+        isGameOver = false;
+        result = "*";
+        status = checkGameStatus();
+        publishChange();
+        for (GameListener listener : listeners) {
+            listener.onPositionChanged(status);
+        }
+        if (aiMode && aiPlayer.isAIWhite() == isWhiteTurn && !isGameOver) {
+            requestAIMove();
+        }
+        return status;
+    }
+
+    /**
+     * Último lance aplicado, ou null no início da partida.
+     */
+    public Move getLastMove() {
+        return lastMove;
+    }
+
+    /**
+     * Ativa o encerramento antecipado de finais cobertos pelas tabelas de finais
+     * (a partida termina com o resultado teórico da posição).
+     */
+    public void setTablebaseAdjudication(boolean enabled) {
+        this.tablebaseAdjudication = enabled;
+    }
+
+    /**
+     * Joga com relógio: cada lance aplicado aperta o relógio de quem jogou, e a IA passa a dividir
+     * o tempo dela pelo relógio. Deve ser chamado antes do primeiro lance.
+     */
+    public void setClock(ChessClock clock) {
+        this.clock = clock;
+        aiPlayer.setClock(clock);
+    }
+
+    public ChessClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Define onde os resultados da IA são entregues e aplicados ao tabuleiro
+     * (ex: SwingUtilities::invokeLater). Por padrão, na própria thread da busca.
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public void addGameListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeGameListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Ativa a ponderação: depois de cada lance, a IA continua pensando no tempo do adversário,
+     * supondo a resposta que ela espera.
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (!pondering) aiPlayer.stopPondering();
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    public AIPlayer getAIPlayer() {
+        return aiPlayer;
+    }
+
     public Piece getSelectedPiece() {
         return selectedPiece;
     }
@@ -88,7 +371,7 @@ public class Game {
      * @param position A posição da peça a ser selecionada.
      */
     public void selectPiece(Position position) {
-        Piece piece = board.getPieceAt(position);
+        Piece piece = position != null ? board.getPieceAt(position) : null;
         if (piece != null && piece.isWhite() == isWhiteTurn) {
             selectedPiece = piece;
         }
@@ -102,67 +385,34 @@ public class Game {
     }
 
     /**
-     * Tenta mover a peça selecionada para a posição de destino.
-     * Realiza validações de movimento, verifica xeque e lida com condições especiais como roque.
+     * Tenta mover a peça selecionada para a posição de destino (promovendo a rainha, se for o caso).
      * @param destination A posição para onde a peça selecionada deve ser movida.
      * @return true se o movimento foi bem-sucedido, false caso contrário.
      */
     public boolean movePiece(Position destination) {
+        return movePiece(destination, null);
+    }
+
+    /**
+     * Tenta mover a peça selecionada para a posição de destino.
+     * @param destination A posição para onde a peça selecionada deve ser movida.
+     * @param promotionSymbol A peça da promoção ("q", "r", "b" ou "n"), ou null para a rainha.
+     * @return true se o movimento foi bem-sucedido, false caso contrário.
+     */
+    public boolean movePiece(Position destination, String promotionSymbol) {
         // Verifica se há uma peça selecionada e se o jogo não terminou
         if (selectedPiece == null || isGameOver) {
             return false;
         }
 
-        // Verifica se o movimento é válido para a peça selecionada
-        if (!selectedPiece.canMoveTo(destination)) {
-            return false;
-        }
-
-        // Verifica se o movimento causa xeque no próprio rei
-        if (moveCausesCheck(selectedPiece, destination)) {
+        Position from = selectedPiece.getPosition();
+        if ((getLegalTargets(from) & BoardChange.bit(destination.getRow(), destination.getColumn())) == 0) {
             return false;
         }
+        Move move = new Move(from, destination);
+        move.setPromotionSymbol(promotionSymbol);
 
-        Position originalPosition = selectedPiece.getPosition();
-        Piece capturedPiece = board.getPieceAt(destination);
-
-        // --- Lógica para o Roque ---
-        // Se a peça selecionada é um Rei e o movimento é de duas casas na horizontal, é um roque.
-        if (selectedPiece instanceof King && Math.abs(originalPosition.getColumn() - destination.getColumn()) == 2) {
-            int rookOriginalCol;
-            int rookDestinationCol;
-            // Determina qual torre está envolvida no roque (pequeno ou grande)
-            if (destination.getColumn() > originalPosition.getColumn()) { // Roque pequeno (lado do rei)
-                rookOriginalCol = 7;
-                rookDestinationCol = originalPosition.getColumn() + 1;
-            } else { // Roque grande (lado da rainha)
-                rookOriginalCol = 0;
-                rookDestinationCol = originalPosition.getColumn() - 1;
-            }
-            // Move a torre para sua nova posição no roque
-            Piece rook = board.getPieceAt(new Position(originalPosition.getRow(), rookOriginalCol));
-            board.removePiece(new Position(originalPosition.getRow(), rookOriginalCol));
-            board.placePiece(rook, new Position(originalPosition.getRow(), rookDestinationCol));
-            rook.setHasMoved(true); // Marca a torre como movida para evitar roques futuros
-        }
-
-        // Remove a peça da posição original e a coloca na posição de destino
-        board.removePiece(originalPosition);
-        board.placePiece(selectedPiece, destination);
-        selectedPiece.setHasMoved(true); // Marca a peça como movida
-
-        // Verifica e aplica condições especiais (ex: promoção de peão)
-        checkSpecialConditions(selectedPiece, destination);
-
-        // Troca o turno para o próximo jogador
-        isWhiteTurn = !isWhiteTurn;
-
-        if (aiMode && aiPlayer.isAIWhite() == isWhiteTurn) {
-            makeAIMove();
-        }
-
-        // Verifica o status do jogo após o movimento (xeque, xeque-mate, empate)
-        checkGameStatus();
+        applyMove(move);
 
         // Limpa a seleção da peça após o movimento
         selectedPiece = null;
@@ -170,183 +420,196 @@ public class Game {
     }
 
     /**
-     * Simula um movimento de peça para verificar se ele colocaria o próprio rei em xeque.
-     * Isso é crucial para validar movimentos e evitar auto-xeque.
-     * @param piece A peça que seria movida.
-     * @param destination A posição para onde a peça seria movida.
-     * @return true se o movimento simulado resultar em xeque para o próprio rei, false caso contrário.
+     * Lances legais do lado a jogar. A lista é gerada na primeira chamada de cada posição (em
+     * geral já ao fim do lance anterior, ao verificar a situação da partida) e não pode ser alterada.
      */
-    private boolean moveCausesCheck(Piece piece, Position destination) {
-        Position from = piece.getPosition();
-        Piece captured = board.getPieceAt(destination);
-
-        // Salva o estado original da peça e da peça capturada (se houver) para restaurar depois
-        boolean originalHasMoved = piece.hasMoved();
-        boolean capturedOriginalHasMoved = (captured != null) ? captured.hasMoved() : false;
-
-        // Simula o movimento: remove a peça da origem e a coloca no destino
-        board.removePiece(from);
-        if (captured != null) board.removePiece(destination);
-        board.placePiece(piece, destination);
-
-        boolean inCheck;
-        try {
-            // Encontra a posição do rei do jogador atual
-            Position myKing = findKingPosition(piece.isWhite());
-            if (myKing == null) {
-                // Se o rei não for encontrado (situação inesperada), assume que está em xeque
-                return true;
+    public List<Move> getLegalMoves() {
+        long key = tree.getKey(currentNode);
+        if (!legalMovesValid || key != legalMovesKey) {
+            legalMoves = Collections.unmodifiableList(board.generateLegalMoves(isWhiteTurn));
+            Arrays.fill(targetsFrom, 0);
+            for (Move move : legalMoves) {
+                Position from = move.getFrom();
+                targetsFrom[from.getRow() * 8 + from.getColumn()] |= BoardChange.bit(move.getTo().getRow(), move.getTo().getColumn());
             }
-            // Verifica se o rei está sob ataque após o movimento simulado
-            inCheck = isSquareAttacked(myKing, !piece.isWhite());
-        } finally {
-            // Restaura o tabuleiro ao estado original, desfazendo o movimento simulado
-            board.removePiece(destination);
-            board.placePiece(piece, from);
-            piece.setHasMoved(originalHasMoved);
-            if (captured != null) board.placePiece(captured, destination);
-            if (captured != null) captured.setHasMoved(capturedOriginalHasMoved);
+            legalMovesKey = key;
+            legalMovesValid = true;
         }
+        return legalMoves;
+    }
 
-        return inCheck;
+    /**
+     * Casas para onde a peça na posição pode ir com lances legais (bit linha * 8 + coluna);
+     * 0 se a casa está vazia ou a peça não é do lado a jogar.
+     */
+    public long getLegalTargets(Position from) {
+        getLegalMoves();
+        return targetsFrom[from.getRow() * 8 + from.getColumn()];
     }
 
     /**
-     * Encontra a posição do rei de uma determinada cor no tabuleiro.
-     * @param whiteKing true para o rei branco, false para o rei preto.
-     * @return A posição do rei, ou null se não for encontrado (situação inesperada).
+     * Verifica se o lance seria uma promoção de peão (para a interface perguntar a peça antes).
      */
-    private Position findKingPosition(boolean whiteKing) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position p = new Position(r, c);
-                Piece piece = board.getPieceAt(p);
-                if (piece instanceof King && piece.isWhite() == whiteKing) {
-                    return p;
-                }
-            }
+    public boolean isPromotionMove(Position from, Position to) {
+        Piece piece = board.getPieceAt(from);
+        return piece instanceof Pawn && (to.getRow() == 0 || to.getRow() == 7);
+    }
+
+    /**
+     * Aplica um lance do lado a jogar. Roque, en passant e promoção são deduzidos do tabuleiro;
+     * a peça da promoção vem em move.getPromotionSymbol() (rainha se ausente).
+     * @param move O lance, com origem e destino.
+     * @return A situação da partida depois do lance.
+     * @throws IllegalArgumentException se o lance for ilegal ou a partida já tiver terminado.
+     */
+    public GameStatus applyMove(Move move) {
+        Move legal = isGameOver ? null : findLegalMove(move);
+        if (legal == null) {
+            throw new IllegalArgumentException("Lance ilegal: " + move);
         }
-        return null;
-    }
-
-    /**
-     * Verifica se uma determinada casa está sendo atacada por peças de uma cor específica.
-     * @param square A posição da casa a ser verificada.
-     * @param byWhite true para verificar ataques de peças brancas, false para peças pretas.
-     * @return true se a casa estiver sendo atacada, false caso contrário.
-     */
-    private boolean isSquareAttacked(Position square, boolean byWhite) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Position from = new Position(r, c);
-                Piece p = board.getPieceAt(from);
-                // Ignora casas vazias ou peças da mesma cor
-                if (p == null || p.isWhite() != byWhite) continue;
-                // Ignora a própria casa se for a peça que está sendo verificada
-                if (from.equals(square)) continue;
-                // Verifica se a peça pode mover para a casa alvo (indicando um ataque)
-                if (p.canMoveTo(square)) return true;
-            }
+
+        // Um lance feito depois de o tempo acabar não vale
+        if (clock != null && !clock.press(isWhiteTurn)) {
+            timeout();
+            return status;
         }
-        return false;
-    }
-
-    /**
-     * Verifica e aplica condições especiais após um movimento, como promoção de peão.
-     * @param piece A peça que acabou de ser movida.
-     * @param destination A posição final da peça.
-     */
-    private void checkSpecialConditions(Piece piece, Position destination) {
-        // --- Promoção de Peão ---
-        // Se um peão alcança a última fileira, ele é promovido.
-        if (piece instanceof Pawn) {
-            if ((piece.isWhite() && destination.getRow() == 0) || // Peão branco na última fileira
-                (!piece.isWhite() && destination.getRow() == 7)) { // Peão preto na última fileira
-
-                // Opções de promoção para o usuário
-                String[] options = {"Rainha", "Torre", "Bispo", "Cavalo"};
-                int choice = JOptionPane.showOptionDialog(null,
-                        "Escolha uma peça para promoção:",
-                        "Promoção de Peão",
-                        JOptionPane.DEFAULT_OPTION,
-                        JOptionPane.QUESTION_MESSAGE,
-                        null, options, options[0]);
-
-                Piece newPiece; // A nova peça promovida
-                switch (choice) {
-                    case 1: // Torre
-                        newPiece = new Rook(board, piece.isWhite());
-                        break;
-                    case 2: // Bispo
-                        newPiece = new Bishop(board, piece.isWhite());
-                        break;
-                    case 3: // Cavalo
-                        newPiece = new Knight(board, piece.isWhite());
-                        break;
-                    default: // Padrão: Rainha
-                        newPiece = new Queen(board, piece.isWhite());
-                        break;
-                }
 
-                // Remove o peão e coloca a nova peça promovida no tabuleiro
-                board.removePiece(destination);
-                board.placePiece(newPiece, destination);
+        board.makeMove(legal);
+        lastMove = legal;
+        history.add(legal);
+        currentNode = tree.addChild(currentNode, legal, board);
+
+        // Troca o turno para o próximo jogador
+        isWhiteTurn = !isWhiteTurn;
+        positions.push(tree.getKey(currentNode), legal.getCapturedPiece() != null || legal.getPiece() instanceof Pawn);
+
+        // Verifica o status do jogo após o movimento (xeque, xeque-mate, empate)
+        status = checkGameStatus();
+        if (clock != null && isGameOver) clock.stop();
+        publishChange();
+        for (GameListener listener : listeners) {
+            listener.onMoveApplied(legal, status);
+        }
+
+        // A IA procura a resposta em segundo plano; o lance é aplicado quando a busca termina
+        if (aiMode && aiPlayer.isAIWhite() == isWhiteTurn && !isGameOver) {
+            requestAIMove();
+        }
+        return status;
+    }
+
+    // Procura o lance entre os lances legais (sem promoção indicada, considera a rainha)
+    private Move findLegalMove(Move move) {
+        Move fallback = null;
+        for (Move legal : getLegalMoves()) {
+            if (legal.equals(move)) return legal;
+            if (move.getPromotionSymbol() == null && "q".equals(legal.getPromotionSymbol())
+                    && legal.getFrom().equals(move.getFrom()) && legal.getTo().equals(move.getTo())) {
+                fallback = legal;
             }
         }
+        return fallback;
     }
 
     /**
      * Verifica o status atual do jogo: xeque, xeque-mate ou empate.
-     * Atualiza a flag `isGameOver` e exibe mensagens ao usuário conforme o resultado.
-     */
-    private void checkGameStatus() {
-        Position kingPos = findKingPosition(isWhiteTurn);
-        if (kingPos == null) return; // Rei não encontrado, situação inesperada
-
-        boolean inCheck = isSquareAttacked(kingPos, !isWhiteTurn); // Verifica se o rei do turno atual está em xeque
-
-        boolean hasMove = false;
-        // Itera sobre todas as peças do jogador do turno atual para verificar se há movimentos legais
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = board.getPieceAt(new Position(r, c));
-                if (p != null && p.isWhite() == isWhiteTurn) {
-                    for (Position move : p.getPossibleMoves()) {
-                        // Se encontrar um movimento que não deixa o próprio rei em xeque, há movimentos possíveis
-                        if (!moveCausesCheck(p, move)) {
-                            hasMove = true;
-                            break;
-                        }
-                    }
-                    if (hasMove) break;
-                }
-            }
-            if (hasMove) break;
-        }
+     * Atualiza a flag `isGameOver` e o resultado da partida.
+     */
+    private GameStatus checkGameStatus() {
+        boolean inCheck = board.isInCheck(isWhiteTurn); // Verifica se o rei do turno atual está em xeque
+        boolean hasMove = !getLegalMoves().isEmpty(); // deixa os lances da nova posição no cache
 
         // --- Condições de Fim de Jogo ---
         if (inCheck && !hasMove) {
             isGameOver = true;
-            JOptionPane.showMessageDialog(null,
-                    (isWhiteTurn ? "Brancas" : "Pretas") + " estão em XEQUE-MATE!");
+            result = isWhiteTurn ? "0-1" : "1-0";
+            return GameStatus.CHECKMATE;
         } else if (!inCheck && !hasMove) {
             isGameOver = true;
-            JOptionPane.showMessageDialog(null, "EMPATE por afogamento!");
+            result = "1/2-1/2";
+            return GameStatus.STALEMATE;
+        } else if (board.isInsufficientMaterial()) {
+            return draw(GameStatus.DRAW_INSUFFICIENT_MATERIAL);
+        } else if (positions.getHalfmoveClock() >= 100) {
+            return draw(GameStatus.DRAW_FIFTY_MOVES);
+        } else if (positions.repetitionCount() >= 3) {
+            return draw(GameStatus.DRAW_REPETITION);
+        } else if (adjudicateByTablebase()) {
+            isGameOver = true;
+            return GameStatus.TABLEBASE_ADJUDICATION;
         } else if (inCheck) {
-            JOptionPane.showMessageDialog(null,
-                    (isWhiteTurn ? "Brancas" : "Pretas") + " estão em XEQUE!");
+            return GameStatus.CHECK;
+        }
+        return GameStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Encerra a partida se o tempo de quem está a jogar acabou. Deve ser chamado periodicamente
+     * por quem mostra o relógio, já que um lado pode não jogar nunca.
+     * @return true se a partida terminou por tempo.
+     */
+    public boolean checkTimeout() {
+        if (clock == null || isGameOver || !clock.isFlagged(isWhiteTurn)) return false;
+        clock.stop();
+        timeout();
+        return true;
+    }
+
+    private GameStatus draw(GameStatus status) {
+        isGameOver = true;
+        result = "1/2-1/2";
+        return status;
+    }
+
+    private void timeout() {
+        isGameOver = true;
+        status = GameStatus.TIME_FORFEIT;
+        // Quem não tem material para dar mate não ganha por tempo
+        if (!board.hasMatingMaterial(!isWhiteTurn)) {
+            result = "1/2-1/2";
+        } else {
+            result = isWhiteTurn ? "0-1" : "1-0";
+        }
+        cancelAIMove();
+        publishChange();
+        for (GameListener listener : listeners) {
+            listener.onTimeout(isWhiteTurn);
+        }
+    }
+
+    /**
+     * Consulta as tabelas de finais para encerrar a partida, se a adjudicação estiver ativa.
+     * @return true se a posição estava nas tabelas e a partida foi encerrada.
+     */
+    private boolean adjudicateByTablebase() {
+        if (!tablebaseAdjudication) return false;
+        Tablebase tablebase = Tablebase.openDefault();
+        if (tablebase == null) return false;
+        int value = tablebase.probe(board, isWhiteTurn);
+        if (value < 0) return false;
+
+        switch (Tablebase.wdl(value)) {
+            case Tablebase.WIN:
+                result = isWhiteTurn ? "1-0" : "0-1";
+                break;
+            case Tablebase.LOSS:
+                result = isWhiteTurn ? "0-1" : "1-0";
+                break;
+            default:
+                result = "1/2-1/2";
+                break;
         }
+        return true;
     }
 
     public void toggleAIMode() {
         this.aiMode = !this.aiMode;
         if (this.aiMode) {
-            JOptionPane.showMessageDialog(null, "Modo IA ativado! A IA joga como " + (aiPlayer.isAIWhite() ? "Brancas" : "Pretas") + ".");
             if (aiPlayer.isAIWhite() == isWhiteTurn) {
-                makeAIMove();
+                requestAIMove();
             }
         } else {
-            JOptionPane.showMessageDialog(null, "Modo IA desativado!");
+            cancelAIMove();
         }
     }
 
@@ -358,6 +621,32 @@ public class Game {
         return aiPlayer.isAIWhite();
     }
 
+    /**
+     * @return true enquanto a IA estiver procurando um lance em segundo plano.
+     */
+    public boolean isAIThinking() {
+        return pendingAIMove != null && !pendingAIMove.isDone();
+    }
+
+    /**
+     * Interrompe a busca da IA em andamento (e a ponderação); o resultado dela é descartado.
+     */
+    public void cancelAIMove() {
+        cancelPendingSearch();
+        aiPlayer.stopPondering();
+    }
+
+    private void cancelPendingSearch() {
+        aiGeneration++;
+        if (pendingAIMove != null) {
+            pendingAIMove.cancel(false);
+            pendingAIMove = null;
+        }
+    }
+
+    /**
+     * Joga o lance da IA de forma síncrona (bloqueia até a busca terminar).
+     */
     public void makeAIMove() {
         if (isGameOver || !aiMode || aiPlayer.isAIWhite() != isWhiteTurn) {
             return;
@@ -365,10 +654,50 @@ public class Game {
 
         Move aiMove = aiPlayer.makeMove();
         if (aiMove != null) {
-            selectedPiece = board.getPieceAt(aiMove.getFrom());
-            movePiece(aiMove.getTo());
-            clearSelection();
+            applyMove(aiMove);
         }
     }
-}
 
+    // Inicia a busca em segundo plano; o resultado volta pelo executor de callbacks.
+    // Se a IA estava ponderando o lance que acabou de ser jogado, a busca já em andamento é aproveitada.
+    private void requestAIMove() {
+        if (isGameOver) return;
+        cancelPendingSearch();
+        int generation = aiGeneration;
+        Consumer<SearchInfo> progress = info -> {
+            if (listeners.isEmpty()) return;
+            callbackExecutor.execute(() -> {
+                if (generation != aiGeneration) return;
+                for (GameListener listener : listeners) listener.onSearchProgress(info);
+            });
+        };
+        pendingAIMove = aiPlayer.ponderHit(lastMove, progress);
+        if (pendingAIMove == null) {
+            pendingAIMove = aiPlayer.makeMoveAsync(progress);
+        }
+        pendingAIMove.whenComplete((move, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause != null && !(cause instanceof CancellationException)) {
+                callbackExecutor.execute(() -> {
+                    if (generation != aiGeneration) return;
+                    pendingAIMove = null;
+                    System.out.println("❌ Erro na busca da IA: " + cause);
+                    for (GameListener listener : listeners) listener.onSearchFailed(cause);
+                });
+                return;
+            }
+            if (move == null) return; // cancelada ou sem lances
+            callbackExecutor.execute(() -> {
+                // Descarta o resultado se a busca foi cancelada ou o jogo mudou nesse meio tempo
+                if (generation != aiGeneration || isGameOver || !aiMode || aiPlayer.isAIWhite() != isWhiteTurn
+                        || findLegalMove(move) == null) {
+                    return;
+                }
+                pendingAIMove = null;
+                selectedPiece = null;
+                applyMove(move);
+                if (pondering && !isGameOver) aiPlayer.startPondering();
+            });
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package controller;
+
+import model.board.Move;
+
+/**
+ * Recebe os eventos de uma partida. Os métodos são chamados na thread que aplicou o lance;
+ * para lances da IA, pelo executor definido em Game.setCallbackExecutor.
+ */
+public interface GameListener {
+    /**
+     * Um lance (do jogador ou da IA) foi aplicado ao tabuleiro.
+     * @param move O lance jogado, com a peça movida e a capturada.
+     * @param status A situação da partida depois do lance.
+     */
+    void onMoveApplied(Move move, GameStatus status);
+
+    /**
+     * O tabuleiro mudou: chamado antes de onMoveApplied (e de onTimeout), com as casas cuja
+     * peça mudou, o lado a jogar e a situação da partida.
+     */
+    default void onBoardChanged(BoardChange change) {
+    }
+
+    /**
+     * A partida foi levada a outra posição da árvore de lances (lances desfeitos ou uma variante
+     * retomada), depois de onBoardChanged. A lista de lances pode ter encolhido.
+     * @param status A situação da partida na nova posição.
+     */
+    default void onPositionChanged(GameStatus status) {
+    }
+
+    /**
+     * Resultado de uma iteração da busca da IA em andamento.
+     */
+    default void onSearchProgress(SearchInfo info) {
+    }
+
+    /**
+     * A busca da IA em andamento falhou com um erro (não é chamado quando ela é cancelada). A IA
+     * não joga até o próximo pedido de lance.
+     */
+    default void onSearchFailed(Throwable error) {
+    }
+
+    /**
+     * O tempo do lado indicado acabou e a partida terminou (ver Game.getResult).
+     */
+    default void onTimeout(boolean white) {
+    }
+}
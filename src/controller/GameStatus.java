@@ -0,0 +1,20 @@
+package controller;
+
+/**
+ * Situação da partida depois de um lance, do ponto de vista do lado que joga a seguir.
+ */
+public enum GameStatus {
+    IN_PROGRESS,
+    CHECK,
+    CHECKMATE,
+    STALEMATE,
+    TABLEBASE_ADJUDICATION,     // encerrada pelo resultado teórico das tabelas de finais
+    TIME_FORFEIT,               // o tempo de quem estava a jogar acabou (empate se o adversário não tem material para mate)
+    DRAW_REPETITION,            // a mesma posição ocorreu pela terceira vez
+    DRAW_FIFTY_MOVES,           // 50 lances de cada lado sem captura nem lance de peão
+    DRAW_INSUFFICIENT_MATERIAL; // nenhum dos lados pode dar mate
+
+    public boolean isGameOver() {
+        return this != IN_PROGRESS && this != CHECK;
+    }
+}
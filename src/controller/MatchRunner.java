@@ -0,0 +1,388 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.board.Fen;
+import model.board.Move;
+
+/**
+ * Torneio entre duas configurações da IA, sem interface gráfica, com várias partidas em paralelo.
+ *
+ * Cada abertura do arquivo (uma posição FEN por linha) é jogada duas vezes, com as cores
+ * trocadas. As partidas são encerradas pelas regras, pelas tabelas de finais ou por
+ * adjudicação quando as duas engines concordam com a avaliação. Ao longo do torneio são
+ * mostrados o Elo estimado de A contra B e a razão de verossimilhança do SPRT; o torneio para
+ * assim que a hipótese H0 (elo0) ou H1 (elo1) é aceita.
+ *
+ * Uso: java -cp out controller.MatchRunner --a "name=novo,nodes=20000" --b "name=base,nodes=20000"
+ *      [--openings aberturas.epd] [--games 20000] [--threads N] [--elo0 0] [--elo1 5]
+ *      [--alpha 0.05] [--beta 0.05] [--tc 0.5+0.05]
+ *
+ * Com --tc as partidas são jogadas com relógio (ver ChessClock.parse) e cada engine divide o
+ * próprio tempo; nesse caso o limite de nós das configurações deve ser desligado (nodes=0).
+ */
+public class MatchRunner {
+    private static final int RESIGN_SCORE = 1000;   // centipeões
+    private static final int RESIGN_PLIES = 6;
+    private static final int DRAW_SCORE = 10;
+    private static final int DRAW_PLIES = 10;
+    private static final int DRAW_MIN_PLY = 80;
+    private static final int MAX_PLIES = 400;
+    private static final int HASH_MEGABYTES = 16;
+    private static final int MIN_SPRT_GAMES = 16;   // a variância estimada com poucas partidas não é confiável
+
+    private final EngineConfig engineA;
+    private final EngineConfig engineB;
+    private final List<String> openings;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxGames = 20000;
+    private double elo0 = 0;
+    private double elo1 = 5;
+    private double alpha = 0.05;
+    private double beta = 0.05;
+    private String timeControl;
+    private final AtomicInteger timeouts = new AtomicInteger();
+
+    // Duas tabelas por thread (uma para cada engine), limpas a cada partida
+    private final ThreadLocal<TranspositionTable[]> tables = ThreadLocal.withInitial(() ->
+            new TranspositionTable[] {new TranspositionTable(HASH_MEGABYTES), new TranspositionTable(HASH_MEGABYTES)});
+
+    public MatchRunner(EngineConfig engineA, EngineConfig engineB, List<String> openings) {
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.openings = openings.isEmpty() ? Collections.singletonList(Fen.START_POSITION) : openings;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setMaxGames(int maxGames) {
+        this.maxGames = maxGames;
+    }
+
+    /**
+     * Joga as partidas com relógio, no formato de ChessClock.parse (null joga sem relógio).
+     */
+    public void setTimeControl(String timeControl) {
+        if (timeControl != null) ChessClock.parse(timeControl); // valida antes de começar
+        this.timeControl = timeControl;
+    }
+
+    /**
+     * Partidas perdidas por tempo até aqui (só com relógio).
+     */
+    public int getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * Hipóteses do SPRT: H0 "A é elo0 mais forte que B" contra H1 "A é elo1 mais forte".
+     */
+    public void setSprt(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /**
+     * Joga o torneio até o número máximo de partidas ou até o SPRT decidir.
+     * @return As estatísticas finais, do ponto de vista de A.
+     */
+    public Statistics run() throws InterruptedException {
+        Statistics statistics = new Statistics();
+        AtomicInteger nextGame = new AtomicInteger();
+        double lowerBound = Math.log(beta / (1 - alpha));
+        double upperBound = Math.log((1 - beta) / alpha);
+        long start = System.nanoTime();
+        long[] lastReport = {0};
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                int index;
+                while (!statistics.isStopped() && (index = nextGame.getAndIncrement()) < maxGames) {
+                    String opening = openings.get((index / 2) % openings.size());
+                    boolean aIsWhite = index % 2 == 0;
+                    double whiteScore = playGame(opening, aIsWhite ? engineA : engineB, aIsWhite ? engineB : engineA);
+                    if (whiteScore < 0) continue; // abertura já encerrada ou inválida
+
+                    synchronized (statistics) {
+                        statistics.add(aIsWhite ? whiteScore : 1 - whiteScore);
+                        double llr = statistics.llr(elo0, elo1);
+                        boolean decided = statistics.getGames() >= MIN_SPRT_GAMES
+                                && (llr <= lowerBound || llr >= upperBound);
+                        long now = System.nanoTime();
+                        if (!decided && now - lastReport[0] > 1_000_000_000L) {
+                            lastReport[0] = now;
+                            report(statistics, llr, lowerBound, upperBound, (now - start) / 1e9);
+                        }
+                        if (decided) statistics.stop();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+        double llr = statistics.llr(elo0, elo1);
+        report(statistics, llr, lowerBound, upperBound, (System.nanoTime() - start) / 1e9);
+        if (statistics.getGames() < MIN_SPRT_GAMES) {
+            System.out.println("⚠️ Poucas partidas para uma decisão do SPRT");
+        } else if (llr >= upperBound) {
+            System.out.println("✅ H1 aceita: " + engineA.getName() + " é mais forte (elo1 = " + elo1 + ")");
+        } else if (llr <= lowerBound) {
+            System.out.println("❌ H0 aceita: " + engineA.getName() + " não é mais forte (elo0 = " + elo0 + ")");
+        } else {
+            System.out.println("⚠️ Limite de partidas atingido sem decisão do SPRT");
+        }
+        return statistics;
+    }
+
+    private void report(Statistics statistics, double llr, double lowerBound, double upperBound, double seconds) {
+        System.out.printf("Partidas: %d  +%d =%d -%d  Elo: %.1f ± %.1f  LLR: %.2f [%.2f, %.2f]  (%.1f partidas/s)%n",
+                statistics.getGames(), statistics.getWins(), statistics.getDraws(), statistics.getLosses(),
+                statistics.elo(), statistics.eloMargin(), llr, lowerBound, upperBound,
+                statistics.getGames() / Math.max(seconds, 1e-9));
+        if (timeControl != null && timeouts.get() > 0) {
+            System.out.println("⚠️ Derrotas por tempo: " + timeouts.get());
+        }
+    }
+
+    /**
+     * Joga uma partida a partir da abertura.
+     * @return A pontuação das brancas (1, 0.5 ou 0), ou -1 se a abertura não puder ser jogada.
+     */
+    public double playGame(String fen, EngineConfig whiteConfig, EngineConfig blackConfig) {
+        Game game;
+        try {
+            game = new Game(fen);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        if (game.isGameOver()) return -1;
+        game.setTablebaseAdjudication(true);
+
+        TranspositionTable[] pair = tables.get();
+        pair[0].clear();
+        pair[1].clear();
+        AIPlayer white = whiteConfig.createPlayer(game.getBoard(), true, pair[0]);
+        AIPlayer black = blackConfig.createPlayer(game.getBoard(), false, pair[1]);
+        if (timeControl != null) {
+            ChessClock clock = ChessClock.parse(timeControl);
+            game.setClock(clock);
+            white.setClock(clock);
+            black.setClock(clock);
+        }
+        double whiteScore = play(game, white, black, null);
+        if (game.getStatus() == GameStatus.TIME_FORFEIT) timeouts.incrementAndGet();
+        return whiteScore;
+    }
+
+    /**
+     * Observa cada lance escolhido em uma partida automática, antes de ele ser aplicado.
+     */
+    public interface MoveObserver {
+        /**
+         * @param game A partida, ainda na posição em que o lance foi procurado.
+         * @param info O resultado da busca, ou null se o lance veio do livro ou das tabelas.
+         */
+        void onMove(Game game, Move move, SearchInfo info);
+    }
+
+    /**
+     * Joga a partida até o fim, com as mesmas regras de adjudicação do torneio.
+     * Os jogadores devem estar ligados ao tabuleiro da partida.
+     * @param observer Recebe cada lance antes de ele ser aplicado; pode ser null.
+     * @return A pontuação das brancas (1, 0.5 ou 0).
+     */
+    public static double play(Game game, AIPlayer white, AIPlayer black, MoveObserver observer) {
+        int resignPlies = 0;
+        boolean resignWinnerWhite = false;
+        int drawPlies = 0;
+        white.setPositionHistory(game.getPositionHistory());
+        black.setPositionHistory(game.getPositionHistory());
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            boolean whiteMoves = game.isWhiteTurn();
+            AIPlayer player = whiteMoves ? white : black;
+            Move move = player.makeMove();
+            if (move == null) break;
+            SearchInfo info = player.getLastSearchInfo();
+            if (observer != null) observer.onMove(game, move, info);
+            if (game.applyMove(move).isGameOver()) {
+                return score(game.getResult());
+            }
+
+            // Adjudicação pela avaliação: as duas engines precisam concordar por vários lances
+            int score = info != null ? info.getScore() : 0;
+            if (info != null && Math.abs(score) >= RESIGN_SCORE) {
+                boolean winnerWhite = (score > 0) == whiteMoves;
+                resignPlies = (resignPlies > 0 && winnerWhite == resignWinnerWhite) ? resignPlies + 1 : 1;
+                resignWinnerWhite = winnerWhite;
+                if (resignPlies >= RESIGN_PLIES) return resignWinnerWhite ? 1 : 0;
+            } else {
+                resignPlies = 0;
+            }
+            if (info != null && ply >= DRAW_MIN_PLY && Math.abs(score) <= DRAW_SCORE) {
+                if (++drawPlies >= DRAW_PLIES) return 0.5;
+            } else {
+                drawPlies = 0;
+            }
+        }
+        return 0.5;
+    }
+
+    private static double score(String result) {
+        switch (result) {
+            case "1-0": return 1;
+            case "0-1": return 0;
+            default: return 0.5;
+        }
+    }
+
+    /**
+     * Vitórias, empates e derrotas de A, com a estimativa de Elo e o LLR do SPRT.
+     */
+    public static class Statistics {
+        private int wins;
+        private int draws;
+        private int losses;
+        private volatile boolean stopped;
+
+        void add(double score) {
+            if (score == 1) wins++;
+            else if (score == 0) losses++;
+            else draws++;
+        }
+
+        void stop() {
+            stopped = true;
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        public int getGames() {
+            return wins + draws + losses;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getDraws() {
+            return draws;
+        }
+
+        public int getLosses() {
+            return losses;
+        }
+
+        public double getScore() {
+            int games = getGames();
+            return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+        }
+
+        // Variância da pontuação de uma partida
+        private double variance() {
+            int games = getGames();
+            double mean = getScore();
+            return (wins * Math.pow(1 - mean, 2) + draws * Math.pow(0.5 - mean, 2)
+                    + losses * Math.pow(mean, 2)) / games;
+        }
+
+        public double elo() {
+            return eloFromScore(getScore());
+        }
+
+        /**
+         * Metade do intervalo de 95% de confiança do Elo.
+         */
+        public double eloMargin() {
+            int games = getGames();
+            if (games == 0) return 0;
+            double deviation = Math.sqrt(variance() / games);
+            double score = getScore();
+            return (eloFromScore(score + 1.96 * deviation) - eloFromScore(score - 1.96 * deviation)) / 2;
+        }
+
+        /**
+         * Razão de log-verossimilhança entre H1 (elo1) e H0 (elo0), pela aproximação normal
+         * da pontuação média.
+         */
+        public double llr(double elo0, double elo1) {
+            int games = getGames();
+            double variance = variance();
+            if (games == 0 || variance == 0) return 0;
+            double score0 = scoreFromElo(elo0);
+            double score1 = scoreFromElo(elo1);
+            return games * (score1 - score0) * (2 * getScore() - score0 - score1) / (2 * variance);
+        }
+
+        private static double eloFromScore(double score) {
+            score = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        private static double scoreFromElo(double elo) {
+            return 1 / (1 + Math.pow(10, -elo / 400));
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String specA = "name=A";
+        String specB = "name=B";
+        String openingsFile = null;
+        int games = 20000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double elo0 = 0, elo1 = 5, alpha = 0.05, beta = 0.05;
+        String timeControl = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--a": specA = value; break;
+                case "--b": specB = value; break;
+                case "--openings": openingsFile = value; break;
+                case "--games": games = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--elo0": elo0 = Double.parseDouble(value); break;
+                case "--elo1": elo1 = Double.parseDouble(value); break;
+                case "--alpha": alpha = Double.parseDouble(value); break;
+                case "--beta": beta = Double.parseDouble(value); break;
+                case "--tc": timeControl = value; break;
+                default:
+                    System.out.println("Opção desconhecida: " + args[i]);
+                    return;
+            }
+        }
+
+        List<String> openings = new ArrayList<>();
+        if (openingsFile != null) {
+            for (String line : Files.readAllLines(Paths.get(openingsFile), StandardCharsets.UTF_8)) {
+                if (!line.isBlank() && !line.startsWith("#")) openings.add(line.trim());
+            }
+        }
+
+        EngineConfig a = EngineConfig.parse(specA);
+        EngineConfig b = EngineConfig.parse(specB);
+        System.out.println("Torneio: " + a + " contra " + b + ", " + Math.max(openings.size(), 1)
+                + " aberturas, " + threads + " threads" + (timeControl != null ? ", relógio " + timeControl : ""));
+        MatchRunner runner = new MatchRunner(a, b, openings);
+        runner.setThreads(threads);
+        runner.setMaxGames(games);
+        runner.setSprt(elo0, elo1, alpha, beta);
+        runner.setTimeControl(timeControl);
+        runner.run();
+    }
+}
@@ -0,0 +1,429 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import model.board.Board;
+import model.board.Move;
+import model.board.PositionHistory;
+import model.board.Zobrist;
+import model.pieces.Pawn;
+import model.tablebase.Tablebase;
+
+/**
+ * Busca alfa-beta (negamax) com aprofundamento iterativo e busca de quiescência.
+ *
+ * A busca trabalha sobre o seu próprio Board (normalmente uma cópia do tabuleiro da partida)
+ * e pode ser interrompida a qualquer momento por stop() ou pelo limite de tempo; nesse caso
+ * o resultado é o da última iteração completa. Ao final de cada iteração o progresso é
+ * enviado ao listener, se houver.
+ *
+ * As iterações a partir de ASPIRATION_MIN_DEPTH usam uma janela de aspiração em torno da
+ * pontuação anterior. Perto das folhas, lances quietos sem chance de alcançar alfa são podados
+ * (futilidade), e os lances quietos tardios são procurados com profundidade reduzida (LMR),
+ * sendo refeitos com a profundidade normal quando superam alfa. As margens estão em SearchParams.
+ *
+ * No modo MultiPV (setMultiPv), cada iteração procura as N melhores linhas em sequência, cada
+ * uma excluindo na raiz os lances das linhas anteriores; todas usam a mesma tabela de
+ * transposição, então as linhas seguintes aproveitam quase toda a árvore da primeira.
+ *
+ * Cada nó verifica os empates antes de qualquer outra coisa: repetição de uma posição da linha
+ * ou da partida (setPositionHistory), regra dos 50 lances e material insuficiente. As chaves da
+ * linha são empilhadas num PositionHistory, e a chave do nó serve também à tabela de transposição.
+ */
+public class Search {
+    public static final int MATE = 100000;
+    public static final int MAX_PLY = 64;
+    private static final int INFINITY = 1000000;
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    private static final int ASPIRATION_MAX_WINDOW = 1000;  // acima disso, janela completa
+    private static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 20000};
+
+    private final Board board;
+    private final Evaluation evaluation;
+    private Tablebase tablebase;
+    private TranspositionTable transpositionTable;
+    private SearchParams params = new SearchParams();
+    private volatile Consumer<SearchInfo> listener;
+
+    private volatile boolean stopRequested;
+    private volatile long deadline = Long.MAX_VALUE;
+    private volatile TimeManager timeManager;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long nodes;
+    private final Move[][] pvTable = new Move[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private Move rootBestMove;
+    private int multiPv = 1;
+    private final List<Move> excludedRootMoves = new ArrayList<>();
+    private PositionHistory history = new PositionHistory();
+
+    public Search(Board board, Evaluation evaluation) {
+        this.board = board;
+        this.evaluation = evaluation.attach(board);
+    }
+
+    /**
+     * Posições anteriores da partida, terminando na posição do tabuleiro da busca. A busca
+     * empilha e desempilha as suas posições nela; passe uma cópia.
+     */
+    public void setPositionHistory(PositionHistory history) {
+        this.history = history;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Define a tabela de transposição; pode ser compartilhada entre buscas sucessivas
+     * para reaproveitar o trabalho feito (inclusive durante a ponderação).
+     */
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * Define as margens e limites da poda, das reduções e da janela de aspiração.
+     */
+    public void setParams(SearchParams params) {
+        this.params = params;
+    }
+
+    /**
+     * Quantidade de linhas procuradas na raiz (1 = só a melhor). As linhas ficam em SearchInfo.getLines().
+     */
+    public void setMultiPv(int multiPv) {
+        this.multiPv = Math.max(1, multiPv);
+    }
+
+    /**
+     * Recebe o resultado de cada iteração completa (chamado na thread da busca).
+     * Pode ser trocado durante a busca.
+     */
+    public void setListener(Consumer<SearchInfo> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Interrompe a busca; pode ser chamado de qualquer thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Limita a busca a timeMillis a partir de agora; pode ser chamado de qualquer thread,
+     * inclusive durante uma busca sem limite de tempo.
+     */
+    public void setTimeLimit(long timeMillis) {
+        deadline = System.nanoTime() + timeMillis * 1_000_000L;
+    }
+
+    /**
+     * Usa os limites de um TimeManager (jogo com relógio): a busca é interrompida no limite rígido
+     * e não começa uma nova iteração quando o gerenciador decide parar. Pode ser chamado de
+     * qualquer thread, inclusive durante uma busca sem limite de tempo (ex: acerto da ponderação).
+     */
+    public void setTimeManager(TimeManager timeManager) {
+        this.timeManager = timeManager;
+        deadline = timeManager.getHardDeadline();
+    }
+
+    /**
+     * Limita a quantidade de nós visitados, para buscas reproduzíveis e independentes da máquina.
+     * @param nodeLimit O limite, ou 0 para não limitar.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit > 0 ? nodeLimit : Long.MAX_VALUE;
+    }
+
+    public boolean isStopped() {
+        return stopRequested;
+    }
+
+    /**
+     * Procura o melhor lance para o lado indicado.
+     * @param maxDepth Profundidade máxima em meias-jogadas.
+     * @param timeMillis Tempo máximo, ou 0 para procurar até stop(), até a profundidade máxima
+     *                   ou até o limite definido por setTimeLimit ou setTimeManager.
+     * @return O resultado da última iteração completa (com as outras linhas, no modo MultiPV),
+     *         ou null se não houver lances legais.
+     */
+    public SearchInfo search(boolean white, int maxDepth, long timeMillis) {
+        long start = System.nanoTime();
+        if (timeMillis > 0) deadline = start + timeMillis * 1_000_000L;
+        nodes = 0;
+        rootBestMove = null;
+        long rootKey = Zobrist.key(board, white);
+        if (history.size() == 0 || history.lastKey() != rootKey) history.reset(rootKey, 0);
+
+        List<Move> rootMoves = board.generateLegalMoves(white);
+        if (rootMoves.isEmpty()) return null;
+        int lineCount = Math.min(multiPv, rootMoves.size());
+
+        SearchInfo result = null;
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            List<SearchInfo> previousLines = result != null ? result.getLines() : null;
+            List<SearchInfo> lines = new ArrayList<>(lineCount);
+            excludedRootMoves.clear();
+            for (int line = 0; line < lineCount; line++) {
+                SearchInfo previous = previousLines != null && line < previousLines.size() ? previousLines.get(line) : null;
+                // Na raiz, o primeiro lance procurado é o da mesma linha na iteração anterior
+                if (previous != null && !excludedRootMoves.contains(previous.getBestMove())) {
+                    rootBestMove = previous.getBestMove();
+                }
+                int score = aspirationSearch(depth, white, previous);
+                // Iteração interrompida: vale a anterior (na primeira, as linhas já completas)
+                if (stopRequested && (result != null || line > 0)) break;
+
+                List<Move> pv = new ArrayList<>(Arrays.asList(pvTable[0]).subList(0, pvLength[0]));
+                if (pv.isEmpty()) pv.add(firstRootMove(rootMoves));
+                lines.add(new SearchInfo(depth, score, nodes, (System.nanoTime() - start) / 1_000_000L, pv));
+                excludedRootMoves.add(pv.get(0));
+                if (stopRequested) break;
+            }
+            excludedRootMoves.clear();
+            if (stopRequested && result != null) break;
+
+            // As linhas seguintes podem superar a primeira por instabilidade da busca
+            lines.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
+            SearchInfo best = lines.get(0);
+            rootBestMove = best.getBestMove();
+            result = new SearchInfo(depth, best.getScore(), nodes, (System.nanoTime() - start) / 1_000_000L,
+                    best.getPrincipalVariation(), new ArrayList<>(lines.subList(1, lines.size())));
+            Consumer<SearchInfo> listener = this.listener;
+            if (listener != null) listener.accept(result);
+
+            // Só há um lance possível ou um mate já foi encontrado: não adianta aprofundar
+            if (rootMoves.size() == 1 || (lineCount == 1 && result.isMateScore()) || stopRequested) break;
+            TimeManager timeManager = this.timeManager;
+            if (timeManager != null && !timeManager.shouldContinue(result)) break;
+        }
+        return result;
+    }
+
+    private Move firstRootMove(List<Move> rootMoves) {
+        for (Move move : rootMoves) {
+            if (!excludedRootMoves.contains(move)) return move;
+        }
+        return rootMoves.get(0);
+    }
+
+    // Procura com uma janela estreita em torno da pontuação da iteração anterior e a alarga
+    // (dobrando a largura do lado que falhou) até a pontuação cair dentro dela
+    private int aspirationSearch(int depth, boolean white, SearchInfo previous) {
+        if (depth < ASPIRATION_MIN_DEPTH || previous == null || previous.isMateScore()) {
+            return negamax(depth, 0, -INFINITY, INFINITY, white);
+        }
+        int window = params.get(SearchParameter.ASPIRATION_WINDOW);
+        int alpha = previous.getScore() - window;
+        int beta = previous.getScore() + window;
+        while (true) {
+            int score = negamax(depth, 0, alpha, beta, white);
+            if (stopRequested) return score;
+            if (score > alpha && score < beta) return score;
+            window *= 2;
+            if (window > ASPIRATION_MAX_WINDOW) {
+                alpha = -INFINITY;
+                beta = INFINITY;
+            } else if (score <= alpha) {
+                alpha = Math.max(-INFINITY, score - window);
+            } else {
+                beta = Math.min(INFINITY, score + window);
+            }
+        }
+    }
+
+    private void checkTime() {
+        if (++nodes >= nodeLimit || ((nodes & 1023) == 0 && System.nanoTime() > deadline)) {
+            stopRequested = true;
+        }
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, boolean white) {
+        checkTime();
+        pvLength[ply] = ply;
+        if (stopRequested) return 0;
+
+        // Empates: uma repetição já basta dentro da busca
+        if (ply > 0 && (history.isRepetition() || history.getHalfmoveClock() >= 100
+                || (board.getPieceCount() <= 4 && board.isInsufficientMaterial()))) {
+            return 0;
+        }
+
+        if (ply > 0 && tablebase != null && board.getPieceCount() <= 4) {
+            int value = tablebase.probe(board, white);
+            if (value >= 0) return tablebaseScore(value, ply);
+        }
+
+        boolean inCheck = board.isInCheck(white);
+        if (inCheck) depth++; // extensão de xeque
+        if (depth <= 0 || ply >= MAX_PLY - 1) return quiescence(alpha, beta, ply, white);
+
+        // Resultado de uma busca anterior da mesma posição, com profundidade suficiente
+        long key = history.lastKey(); // empilhada pelo nó pai (ou a raiz)
+        int hashMove = ply == 0 ? TranspositionTable.encodeMove(rootBestMove) : 0;
+        if (transpositionTable != null) {
+            long entry = transpositionTable.probe(key);
+            if (entry != 0) {
+                if (TranspositionTable.move(entry) != 0 && hashMove == 0) hashMove = TranspositionTable.move(entry);
+                if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                    int score = TranspositionTable.fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                            || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        List<Move> moves = board.generateLegalMoves(white);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (ply == 0 && !excludedRootMoves.isEmpty()) moves.removeAll(excludedRootMoves);
+        orderMoves(moves, hashMove);
+
+        // Poda de futilidade: perto das folhas, se nem a avaliação mais uma margem alcança alfa,
+        // os lances quietos que não dão xeque não são procurados
+        int futilityValue = -INFINITY;
+        if (ply > 0 && !inCheck && depth <= params.get(SearchParameter.FUTILITY_DEPTH)
+                && Math.abs(alpha) < MATE - MAX_PLY) {
+            int value = evaluation.evaluate(board, white) + params.get(SearchParameter.FUTILITY_MARGIN) * depth;
+            if (value <= alpha) futilityValue = value;
+        }
+        int lmrMinDepth = params.get(SearchParameter.LMR_MIN_DEPTH);
+        int lmrFullMoves = params.get(SearchParameter.LMR_FULL_MOVES);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        Move bestMove = null;
+        for (int index = 0; index < moves.size(); index++) {
+            Move move = moves.get(index);
+            boolean quiet = move.getCapturedPiece() == null && !move.isPromotion();
+            boolean prunable = futilityValue != -INFINITY && index > 0;
+            boolean reducible = depth >= lmrMinDepth && index >= lmrFullMoves;
+            board.makeMove(move);
+            boolean givesCheck = quiet && !inCheck && (prunable || reducible) && board.isInCheck(!white);
+            if (quiet && prunable && !givesCheck) {
+                board.unmakeMove(move);
+                best = Math.max(best, futilityValue);
+                continue;
+            }
+            history.push(Zobrist.key(board, !white), !quiet || move.getPiece() instanceof Pawn);
+
+            int score;
+            int reduction = quiet && reducible && !inCheck && !givesCheck
+                    ? Math.min(depth - 2, 1 + (index - lmrFullMoves) / params.get(SearchParameter.LMR_DIVISOR)) : 0;
+            if (reduction > 0) {
+                // Lance tardio: janela nula com profundidade reduzida, refeito se superar alfa
+                score = -negamax(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, !white);
+                if (score > alpha && !stopRequested) {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha, !white);
+                }
+            } else {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha, !white);
+            }
+            history.pop();
+            board.unmakeMove(move);
+            if (stopRequested) return best == -INFINITY ? 0 : best;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+
+        // Na raiz com lances excluídos (MultiPV), o resultado não vale para a posição
+        if (transpositionTable != null && (ply > 0 || excludedRootMoves.isEmpty())) {
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                    : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            transpositionTable.store(key, TranspositionTable.encodeMove(bestMove),
+                    TranspositionTable.toTable(best, ply), depth, bound);
+        }
+        return best;
+    }
+
+    private int quiescence(int alpha, int beta, int ply, boolean white) {
+        checkTime();
+        pvLength[ply] = ply;
+        if (stopRequested) return 0;
+
+        int standPat = evaluation.evaluate(board, white);
+        if (standPat >= beta || ply >= MAX_PLY - 1) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        List<Move> moves = board.generateLegalMoves(white);
+        List<Move> captures = new ArrayList<>();
+        for (Move move : moves) {
+            if (move.getCapturedPiece() != null || move.isPromotion()) captures.add(move);
+        }
+        orderMoves(captures, 0);
+
+        int deltaMargin = params.get(SearchParameter.DELTA_MARGIN);
+        for (Move move : captures) {
+            // Poda delta: nem ganhando a peça capturada (e uma margem) a captura alcança alfa
+            if (!move.isPromotion()
+                    && standPat + PIECE_VALUES[Evaluation.pieceType(move.getCapturedPiece())] + deltaMargin <= alpha) {
+                continue;
+            }
+            board.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1, !white);
+            board.unmakeMove(move);
+            if (stopRequested) return alpha;
+            if (score >= beta) return score;
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(ply, move);
+            }
+        }
+        return alpha;
+    }
+
+    private void updatePrincipalVariation(int ply, Move move) {
+        pvTable[ply][ply] = move;
+        for (int i = ply + 1; i < pvLength[ply + 1]; i++) {
+            pvTable[ply][i] = pvTable[ply + 1][i];
+        }
+        pvLength[ply] = Math.max(ply + 1, pvLength[ply + 1]);
+    }
+
+    // Ordena: lance da tabela de transposição, promoções, capturas (vítima mais valiosa, atacante mais barato)
+    private void orderMoves(List<Move> moves, int hashMove) {
+        moves.sort((a, b) -> Integer.compare(moveOrder(b, hashMove), moveOrder(a, hashMove)));
+    }
+
+    private int moveOrder(Move move, int hashMove) {
+        if (hashMove != 0 && TranspositionTable.encodeMove(move) == hashMove) return Integer.MAX_VALUE;
+        int order = 0;
+        if (move.isPromotion()) order += PIECE_VALUES["pnbrqk".indexOf(move.getPromotionSymbol())] * 10;
+        if (move.getCapturedPiece() != null) {
+            order += PIECE_VALUES[Evaluation.pieceType(move.getCapturedPiece())] * 10
+                    - PIECE_VALUES[Evaluation.pieceType(move.getPiece())] / 10;
+        }
+        return order;
+    }
+
+    // Converte o valor da tabela de finais em uma pontuação de mate a partir desta meia-jogada
+    private static int tablebaseScore(int value, int ply) {
+        int moves = Tablebase.movesToMate(value);
+        switch (Tablebase.wdl(value)) {
+            case Tablebase.WIN: return MATE - (ply + 2 * moves - 1);
+            case Tablebase.LOSS: return -(MATE - (ply + 2 * moves));
+            default: return 0;
+        }
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,91 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import model.board.Move;
+
+/**
+ * Resultado de uma iteração da busca: profundidade, pontuação, nós visitados e a
+ * variante principal (a sequência de lances esperada, começando pelo melhor lance).
+ * No modo MultiPV traz também as outras linhas procuradas, cada uma com a sua pontuação
+ * e variante.
+ */
+public class SearchInfo {
+    private final int depth;
+    private final int score;
+    private final long nodes;
+    private final long timeMillis;
+    private final List<Move> principalVariation;
+    private final List<SearchInfo> otherLines;
+
+    public SearchInfo(int depth, int score, long nodes, long timeMillis, List<Move> principalVariation) {
+        this(depth, score, nodes, timeMillis, principalVariation, Collections.emptyList());
+    }
+
+    /**
+     * @param otherLines As demais linhas do modo MultiPV, da melhor para a pior.
+     */
+    public SearchInfo(int depth, int score, long nodes, long timeMillis, List<Move> principalVariation,
+                      List<SearchInfo> otherLines) {
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.principalVariation = principalVariation;
+        this.otherLines = otherLines;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Pontuação em centipeões do ponto de vista de quem procura o lance.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return timeMillis > 0 ? nodes * 1000 / timeMillis : nodes;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * Todas as linhas, da melhor para a pior: esta e, no modo MultiPV, as demais.
+     */
+    public List<SearchInfo> getLines() {
+        List<SearchInfo> lines = new ArrayList<>(1 + otherLines.size());
+        lines.add(this);
+        lines.addAll(otherLines);
+        return lines;
+    }
+
+    public Move getBestMove() {
+        return principalVariation.isEmpty() ? null : principalVariation.get(0);
+    }
+
+    /**
+     * @return true se a pontuação indica um mate forçado (a favor ou contra).
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    @Override
+    public String toString() {
+        return "profundidade " + depth + ", pontuação " + score + ", " + nodes + " nós, " + principalVariation;
+    }
+}
@@ -0,0 +1,50 @@
+package controller;
+
+/**
+ * Constantes da busca que podem ser ajustadas (ex: pelo SpsaTuner), com o valor padrão,
+ * os limites aceitos e o tamanho da perturbação usada pelo SPSA.
+ */
+public enum SearchParameter {
+    ASPIRATION_WINDOW(50, 10, 300, 10),   // meia largura da janela de aspiração, em centipeões
+    FUTILITY_MARGIN(150, 50, 400, 20),    // margem por meia-jogada de profundidade restante
+    FUTILITY_DEPTH(2, 0, 4, 1),           // profundidade máxima em que a poda de futilidade é tentada
+    LMR_MIN_DEPTH(3, 2, 6, 1),            // profundidade mínima para reduzir lances tardios
+    LMR_FULL_MOVES(4, 1, 12, 1),          // lances procurados sem redução em cada nó
+    LMR_DIVISOR(8, 1, 24, 2),             // a redução cresce uma meia-jogada a cada LMR_DIVISOR lances
+    DELTA_MARGIN(200, 0, 600, 25);        // margem da poda delta na busca de quiescência
+
+    private final int defaultValue;
+    private final int min;
+    private final int max;
+    private final int step;
+
+    SearchParameter(int defaultValue, int min, int max, int step) {
+        this.defaultValue = defaultValue;
+        this.min = min;
+        this.max = max;
+        this.step = step;
+    }
+
+    public int getDefaultValue() {
+        return defaultValue;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Perturbação do SPSA ao final do ajuste (c_end).
+     */
+    public int getStep() {
+        return step;
+    }
+
+    public int clamp(int value) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,95 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Valores dos parâmetros da busca (ver SearchParameter), guardados em um vetor indexado
+ * pelo ordinal do parâmetro.
+ */
+public class SearchParams {
+    private final int[] values;
+
+    /**
+     * Parâmetros com os valores padrão.
+     */
+    public SearchParams() {
+        SearchParameter[] parameters = SearchParameter.values();
+        values = new int[parameters.length];
+        for (SearchParameter parameter : parameters) {
+            values[parameter.ordinal()] = parameter.getDefaultValue();
+        }
+    }
+
+    private SearchParams(int[] values) {
+        this.values = values;
+    }
+
+    public int get(SearchParameter parameter) {
+        return values[parameter.ordinal()];
+    }
+
+    /**
+     * Define o valor, limitado ao intervalo aceito pelo parâmetro.
+     */
+    public void set(SearchParameter parameter, int value) {
+        values[parameter.ordinal()] = parameter.clamp(value);
+    }
+
+    public SearchParams copy() {
+        return new SearchParams(values.clone());
+    }
+
+    /**
+     * Lê os parâmetros de um arquivo de texto com linhas "NOME=valor" e comentários iniciados por "#".
+     * Os parâmetros ausentes ficam com o valor padrão.
+     * @throws IOException se o arquivo não puder ser lido ou tiver um parâmetro desconhecido.
+     */
+    public static SearchParams load(Path file) throws IOException {
+        SearchParams params = new SearchParams();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] pair = line.split("=", 2);
+            try {
+                params.set(SearchParameter.valueOf(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Linha inválida em " + file + ": " + line, e);
+            }
+        }
+        return params;
+    }
+
+    public void save(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("# Parâmetros da busca (NOME=valor)");
+            for (SearchParameter parameter : SearchParameter.values()) {
+                out.println(parameter + "=" + get(parameter));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SearchParams && Arrays.equals(values, ((SearchParams) other).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (SearchParameter parameter : SearchParameter.values()) {
+            if (text.length() > 0) text.append(", ");
+            text.append(parameter).append('=').append(get(parameter));
+        }
+        return text.toString();
+    }
+}
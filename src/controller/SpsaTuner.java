@@ -0,0 +1,305 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import model.board.Fen;
+import model.board.Move;
+
+/**
+ * Ajuste dos parâmetros da busca (SearchParameter) por SPSA, com partidas da IA contra ela mesma.
+ *
+ * Em cada iteração todos os parâmetros escolhidos são perturbados ao mesmo tempo, para cima ou
+ * para baixo, e as duas versões (theta + c·delta e theta - c·delta) jogam um par de partidas com
+ * a mesma abertura e as cores trocadas; a diferença de pontos estima o gradiente. Os ganhos
+ * seguem o esquema usual (a_k = a / (A + k)^0.602, c_k = c / k^0.101), com o tamanho final da
+ * perturbação de cada parâmetro dado por SearchParameter.getStep().
+ *
+ * Cada lote tem um par de partidas por thread, jogados ao mesmo tempo; ao final do lote as
+ * atualizações são aplicadas e o progresso é gravado no arquivo de checkpoint, de onde o ajuste
+ * continua se for interrompido. Os valores arredondados vão para o arquivo de parâmetros, que
+ * pode ser usado com "params=" no EngineConfig.
+ *
+ * Uso: java -cp out controller.SpsaTuner progresso.txt parametros.txt [--engine "nodes=2000"]
+ *      [--iterations 2000] [--threads N] [--params NOME,NOME] [--rate 0.002] [--openings aberturas.epd]
+ */
+public class SpsaTuner {
+    private static final double ALPHA = 0.602;
+    private static final double GAMMA = 0.101;
+    private static final int RANDOM_OPENING_PLIES = 8;
+    private static final int HASH_MEGABYTES = 16;
+
+    private final EngineConfig engine;
+    private final List<SearchParameter> parameters;
+    private final Path checkpoint;
+    private final Path output;
+    private List<String> openings = Collections.emptyList();
+    private int iterations = 2000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private double learningRate = 0.002;   // r_end: a = r_end * c_end² * (A + N)^ALPHA
+
+    private final double[] theta;
+    private int iteration;
+    private long games;
+    private final SplittableRandom random = new SplittableRandom();
+
+    // Duas tabelas por thread (uma para cada versão), limpas a cada partida
+    private final ThreadLocal<TranspositionTable[]> tables = ThreadLocal.withInitial(() ->
+            new TranspositionTable[] {new TranspositionTable(HASH_MEGABYTES), new TranspositionTable(HASH_MEGABYTES)});
+
+    public SpsaTuner(EngineConfig engine, List<SearchParameter> parameters, Path checkpoint, Path output) {
+        this.engine = engine;
+        this.parameters = parameters;
+        this.checkpoint = checkpoint;
+        this.output = output;
+        theta = new double[parameters.size()];
+        for (int i = 0; i < theta.length; i++) {
+            theta[i] = parameters.get(i).getDefaultValue();
+        }
+    }
+
+    /**
+     * Posições FEN de onde as partidas começam; sem aberturas, cada par começa com alguns lances aleatórios.
+     */
+    public void setOpenings(List<String> openings) {
+        this.openings = openings;
+    }
+
+    /**
+     * Total de iterações (pares de partidas) do ajuste.
+     */
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * Joga os lotes até completar as iterações, continuando do checkpoint se ele existir.
+     */
+    public void run() throws IOException, InterruptedException {
+        if (Files.exists(checkpoint)) {
+            loadCheckpoint();
+            System.out.println("Continuando da iteração " + iteration + ": " + current());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            long startGames = games;
+            while (iteration < iterations) {
+                int batch = Math.min(threads, iterations - iteration);
+                List<Future<Double>> results = new ArrayList<>();
+                List<int[]> deltas = new ArrayList<>();
+                for (int i = 0; i < batch; i++) {
+                    int k = iteration + i + 1;
+                    int[] delta = new int[theta.length];
+                    for (int j = 0; j < delta.length; j++) delta[j] = random.nextBoolean() ? 1 : -1;
+                    SearchParams plus = perturbed(k, delta, 1);
+                    SearchParams minus = perturbed(k, delta, -1);
+                    deltas.add(delta);
+                    results.add(pool.submit(() -> playPair(plus, minus)));
+                }
+
+                // Atualização: theta += a_k * resultado * delta / c_k, dentro dos limites
+                for (int i = 0; i < batch; i++) {
+                    int k = iteration + i + 1;
+                    double result;
+                    try {
+                        result = results.get(i).get();
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Falha em uma partida do SPSA", e.getCause());
+                    }
+                    int[] delta = deltas.get(i);
+                    for (int j = 0; j < theta.length; j++) {
+                        SearchParameter parameter = parameters.get(j);
+                        theta[j] += gainA(parameter, k) * result * delta[j] / gainC(parameter, k);
+                        theta[j] = Math.max(parameter.getMin(), Math.min(parameter.getMax(), theta[j]));
+                    }
+                }
+                iteration += batch;
+                games += 2L * batch;
+                saveCheckpoint();
+                current().save(output);
+
+                double hours = (System.nanoTime() - start) / 3.6e12;
+                System.out.printf("Iteração %d/%d  Partidas: %d  (%.0f partidas/h)  %s%n",
+                        iteration, iterations, games, (games - startGames) / Math.max(hours, 1e-12), values());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private double gainC(SearchParameter parameter, int k) {
+        return parameter.getStep() * Math.pow((double) iterations / k, GAMMA);
+    }
+
+    private double gainA(SearchParameter parameter, int k) {
+        double stability = 0.1 * iterations;
+        double a = learningRate * parameter.getStep() * parameter.getStep() * Math.pow(stability + iterations, ALPHA);
+        return a / Math.pow(stability + k, ALPHA);
+    }
+
+    private SearchParams perturbed(int k, int[] delta, int sign) {
+        SearchParams params = current();
+        for (int j = 0; j < theta.length; j++) {
+            SearchParameter parameter = parameters.get(j);
+            params.set(parameter, (int) Math.round(theta[j] + sign * gainC(parameter, k) * delta[j]));
+        }
+        return params;
+    }
+
+    /**
+     * Valores atuais, arredondados; os parâmetros que não estão sendo ajustados ficam com o padrão.
+     */
+    public SearchParams current() {
+        SearchParams params = new SearchParams();
+        for (int j = 0; j < theta.length; j++) {
+            params.set(parameters.get(j), (int) Math.round(theta[j]));
+        }
+        return params;
+    }
+
+    private String values() {
+        StringBuilder text = new StringBuilder();
+        for (int j = 0; j < theta.length; j++) {
+            if (j > 0) text.append(' ');
+            text.append(parameters.get(j)).append('=').append(String.format("%.1f", theta[j]));
+        }
+        return text.toString();
+    }
+
+    // Par de partidas com a mesma abertura e cores trocadas: pontos de "plus" menos pontos de "minus"
+    private double playPair(SearchParams plus, SearchParams minus) {
+        String opening = opening();
+        double plusScore = playGame(opening, plus, minus) + 1 - playGame(opening, minus, plus);
+        return plusScore - (2 - plusScore);
+    }
+
+    private String opening() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (!openings.isEmpty()) return openings.get(random.nextInt(openings.size()));
+        while (true) {
+            Game game = new Game();
+            for (int i = 0; i < RANDOM_OPENING_PLIES && !game.isGameOver(); i++) {
+                List<Move> moves = game.getBoard().generateLegalMoves(game.isWhiteTurn());
+                game.applyMove(moves.get(random.nextInt(moves.size())));
+            }
+            if (!game.isGameOver()) return Fen.toFen(game.getBoard(), game.isWhiteTurn());
+        }
+    }
+
+    private double playGame(String fen, SearchParams whiteParams, SearchParams blackParams) {
+        Game game = new Game(fen);
+        if (game.isGameOver()) return 0.5;
+        game.setTablebaseAdjudication(true);
+
+        TranspositionTable[] pair = tables.get();
+        pair[0].clear();
+        pair[1].clear();
+        AIPlayer white = engine.createPlayer(game.getBoard(), true, pair[0]);
+        AIPlayer black = engine.createPlayer(game.getBoard(), false, pair[1]);
+        white.setSearchParams(whiteParams);
+        black.setSearchParams(blackParams);
+        return MatchRunner.play(game, white, black, null);
+    }
+
+    // Checkpoint: iteração, partidas e os valores não arredondados de cada parâmetro ajustado
+    private void saveCheckpoint() throws IOException {
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))) {
+            out.println("# SPSA: iteração e partidas jogadas, depois NOME=valor de cada parâmetro");
+            out.println("iteration=" + iteration);
+            out.println("games=" + games);
+            for (int j = 0; j < theta.length; j++) {
+                out.println(parameters.get(j) + "=" + theta[j]);
+            }
+        }
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void loadCheckpoint() throws IOException {
+        for (String line : Files.readAllLines(checkpoint, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] pair = line.split("=", 2);
+            if (pair.length != 2) throw new IOException("Linha inválida no checkpoint: " + line);
+            String key = pair[0].trim();
+            String value = pair[1].trim();
+            if (key.equals("iteration")) {
+                iteration = Integer.parseInt(value);
+            } else if (key.equals("games")) {
+                games = Long.parseLong(value);
+            } else {
+                int index = parameters.indexOf(SearchParameter.valueOf(key));
+                if (index >= 0) theta[index] = Double.parseDouble(value);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Uso: java -cp out controller.SpsaTuner progresso.txt parametros.txt "
+                    + "[--engine \"nodes=2000\"] [--iterations 2000] [--threads N] [--params NOME,NOME] "
+                    + "[--rate 0.002] [--openings aberturas.epd]");
+            return;
+        }
+        String spec = "name=spsa,nodes=2000";
+        List<SearchParameter> parameters = new ArrayList<>(List.of(SearchParameter.values()));
+        List<String> openings = new ArrayList<>();
+        int iterations = 2000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double rate = 0.002;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--engine": spec = value; break;
+                case "--iterations": iterations = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--rate": rate = Double.parseDouble(value); break;
+                case "--params":
+                    parameters.clear();
+                    for (String name : value.split(",")) parameters.add(SearchParameter.valueOf(name.trim()));
+                    break;
+                case "--openings":
+                    for (String line : Files.readAllLines(Paths.get(value), StandardCharsets.UTF_8)) {
+                        if (!line.isBlank() && !line.startsWith("#")) openings.add(line.trim());
+                    }
+                    break;
+                default:
+                    System.out.println("Opção desconhecida: " + args[i]);
+                    return;
+            }
+        }
+
+        EngineConfig engine = EngineConfig.parse(spec);
+        System.out.println("SPSA: " + engine + ", " + parameters.size() + " parâmetros, "
+                + iterations + " iterações, " + threads + " threads");
+        SpsaTuner tuner = new SpsaTuner(engine, parameters, Paths.get(args[0]), Paths.get(args[1]));
+        tuner.setOpenings(openings);
+        tuner.setIterations(iterations);
+        tuner.setThreads(threads);
+        tuner.setLearningRate(rate);
+        tuner.run();
+    }
+}
@@ -0,0 +1,287 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import model.board.Board;
+import model.board.PackedPosition;
+
+/**
+ * Ajuste dos pesos da avaliação pelo método de Texel: minimiza o erro quadrático entre o
+ * resultado previsto pela avaliação (uma sigmoide da pontuação) e o resultado das partidas.
+ *
+ * As posições vêm dos arquivos do DataGenerator. Como a avaliação é linear nos pesos, cada
+ * posição é convertida uma única vez em um vetor esparso de características (índice do peso e
+ * coeficiente), guardado em vetores primitivos; as épocas seguintes só percorrem esses vetores.
+ * O gradiente é calculado em paralelo, em blocos de posições, e os pesos são atualizados com Adam.
+ *
+ * Uso: java -cp out controller.TexelTuner saida.txt dados/*.bin
+ *      [--weights inicial.txt] [--epochs 300] [--lr 1.0] [--lambda 1.0]
+ */
+public class TexelTuner {
+    private static final int CHUNK = 1 << 14;
+    private static final double LN10_400 = Math.log(10) / 400;
+
+    private int positions;
+    private int[] offsets;          // características da posição i: offsets[i] até offsets[i + 1]
+    private short[] indices;
+    private short[] coefficients;   // contagens (ex: mobilidade) podem passar de 127
+    private float[] results;        // resultado para as brancas: 0, 0.5 ou 1
+    private float[] searchScores;   // pontuação da busca para as brancas, em centipeões
+
+    private double k = 1.0;
+    private double lambda = 1.0;    // peso do resultado da partida no alvo (o resto vem da busca)
+
+    public void setLambda(double lambda) {
+        this.lambda = lambda;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    /**
+     * Lê as amostras e extrai as características de todas as posições, em paralelo.
+     */
+    public void load(List<Path> files) throws IOException {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        long total = 0;
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffers.add(buffer.order(ByteOrder.LITTLE_ENDIAN));
+                total += channel.size() / PackedPosition.SIZE;
+            }
+        }
+        if (total > Integer.MAX_VALUE - 1) {
+            throw new IOException("Posições demais: " + total);
+        }
+        positions = (int) total;
+
+        // Blocos de posições: arquivo, primeira posição no arquivo, quantidade e índice global
+        List<int[]> chunks = new ArrayList<>();
+        int global = 0;
+        for (int f = 0; f < buffers.size(); f++) {
+            int count = buffers.get(f).capacity() / PackedPosition.SIZE;
+            for (int first = 0; first < count; first += CHUNK) {
+                int size = Math.min(CHUNK, count - first);
+                chunks.add(new int[] {f, first, size, global});
+                global += size;
+            }
+        }
+
+        offsets = new int[positions + 1];
+        results = new float[positions];
+        searchScores = new float[positions];
+
+        // Primeira passada: quantidade de características de cada posição
+        chunks.parallelStream().forEach(chunk -> {
+            ByteBuffer buffer = buffers.get(chunk[0]);
+            PackedPosition.PiecePool pool = new PackedPosition.PiecePool(new Board());
+            Evaluation evaluation = new Evaluation();
+            int[] dense = new int[Evaluation.SIZE];
+            int[] touched = new int[Evaluation.SIZE];
+            int[] values = new int[Evaluation.SIZE];
+            for (int i = 0; i < chunk[2]; i++) {
+                int offset = (chunk[1] + i) * PackedPosition.SIZE;
+                int position = chunk[3] + i;
+                offsets[position + 1] = extract(buffer, offset, pool, evaluation, dense, touched, values);
+                results[position] = (PackedPosition.result(buffer, offset) + 1) / 2f;
+                searchScores[position] = PackedPosition.score(buffer, offset);
+            }
+        });
+        long features = 0;
+        for (int i = 0; i < positions; i++) {
+            features += offsets[i + 1];
+            if (features > Integer.MAX_VALUE) throw new IOException("Características demais: " + features);
+            offsets[i + 1] = (int) features;
+        }
+
+        // Segunda passada: os índices e coeficientes
+        indices = new short[(int) features];
+        coefficients = new short[(int) features];
+        chunks.parallelStream().forEach(chunk -> {
+            ByteBuffer buffer = buffers.get(chunk[0]);
+            PackedPosition.PiecePool pool = new PackedPosition.PiecePool(new Board());
+            Evaluation evaluation = new Evaluation();
+            int[] dense = new int[Evaluation.SIZE];
+            int[] touched = new int[Evaluation.SIZE];
+            int[] values = new int[Evaluation.SIZE];
+            for (int i = 0; i < chunk[2]; i++) {
+                int count = extract(buffer, (chunk[1] + i) * PackedPosition.SIZE, pool, evaluation, dense, touched, values);
+                int start = offsets[chunk[3] + i];
+                for (int j = 0; j < count; j++) {
+                    indices[start + j] = (short) touched[j];
+                    if (values[j] != (short) values[j]) {
+                        throw new IllegalStateException("Coeficiente fora do intervalo: " + values[j] + " no peso " + touched[j]);
+                    }
+                    coefficients[start + j] = (short) values[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Extrai as características da posição (os coeficientes de Evaluation.features diferentes de zero).
+     * dense é um rascunho zerado de Evaluation.SIZE posições, e volta zerado. A posição é
+     * desempacotada com as peças do pool, sem criar objetos por posição.
+     * @return A quantidade de características em touched e values.
+     */
+    private static int extract(ByteBuffer buffer, int offset, PackedPosition.PiecePool pool, Evaluation evaluation,
+                               int[] dense, int[] touched, int[] values) {
+        PackedPosition.unpack(buffer, offset, pool);
+        evaluation.features(pool.getBoard(), dense);
+        int count = 0;
+        for (int index = 0; index < Evaluation.SIZE; index++) {
+            if (dense[index] == 0) continue;
+            touched[count] = index;
+            values[count++] = dense[index];
+            dense[index] = 0;
+        }
+        return count;
+    }
+
+    private double evaluate(double[] weights, int position) {
+        double score = 0;
+        for (int j = offsets[position]; j < offsets[position + 1]; j++) {
+            score += coefficients[j] * weights[indices[j]];
+        }
+        return score;
+    }
+
+    private static double sigmoid(double k, double score) {
+        return 1 / (1 + Math.exp(-k * LN10_400 * score));
+    }
+
+    private double target(int position) {
+        return lambda * results[position] + (1 - lambda) * sigmoid(k, searchScores[position]);
+    }
+
+    /**
+     * Erro quadrático médio com os pesos indicados.
+     */
+    public double loss(double[] weights) {
+        int chunks = (positions + CHUNK - 1) / CHUNK;
+        double sum = IntStream.range(0, chunks).parallel().mapToDouble(chunk -> {
+            double error = 0;
+            int end = Math.min(positions, (chunk + 1) * CHUNK);
+            for (int i = chunk * CHUNK; i < end; i++) {
+                double difference = sigmoid(k, evaluate(weights, i)) - target(i);
+                error += difference * difference;
+            }
+            return error;
+        }).sum();
+        return sum / positions;
+    }
+
+    /**
+     * Escolhe a constante K da sigmoide que minimiza o erro com os pesos atuais (busca da seção áurea).
+     */
+    public double fitK(double[] weights) {
+        double low = 0.05;
+        double high = 4.0;
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        for (int iteration = 0; iteration < 30; iteration++) {
+            double a = high - ratio * (high - low);
+            double b = low + ratio * (high - low);
+            k = a;
+            double lossA = loss(weights);
+            k = b;
+            double lossB = loss(weights);
+            if (lossA < lossB) high = b; else low = a;
+        }
+        k = (low + high) / 2;
+        return k;
+    }
+
+    // Gradiente do erro médio; cada bloco acumula no seu próprio vetor, somado no final
+    private double[] gradient(double[] weights) {
+        int chunks = (positions + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            double[] gradient = new double[Evaluation.SIZE];
+            int end = Math.min(positions, (chunk + 1) * CHUNK);
+            for (int i = chunk * CHUNK; i < end; i++) {
+                double predicted = sigmoid(k, evaluate(weights, i));
+                double factor = 2 * (predicted - target(i)) * predicted * (1 - predicted) * k * LN10_400;
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    gradient[indices[j]] += factor * coefficients[j];
+                }
+            }
+            return gradient;
+        }).reduce(new double[Evaluation.SIZE], (a, b) -> {
+            double[] sum = new double[Evaluation.SIZE];
+            for (int i = 0; i < sum.length; i++) sum[i] = a[i] + b[i];
+            return sum;
+        });
+    }
+
+    /**
+     * Otimiza os pesos com Adam (gradiente de todas as posições a cada época).
+     * @return Os pesos ajustados, arredondados.
+     */
+    public int[] tune(int[] initial, int epochs, double learningRate) {
+        double[] weights = new double[Evaluation.SIZE];
+        for (int i = 0; i < weights.length; i++) weights[i] = initial[i];
+        double[] m = new double[Evaluation.SIZE];
+        double[] v = new double[Evaluation.SIZE];
+        double beta1 = 0.9;
+        double beta2 = 0.999;
+
+        System.out.printf("K = %.4f, erro inicial = %.6f%n", fitK(weights), loss(weights));
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            double[] gradient = gradient(weights);
+            double correction1 = 1 - Math.pow(beta1, epoch);
+            double correction2 = 1 - Math.pow(beta2, epoch);
+            for (int i = 0; i < weights.length; i++) {
+                double g = gradient[i] / positions;
+                m[i] = beta1 * m[i] + (1 - beta1) * g;
+                v[i] = beta2 * v[i] + (1 - beta2) * g * g;
+                weights[i] -= learningRate * (m[i] / correction1) / (Math.sqrt(v[i] / correction2) + 1e-8);
+            }
+            if (epoch % 10 == 0 || epoch == epochs) {
+                System.out.printf("Época %d: erro = %.6f%n", epoch, loss(weights));
+            }
+        }
+
+        int[] tuned = new int[Evaluation.SIZE];
+        for (int i = 0; i < tuned.length; i++) tuned[i] = (int) Math.round(weights[i]);
+        return tuned;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: java -cp out controller.TexelTuner saida.txt dados.bin... "
+                    + "[--weights inicial.txt] [--epochs 300] [--lr 1.0] [--lambda 1.0]");
+            return;
+        }
+        Path output = Paths.get(args[0]);
+        List<Path> files = new ArrayList<>();
+        int[] initial = Evaluation.defaultWeights();
+        int epochs = 300;
+        double learningRate = 1.0;
+        TexelTuner tuner = new TexelTuner();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--weights": initial = Evaluation.load(Paths.get(args[++i])).getWeights(); break;
+                case "--epochs": epochs = Integer.parseInt(args[++i]); break;
+                case "--lr": learningRate = Double.parseDouble(args[++i]); break;
+                case "--lambda": tuner.setLambda(Double.parseDouble(args[++i])); break;
+                default: files.add(Paths.get(args[i])); break;
+            }
+        }
+
+        long start = System.nanoTime();
+        tuner.load(files);
+        System.out.printf("%d posições carregadas em %.1f s%n", tuner.getPositions(), (System.nanoTime() - start) / 1e9);
+        int[] tuned = tuner.tune(initial, epochs, learningRate);
+        Evaluation.save(output, tuned);
+        System.out.printf("Pesos gravados em %s (%.1f s no total)%n", output, (System.nanoTime() - start) / 1e9);
+    }
+}
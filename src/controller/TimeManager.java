@@ -0,0 +1,92 @@
+package controller;
+
+import model.board.Move;
+
+/**
+ * Divide o tempo de relógio da IA em dois limites para um lance: o flexível, depois do qual a
+ * busca não começa outra iteração, e o rígido, em que ela é interrompida no meio (Search.setTimeManager).
+ *
+ * O limite flexível se ajusta a cada iteração: cresce quando o melhor lance muda ou a pontuação
+ * oscila, e encolhe quando o mesmo lance se mantém por várias iterações. O rígido nunca passa de
+ * metade do tempo restante (mais o atraso), com uma folga para o que acontece fora da busca,
+ * então a IA não perde por tempo.
+ */
+public class TimeManager {
+    private static final long OVERHEAD_MILLIS = 50; // troca de threads e aplicação do lance
+    private static final int MOVES_TO_GO = 30;      // lances que o tempo restante ainda precisa cobrir
+    private static final double MIN_SCALE = 0.5;
+    private static final double MAX_SCALE = 3.0;
+
+    private final long start = System.nanoTime();
+    private final long softMillis;
+    private final long hardMillis;
+
+    // Estado entre iterações
+    private Move lastBestMove;
+    private int lastScore;
+    private double instability; // trocas recentes do melhor lance, com decaimento
+    private double swing;       // oscilações recentes da pontuação, em peões, com decaimento
+    private int stableIterations;
+
+    /**
+     * @param remainingMillis Tempo restante no relógio da IA.
+     * @param incrementMillis Incremento por lance.
+     * @param delayMillis Atraso por lance (tempo não descontado).
+     */
+    public TimeManager(long remainingMillis, long incrementMillis, long delayMillis) {
+        long usable = Math.max(1, remainingMillis - OVERHEAD_MILLIS);
+        long base = usable / MOVES_TO_GO + incrementMillis * 3 / 4;
+        // O atraso não é descontado do relógio, mas a folga de cada lance sai dele primeiro
+        long free = Math.max(0, delayMillis - OVERHEAD_MILLIS);
+        softMillis = Math.max(1, Math.min(base, usable / 5)) + free;
+        hardMillis = Math.max(softMillis, Math.min(base * 4, usable / 2) + free);
+    }
+
+    public long getSoftMillis() {
+        return softMillis;
+    }
+
+    public long getHardMillis() {
+        return hardMillis;
+    }
+
+    /**
+     * Instante (System.nanoTime) em que a busca deve ser interrompida.
+     */
+    public long getHardDeadline() {
+        return start + hardMillis * 1_000_000L;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+
+    /**
+     * Chamado ao fim de cada iteração completa da busca.
+     * @return true se ainda vale começar a próxima iteração.
+     */
+    public boolean shouldContinue(SearchInfo info) {
+        Move best = info.getBestMove();
+        if (lastBestMove != null) {
+            instability *= 0.5;
+            swing *= 0.5;
+            if (best.equals(lastBestMove)) {
+                stableIterations++;
+            } else {
+                instability += 1;
+                stableIterations = 0;
+            }
+            swing += Math.min(Math.abs(info.getScore() - lastScore), 200) / 100.0;
+        }
+        lastBestMove = best;
+        lastScore = info.getScore();
+        return getElapsedMillis() < softMillis * scale();
+    }
+
+    // Fator aplicado ao limite flexível pela estabilidade da busca até aqui
+    private double scale() {
+        double scale = (1 + 0.6 * instability) * (1 + 0.25 * Math.min(swing, 4));
+        if (stableIterations >= 4) scale *= 0.7;
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+    }
+}
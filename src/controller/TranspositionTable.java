@@ -0,0 +1,101 @@
+package controller;
+
+import java.util.Arrays;
+import model.board.Move;
+
+/**
+ * Tabela de transposição: guarda, por chave Zobrist, o resultado de buscas anteriores
+ * (pontuação, profundidade, tipo de limite e melhor lance).
+ *
+ * As entradas ficam em dois vetores de long (chave e dados), sem objetos por entrada, então a
+ * tabela pode ser reaproveitada entre buscas e entre lances. Não é thread-safe: apenas uma
+ * busca deve usá-la por vez.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2; // a pontuação é no mínimo o valor guardado
+    public static final int UPPER_BOUND = 3; // a pontuação é no máximo o valor guardado
+
+    private static final String PROMOTIONS = "qrbn";
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * @param sizeMegabytes Memória aproximada da tabela (16 bytes por entrada).
+     */
+    public TranspositionTable(int sizeMegabytes) {
+        int entries = Integer.highestOneBit(Math.max(1, sizeMegabytes) * (1 << 20) / 16);
+        keys = new long[entries];
+        data = new long[entries];
+        mask = entries - 1;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * Código de 15 bits do lance: origem, destino e peça da promoção (0 = sem lance).
+     */
+    public static int encodeMove(Move move) {
+        if (move == null) return 0;
+        int from = move.getFrom().getRow() * 8 + move.getFrom().getColumn();
+        int to = move.getTo().getRow() * 8 + move.getTo().getColumn();
+        int promotion = move.getPromotionSymbol() == null ? 0 : PROMOTIONS.indexOf(move.getPromotionSymbol()) + 1;
+        return from | (to << 6) | (promotion << 12) | (1 << 15);
+    }
+
+    /**
+     * @return Os dados da entrada da chave, ou 0 se ela não estiver na tabela.
+     */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        return keys[index] == key ? data[index] : 0;
+    }
+
+    /**
+     * Guarda o resultado de um nó. Pontuações de mate devem vir relativas ao nó (ver toTable).
+     */
+    public void store(long key, int moveCode, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        // Mantém o melhor lance anterior da mesma posição se este nó não encontrou nenhum
+        if (moveCode == 0 && keys[index] == key) moveCode = move(data[index]);
+        keys[index] = key;
+        data[index] = ((long) score << 32) | ((long) (depth & 0xFF) << 24) | ((long) moveCode << 2) | bound;
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 24) & 0xFF;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry >>> 2) & 0xFFFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) entry & 3;
+    }
+
+    /**
+     * Converte uma pontuação de mate medida a partir da raiz para uma medida a partir do nó,
+     * para que a mesma entrada sirva em qualquer profundidade da árvore.
+     */
+    public static int toTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) return score + ply;
+        if (score <= -(Search.MATE - Search.MAX_PLY)) return score - ply;
+        return score;
+    }
+
+    public static int fromTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) return score - ply;
+        if (score <= -(Search.MATE - Search.MAX_PLY)) return score + ply;
+        return score;
+    }
+}
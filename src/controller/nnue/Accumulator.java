@@ -0,0 +1,53 @@
+package controller.nnue;
+
+import controller.Evaluation;
+import model.board.Board;
+import model.board.BoardListener;
+import model.pieces.Piece;
+
+/**
+ * Primeira camada da rede (int16) para as duas perspectivas, atualizada a cada peça colocada ou
+ * retirada do tabuleiro: um lance custa poucas somas de H valores, em vez de recalcular todas
+ * as entradas.
+ */
+public final class Accumulator implements BoardListener {
+    private final Network network;
+    final short[] white;
+    final short[] black;
+
+    public Accumulator(Network network) {
+        this.network = network;
+        this.white = new short[network.getHidden()];
+        this.black = new short[network.getHidden()];
+    }
+
+    /**
+     * Recalcula o acumulador a partir de todas as peças do tabuleiro.
+     */
+    public void refresh(Board board) {
+        System.arraycopy(network.featureBias, 0, white, 0, white.length);
+        System.arraycopy(network.featureBias, 0, black, 0, black.length);
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.getPieceAt(row, col);
+                if (piece != null) piecePlaced(piece, row, col);
+            }
+        }
+    }
+
+    @Override
+    public void piecePlaced(Piece piece, int row, int col) {
+        int type = Evaluation.pieceType(piece);
+        int hidden = white.length;
+        network.kernels.add(white, network.featureWeights, Network.feature(true, piece.isWhite(), type, row, col) * hidden);
+        network.kernels.add(black, network.featureWeights, Network.feature(false, piece.isWhite(), type, row, col) * hidden);
+    }
+
+    @Override
+    public void pieceRemoved(Piece piece, int row, int col) {
+        int type = Evaluation.pieceType(piece);
+        int hidden = white.length;
+        network.kernels.subtract(white, network.featureWeights, Network.feature(true, piece.isWhite(), type, row, col) * hidden);
+        network.kernels.subtract(black, network.featureWeights, Network.feature(false, piece.isWhite(), type, row, col) * hidden);
+    }
+}
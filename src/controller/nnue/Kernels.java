@@ -0,0 +1,22 @@
+package controller.nnue;
+
+/**
+ * Operações sobre os vetores da rede. Só há aritmética inteira (com o transbordamento do Java),
+ * então todas as implementações produzem exatamente os mesmos resultados.
+ */
+interface Kernels {
+    /**
+     * accumulator[i] += weights[offset + i], em 16 bits.
+     */
+    void add(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * accumulator[i] -= weights[offset + i], em 16 bits.
+     */
+    void subtract(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * Soma de clamp(us[i], 0, Network.QA) * weights[i] e de clamp(them[i], 0, Network.QA) * weights[H + i].
+     */
+    int output(short[] us, short[] them, short[] weights);
+}
@@ -0,0 +1,143 @@
+package controller.nnue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rede neural de avaliação no estilo NNUE: 768 entradas (cor, tipo e casa de cada peça) ligadas
+ * a H neurônios, calculados para as duas perspectivas (brancas e pretas, com o tabuleiro
+ * espelhado), seguidos de uma camada de saída com as 2H ativações (primeiro as de quem joga).
+ *
+ * Os pesos são inteiros quantizados: a primeira camada em escala QA (a ativação é
+ * clamp(x, 0, QA)), a saída em escala QB, e a pontuação em centipeões é
+ * (soma + viés) * SCALE / (QA * QB).
+ *
+ * Arquivo (little-endian): int MAGIC, int VERSION, int H; short[768 * H] pesos da primeira
+ * camada (H valores por entrada); short[H] vieses; short[2H] pesos da saída; int viés da saída.
+ */
+public final class Network {
+    public static final int INPUTS = 768;
+    static final int QA = 255;
+    static final int QB = 64;
+    static final int SCALE = 400;
+    static final int MAGIC = 0x45554E4E; // "NNUE"
+    static final int VERSION = 1;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private final int hidden;
+    final short[] featureWeights;
+    final short[] featureBias;
+    final short[] outputWeights;
+    final int outputBias;
+    final Kernels kernels;
+
+    Network(int hidden, short[] featureWeights, short[] featureBias, short[] outputWeights, int outputBias,
+            boolean vectorized) {
+        this.hidden = hidden;
+        this.featureWeights = featureWeights;
+        this.featureBias = featureBias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+        this.kernels = vectorized && isVectorAvailable() ? vectorKernels() : new ScalarKernels();
+    }
+
+    /**
+     * Indica se a API de vetores está presente nesta JVM (java --add-modules jdk.incubator.vector).
+     */
+    public static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    // Carregada por nome para que a classe (e o módulo incubado) só sejam exigidos quando presentes
+    private static Kernels vectorKernels() {
+        try {
+            return (Kernels) Class.forName("controller.nnue.VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernels();
+        }
+    }
+
+    /**
+     * Lê a rede mapeando o arquivo em memória, com SIMD se disponível.
+     */
+    public static Network load(Path file) throws IOException {
+        return load(file, true);
+    }
+
+    /**
+     * @param vectorized false força a implementação escalar (os resultados são idênticos).
+     */
+    public static Network load(Path file, boolean vectorized) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Arquivo de rede inválido: " + file);
+            }
+            int hidden = buffer.getInt();
+            long expected = 12 + 2L * (INPUTS * (long) hidden + 3L * hidden) + 4;
+            if (hidden <= 0 || channel.size() != expected) {
+                throw new IOException("Tamanho inesperado da rede em " + file + ": " + channel.size()
+                        + " bytes, esperados " + expected);
+            }
+            short[] featureWeights = new short[INPUTS * hidden];
+            short[] featureBias = new short[hidden];
+            short[] outputWeights = new short[2 * hidden];
+            buffer.asShortBuffer().get(featureWeights).get(featureBias).get(outputWeights);
+            buffer.position(buffer.position() + 2 * (featureWeights.length + featureBias.length + outputWeights.length));
+            int outputBias = buffer.getInt();
+            return new Network(hidden, featureWeights, featureBias, outputWeights, outputBias, vectorized);
+        }
+    }
+
+    /**
+     * Grava a rede no formato lido por load.
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + 2 * (featureWeights.length + featureBias.length
+                + outputWeights.length) + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hidden);
+        for (short weight : featureWeights) buffer.putShort(weight);
+        for (short bias : featureBias) buffer.putShort(bias);
+        for (short weight : outputWeights) buffer.putShort(weight);
+        buffer.putInt(outputBias);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    public int getHidden() {
+        return hidden;
+    }
+
+    public boolean isVectorized() {
+        return kernels instanceof VectorKernels;
+    }
+
+    /**
+     * Índice da entrada de uma peça do ponto de vista de perspective: primeiro as peças da própria
+     * cor, e as casas contadas a partir da primeira fileira de quem olha.
+     * @param type Tipo da peça de 0 a 5 (p, n, b, r, q, k).
+     */
+    public static int feature(boolean perspective, boolean white, int type, int row, int col) {
+        int square = perspective ? (7 - row) * 8 + col : row * 8 + col;
+        return (white == perspective ? 0 : 384) + type * 64 + square;
+    }
+
+    /**
+     * Avalia as ativações do acumulador, em centipeões do ponto de vista de quem joga.
+     */
+    public int evaluate(Accumulator accumulator, boolean whiteToMove) {
+        short[] us = whiteToMove ? accumulator.white : accumulator.black;
+        short[] them = whiteToMove ? accumulator.black : accumulator.white;
+        long sum = (long) kernels.output(us, them, outputWeights) + outputBias;
+        return (int) (sum * SCALE / (QA * QB));
+    }
+}
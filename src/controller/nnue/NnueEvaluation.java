@@ -0,0 +1,56 @@
+package controller.nnue;
+
+import controller.Evaluation;
+import java.io.IOException;
+import java.nio.file.Path;
+import model.board.Board;
+
+/**
+ * Avaliação pela rede neural (Network), para usar no lugar da avaliação manual:
+ * aiPlayer.setEvaluation(NnueEvaluation.load(arquivo)).
+ *
+ * A busca chama attach com o seu tabuleiro, e recebe uma instância com um acumulador ligado a ele,
+ * atualizado a cada makeMove e unmakeMove. Em outros tabuleiros a rede é calculada do zero.
+ */
+public class NnueEvaluation extends Evaluation {
+    private final Network network;
+    private final Board board;
+    private final Accumulator accumulator;
+
+    public NnueEvaluation(Network network) {
+        this(network, null);
+    }
+
+    private NnueEvaluation(Network network, Board board) {
+        this.network = network;
+        this.board = board;
+        if (board != null) {
+            accumulator = new Accumulator(network);
+            accumulator.refresh(board);
+            board.setListener(accumulator);
+        } else {
+            accumulator = null;
+        }
+    }
+
+    public static NnueEvaluation load(Path file) throws IOException {
+        return new NnueEvaluation(Network.load(file));
+    }
+
+    public Network getNetwork() {
+        return network;
+    }
+
+    @Override
+    public Evaluation attach(Board board) {
+        return new NnueEvaluation(network, board);
+    }
+
+    @Override
+    public int evaluate(Board board, boolean whiteToMove) {
+        if (board == this.board) return network.evaluate(accumulator, whiteToMove);
+        Accumulator scratch = new Accumulator(network);
+        scratch.refresh(board);
+        return network.evaluate(scratch, whiteToMove);
+    }
+}
@@ -0,0 +1,309 @@
+package controller.nnue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import model.board.PackedPosition;
+
+/**
+ * Treina uma Network a partir dos arquivos do DataGenerator, em ponto flutuante, e grava a rede
+ * quantizada. O alvo mistura o resultado da partida e a pontuação da busca (lambda), e a saída da
+ * rede passa por uma sigmoide com a mesma escala (SCALE) usada na avaliação.
+ *
+ * As posições ficam em vetores primitivos (índices das entradas do ponto de vista das brancas);
+ * cada lote é dividido entre as threads, cada uma com o seu próprio gradiente, e os pesos são
+ * atualizados com Adam.
+ *
+ * Uso: java -cp out controller.nnue.NnueTrainer rede.nnue dados/*.bin [--hidden 256] [--epochs 20]
+ *      [--batch 16384] [--lr 0.001] [--lambda 0.5]
+ */
+public class NnueTrainer {
+    private static final int CLIENTS = Runtime.getRuntime().availableProcessors();
+
+    private final int hidden;
+    private double learningRate = 0.001;
+    private double lambda = 0.5;
+    private int batchSize = 16384;
+
+    private int positions;
+    private int[] offsets;
+    private short[] features;     // entradas do ponto de vista das brancas
+    private boolean[] whiteToMove;
+    private float[] targets;      // alvo para as brancas, de 0 a 1
+
+    // Parâmetros (a ativação da primeira camada é clamp(x, 0, 1)) e estado do Adam
+    private final float[][] parameters;
+    private final float[][] moments;
+    private final float[][] velocities;
+    private int step;
+
+    public NnueTrainer(int hidden) {
+        this.hidden = hidden;
+        SplittableRandom random = new SplittableRandom(1);
+        float[] featureWeights = new float[Network.INPUTS * hidden];
+        for (int i = 0; i < featureWeights.length; i++) featureWeights[i] = (float) random.nextDouble(-0.1, 0.1);
+        float[] outputWeights = new float[2 * hidden];
+        for (int i = 0; i < outputWeights.length; i++) outputWeights[i] = (float) random.nextDouble(-0.05, 0.05);
+        parameters = new float[][] {featureWeights, new float[hidden], outputWeights, new float[1]};
+        moments = new float[parameters.length][];
+        velocities = new float[parameters.length][];
+        for (int p = 0; p < parameters.length; p++) {
+            moments[p] = new float[parameters[p].length];
+            velocities[p] = new float[parameters[p].length];
+        }
+    }
+
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    public void setLambda(double lambda) {
+        this.lambda = lambda;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    /**
+     * Lê as amostras (arquivos mapeados em memória) e guarda as entradas de cada posição.
+     */
+    public void load(List<Path> files) throws IOException {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        long total = 0;
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN));
+                total += channel.size() / PackedPosition.SIZE;
+            }
+        }
+        if (total * 32 > Integer.MAX_VALUE) throw new IOException("Posições demais: " + total);
+        positions = (int) total;
+        offsets = new int[positions + 1];
+        features = new short[positions * 32];
+        whiteToMove = new boolean[positions];
+        targets = new float[positions];
+
+        int position = 0;
+        int count = 0;
+        for (ByteBuffer buffer : buffers) {
+            for (int offset = 0; offset + PackedPosition.SIZE <= buffer.capacity(); offset += PackedPosition.SIZE) {
+                int piece = 0;
+                for (long bits = PackedPosition.occupancy(buffer, offset); bits != 0; bits &= bits - 1) {
+                    int square = Long.numberOfTrailingZeros(bits);
+                    int code = PackedPosition.pieceCode(buffer, offset, piece++);
+                    int type = (code & 7) == 6 ? 3 : code & 7; // torre que ainda pode rocar
+                    features[count++] = (short) Network.feature(true, (code & 8) == 0, type, square >> 3, square & 7);
+                }
+                offsets[position + 1] = count;
+                whiteToMove[position] = PackedPosition.whiteToMove(buffer, offset);
+                double result = (PackedPosition.result(buffer, offset) + 1) / 2.0;
+                targets[position] = (float) (lambda * result
+                        + (1 - lambda) * sigmoid(PackedPosition.score(buffer, offset) / (double) Network.SCALE));
+                position++;
+            }
+        }
+    }
+
+    private static double sigmoid(double x) {
+        return 1 / (1 + Math.exp(-x));
+    }
+
+    // Entrada equivalente do ponto de vista das pretas: cores trocadas e tabuleiro espelhado
+    private static int mirror(int feature) {
+        return (feature < 384 ? feature + 384 : feature - 384) ^ 56;
+    }
+
+    // Rascunho e gradiente de uma thread
+    private final class Worker {
+        final float[] white = new float[hidden];
+        final float[] black = new float[hidden];
+        final float[][] gradients = new float[parameters.length][];
+        double loss;
+
+        Worker() {
+            for (int p = 0; p < parameters.length; p++) gradients[p] = new float[parameters[p].length];
+        }
+
+        void clear() {
+            for (float[] gradient : gradients) Arrays.fill(gradient, 0);
+            loss = 0;
+        }
+
+        void train(int position) {
+            float[] featureWeights = parameters[0];
+            float[] featureBias = parameters[1];
+            float[] outputWeights = parameters[2];
+            System.arraycopy(featureBias, 0, white, 0, hidden);
+            System.arraycopy(featureBias, 0, black, 0, hidden);
+            for (int j = offsets[position]; j < offsets[position + 1]; j++) {
+                int w = features[j] * hidden;
+                int b = mirror(features[j]) * hidden;
+                for (int h = 0; h < hidden; h++) {
+                    white[h] += featureWeights[w + h];
+                    black[h] += featureWeights[b + h];
+                }
+            }
+            boolean stm = whiteToMove[position];
+            float[] us = stm ? white : black;
+            float[] them = stm ? black : white;
+            double output = parameters[3][0];
+            for (int h = 0; h < hidden; h++) {
+                output += clamp(us[h]) * outputWeights[h] + clamp(them[h]) * outputWeights[hidden + h];
+            }
+            double predicted = sigmoid(output);
+            double target = stm ? targets[position] : 1 - targets[position];
+            double error = predicted - target;
+            loss += error * error;
+            float g = (float) (2 * error * predicted * (1 - predicted));
+
+            // Saída
+            gradients[3][0] += g;
+            float[] outputGradient = gradients[2];
+            for (int h = 0; h < hidden; h++) {
+                outputGradient[h] += g * clamp(us[h]);
+                outputGradient[hidden + h] += g * clamp(them[h]);
+            }
+            // Primeira camada: o gradiente só passa onde a ativação não está saturada
+            for (int h = 0; h < hidden; h++) {
+                us[h] = us[h] > 0 && us[h] < 1 ? g * outputWeights[h] : 0;
+                them[h] = them[h] > 0 && them[h] < 1 ? g * outputWeights[hidden + h] : 0;
+                gradients[1][h] += us[h] + them[h];
+            }
+            float[] featureGradient = gradients[0];
+            for (int j = offsets[position]; j < offsets[position + 1]; j++) {
+                int w = features[j] * hidden;
+                int b = mirror(features[j]) * hidden;
+                for (int h = 0; h < hidden; h++) {
+                    featureGradient[w + h] += white[h];
+                    featureGradient[b + h] += black[h];
+                }
+            }
+        }
+    }
+
+    private static float clamp(float x) {
+        return Math.max(0, Math.min(1, x));
+    }
+
+    /**
+     * Treina pelo número de épocas indicado, em lotes embaralhados.
+     */
+    public void train(int epochs) {
+        Worker[] workers = new Worker[CLIENTS];
+        for (int t = 0; t < workers.length; t++) workers[t] = new Worker();
+        int[] order = IntStream.range(0, positions).toArray();
+        SplittableRandom random = new SplittableRandom(2);
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            for (int i = positions - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            double loss = 0;
+            for (int start = 0; start < positions; start += batchSize) {
+                int end = Math.min(positions, start + batchSize);
+                int first = start;
+                IntStream.range(0, workers.length).parallel().forEach(t -> {
+                    Worker worker = workers[t];
+                    worker.clear();
+                    for (int i = first + t; i < end; i += workers.length) worker.train(order[i]);
+                });
+                for (Worker worker : workers) loss += worker.loss;
+                update(workers, end - start);
+            }
+            System.out.printf("Época %d: erro = %.6f%n", epoch, loss / positions);
+        }
+    }
+
+    private void update(Worker[] workers, int count) {
+        step++;
+        double beta1 = 0.9;
+        double beta2 = 0.999;
+        double correction1 = 1 - Math.pow(beta1, step);
+        double correction2 = 1 - Math.pow(beta2, step);
+        for (int p = 0; p < parameters.length; p++) {
+            float[] values = parameters[p];
+            float[] m = moments[p];
+            float[] v = velocities[p];
+            for (int i = 0; i < values.length; i++) {
+                double g = 0;
+                for (Worker worker : workers) g += worker.gradients[p][i];
+                g /= count;
+                m[i] = (float) (beta1 * m[i] + (1 - beta1) * g);
+                v[i] = (float) (beta2 * v[i] + (1 - beta2) * g * g);
+                values[i] -= (float) (learningRate * (m[i] / correction1) / (Math.sqrt(v[i] / correction2) + 1e-8));
+            }
+        }
+    }
+
+    /**
+     * Quantiza os pesos treinados na escala usada pela Network.
+     */
+    public Network toNetwork() {
+        short[] featureWeights = quantize(parameters[0], Network.QA);
+        short[] featureBias = quantize(parameters[1], Network.QA);
+        short[] outputWeights = quantize(parameters[2], Network.QB);
+        int outputBias = Math.round(parameters[3][0] * Network.QA * Network.QB);
+        return new Network(hidden, featureWeights, featureBias, outputWeights, outputBias, false);
+    }
+
+    private static short[] quantize(float[] values, int scale) {
+        short[] quantized = new short[values.length];
+        for (int i = 0; i < values.length; i++) {
+            quantized[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(values[i] * scale)));
+        }
+        return quantized;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: java -cp out controller.nnue.NnueTrainer rede.nnue dados.bin... "
+                    + "[--hidden 256] [--epochs 20] [--batch 16384] [--lr 0.001] [--lambda 0.5]");
+            return;
+        }
+        Path output = Paths.get(args[0]);
+        List<Path> files = new ArrayList<>();
+        int hidden = 256;
+        int epochs = 20;
+        int batch = 16384;
+        double learningRate = 0.001;
+        double lambda = 0.5;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hidden": hidden = Integer.parseInt(args[++i]); break;
+                case "--epochs": epochs = Integer.parseInt(args[++i]); break;
+                case "--batch": batch = Integer.parseInt(args[++i]); break;
+                case "--lr": learningRate = Double.parseDouble(args[++i]); break;
+                case "--lambda": lambda = Double.parseDouble(args[++i]); break;
+                default: files.add(Paths.get(args[i])); break;
+            }
+        }
+
+        long start = System.nanoTime();
+        NnueTrainer trainer = new NnueTrainer(hidden);
+        trainer.setLambda(lambda);
+        trainer.setLearningRate(learningRate);
+        trainer.setBatchSize(batch);
+        trainer.load(files);
+        System.out.printf("%d posições carregadas em %.1f s%n", trainer.getPositions(), (System.nanoTime() - start) / 1e9);
+        trainer.train(epochs);
+        trainer.toNetwork().save(output);
+        System.out.printf("Rede gravada em %s (%.1f s no total)%n", output, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,31 @@
+package controller.nnue;
+
+/**
+ * Implementação escalar, usada quando o módulo jdk.incubator.vector não está disponível.
+ */
+final class ScalarKernels implements Kernels {
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int output(short[] us, short[] them, short[] weights) {
+        int hidden = us.length;
+        int sum = 0;
+        for (int i = 0; i < hidden; i++) {
+            sum += Math.max(0, Math.min(Network.QA, us[i])) * weights[i];
+            sum += Math.max(0, Math.min(Network.QA, them[i])) * weights[hidden + i];
+        }
+        return sum;
+    }
+}
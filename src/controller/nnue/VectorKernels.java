@@ -0,0 +1,68 @@
+package controller.nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementação com instruções SIMD da API de vetores (jdk.incubator.vector).
+ * Só é carregada quando o módulo está presente (java --add-modules jdk.incubator.vector).
+ * O produto escalar é feito em 32 bits, convertendo cada metade do vetor de 16 bits.
+ */
+final class VectorKernels implements Kernels {
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int output(short[] us, short[] them, short[] weights) {
+        int hidden = us.length;
+        IntVector sum = IntVector.zero(INTS);
+        int tail = 0;
+        for (int half = 0; half < 2; half++) {
+            short[] accumulator = half == 0 ? us : them;
+            int base = half * hidden;
+            int i = 0;
+            for (int bound = SHORTS.loopBound(hidden); i < bound; i += SHORTS.length()) {
+                ShortVector active = ShortVector.fromArray(SHORTS, accumulator, i)
+                        .max((short) 0).min((short) Network.QA);
+                ShortVector weight = ShortVector.fromArray(SHORTS, weights, base + i);
+                for (int part = 0; part < 2; part++) {
+                    IntVector a = (IntVector) active.convertShape(VectorOperators.S2I, INTS, part);
+                    IntVector w = (IntVector) weight.convertShape(VectorOperators.S2I, INTS, part);
+                    sum = sum.add(a.mul(w));
+                }
+            }
+            for (; i < hidden; i++) {
+                tail += Math.max(0, Math.min(Network.QA, accumulator[i])) * weights[base + i];
+            }
+        }
+        return sum.reduceLanes(VectorOperators.ADD) + tail;
+    }
+}
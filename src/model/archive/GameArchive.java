@@ -0,0 +1,130 @@
+package model.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Arquivo de partidas no formato de GameRecord, lido por memory-mapping: a partida N é
+ * encontrada pelo índice de posições e decodificada direto do arquivo, sem ler as anteriores.
+ *
+ * São dois arquivos, ambos só acrescentados (ver GameArchiveWriter):
+ *   - o arquivo de partidas: um cabeçalho de 8 bytes (MAGIC e a versão) e os registros em sequência;
+ *   - o índice (mesmo nome + ".idx"): a posição de cada registro, um long little-endian por partida.
+ *
+ * O arquivo de partidas é mapeado em janelas de 1 GB que se sobrepõem em GameRecord.MAX_SIZE
+ * bytes, então todo registro cabe inteiro na janela onde começa. O leitor vê as partidas que
+ * existiam quando foi aberto; as acrescentadas depois exigem abri-lo de novo.
+ */
+public class GameArchive implements Closeable {
+    static final int MAGIC = 0x44524158; // "XARD"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final MappedByteBuffer[] windows;
+    private final LongBuffer offsets;
+    private final long gameCount;
+
+    public GameArchive(Path path) throws IOException {
+        data = FileChannel.open(path);
+        index = FileChannel.open(indexPath(path));
+        long dataSize = data.size();
+        MappedByteBuffer header = data.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(dataSize, HEADER_SIZE));
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (dataSize < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            close();
+            throw new IOException("Não é um arquivo de partidas: " + path);
+        }
+
+        windows = new MappedByteBuffer[(int) ((dataSize + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+        for (int i = 0; i < windows.length; i++) {
+            long start = i * WINDOW_SIZE;
+            long length = Math.min(dataSize - start, WINDOW_SIZE + GameRecord.MAX_SIZE);
+            windows[i] = data.map(FileChannel.MapMode.READ_ONLY, start, length);
+            windows[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        // Um único mapeamento: até 2 GB de índice, ou 268 milhões de partidas
+        long indexSize = index.size() & ~7L;
+        offsets = index.map(FileChannel.MapMode.READ_ONLY, 0, indexSize).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        gameCount = indexSize / 8;
+    }
+
+    /**
+     * Índice de um arquivo de partidas: o mesmo nome com ".idx" no final.
+     */
+    public static Path indexPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".idx");
+    }
+
+    /**
+     * Número de partidas no arquivo.
+     */
+    public long size() {
+        return gameCount;
+    }
+
+    /**
+     * Decodifica a partida de índice indicado (0 = a primeira gravada).
+     */
+    public GameRecord get(long game) {
+        long offset = offset(game);
+        return GameRecord.decode(windows[(int) (offset / WINDOW_SIZE)], (int) (offset % WINDOW_SIZE));
+    }
+
+    /**
+     * Número de meias-jogadas da partida, sem decodificar os lances.
+     */
+    public int plyCount(long game) {
+        long offset = offset(game);
+        return GameRecord.plyCount(windows[(int) (offset / WINDOW_SIZE)], (int) (offset % WINDOW_SIZE));
+    }
+
+    private long offset(long game) {
+        if (game < 0 || game >= gameCount) throw new IndexOutOfBoundsException("Partida " + game);
+        return offsets.get((int) game);
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+        index.close();
+    }
+
+    /**
+     * Mede o acesso aleatório: java -cp out model.archive.GameArchive arquivo.partidas [amostras]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: GameArchive <arquivo.partidas> [amostras]");
+            return;
+        }
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        long start = System.nanoTime();
+        try (GameArchive archive = new GameArchive(Paths.get(args[0]))) {
+            double openMillis = (System.nanoTime() - start) / 1e6;
+            if (archive.size() == 0) {
+                System.out.println("Arquivo vazio");
+                return;
+            }
+            Random random = new Random(1);
+            long plies = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                plies += archive.get((long) (random.nextDouble() * archive.size())).getMoves().size();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Partidas: %d, aberto em %.1f ms%n", archive.size(), openMillis);
+            System.out.printf("%d partidas aleatórias em %.2f s: %.0f µs por partida, %.1f µs por lance%n",
+                    samples, seconds, seconds * 1e6 / samples, seconds * 1e6 / Math.max(1, plies));
+        }
+    }
+}
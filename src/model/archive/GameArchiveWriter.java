@@ -0,0 +1,131 @@
+package model.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import model.pgn.PgnGame;
+import model.pgn.PgnReader;
+
+/**
+ * Acrescenta partidas a um arquivo de partidas (ver GameArchive), criando-o se não existir.
+ *
+ * Registros e posições passam por buffers de 1 MB; a cada descarga os registros são gravados
+ * antes das posições, então o índice nunca aponta para um registro que ainda não está no disco.
+ * Um arquivo interrompido no meio de uma gravação continua legível até a última partida indexada.
+ */
+public class GameArchiveWriter implements Closeable {
+    private static final int BUFFER_SIZE = GameRecord.MAX_SIZE;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final ByteBuffer dataBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long dataSize;
+    private long gameCount;
+
+    public GameArchiveWriter(Path path) throws IOException {
+        data = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = FileChannel.open(GameArchive.indexPath(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (data.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(GameArchive.MAGIC).putInt(GameArchive.VERSION).flip();
+            data.write(header, 0);
+            index.truncate(0);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            data.read(header, 0);
+            if (header.getInt(0) != GameArchive.MAGIC || header.getInt(4) != GameArchive.VERSION) {
+                close();
+                throw new IOException("Não é um arquivo de partidas: " + path);
+            }
+        }
+        // Descarta uma posição incompleta no fim do índice (gravação interrompida)
+        index.truncate(index.size() & ~7L);
+        dataSize = data.size();
+        gameCount = index.size() / 8;
+    }
+
+    /**
+     * Número de partidas no arquivo, incluindo as ainda nos buffers.
+     */
+    public long size() {
+        return gameCount;
+    }
+
+    /**
+     * Acrescenta a partida ao fim do arquivo.
+     * @return O índice da partida (para GameArchive.get).
+     * @throws IllegalArgumentException se a partida não puder ser gravada (ver GameRecord.encode).
+     */
+    public long append(GameRecord record) throws IOException {
+        byte[] bytes = record.encode(); // no máximo GameRecord.MAX_SIZE, o tamanho do buffer
+        if (dataBuffer.remaining() < bytes.length || indexBuffer.remaining() < 8) flush();
+        indexBuffer.putLong(dataSize);
+        dataBuffer.put(bytes);
+        dataSize += bytes.length;
+        return gameCount++;
+    }
+
+    /**
+     * Grava no disco o que está nos buffers: primeiro os registros, depois as posições.
+     */
+    public void flush() throws IOException {
+        long position = dataSize - dataBuffer.position();
+        dataBuffer.flip();
+        while (dataBuffer.hasRemaining()) position += data.write(dataBuffer, position);
+        dataBuffer.clear();
+        indexBuffer.flip();
+        while (indexBuffer.hasRemaining()) index.write(indexBuffer, index.size());
+        indexBuffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (data.isOpen() && index.isOpen()) flush();
+        } finally {
+            data.close();
+            index.close();
+        }
+    }
+
+    /**
+     * Converte um PGN: java -cp out model.archive.GameArchiveWriter partidas.pgn arquivo.partidas
+     * Partidas com lance inválido não são gravadas; elas são contadas à parte.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: GameArchiveWriter <partidas.pgn> <arquivo.partidas>");
+            return;
+        }
+        Path output = Paths.get(args[1]);
+        long plies = 0;
+        long invalid = 0;
+        long start = System.nanoTime();
+        long games;
+        try (PgnReader reader = new PgnReader(Paths.get(args[0]));
+             GameArchiveWriter writer = new GameArchiveWriter(output)) {
+            long before = writer.size();
+            for (PgnGame game : (Iterable<PgnGame>) reader.games()::iterator) {
+                if (!game.isValid()) {
+                    invalid++;
+                    continue;
+                }
+                writer.append(GameRecord.fromPgn(game));
+                plies += game.getMoves().size();
+            }
+            games = writer.size() - before;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long size = Files.size(output) + Files.size(GameArchive.indexPath(output));
+        System.out.printf("%d partidas (%d lances) gravadas em %s em %.1f s, %d inválidas ignoradas%n",
+                games, plies, output, seconds, invalid);
+        System.out.printf("Tamanho com o índice: %d bytes (%.1f bytes por partida)%n", size, size / (double) Math.max(1, games));
+    }
+}
@@ -0,0 +1,217 @@
+package model.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import model.board.Board;
+import model.board.Fen;
+import model.board.Move;
+import model.board.Position;
+import model.pgn.PgnGame;
+
+/**
+ * Uma partida no formato binário do arquivo de partidas (GameArchive): cabeçalhos, resultado e
+ * um byte por lance, sem nenhum objeto Java serializado.
+ *
+ * Cada lance é gravado como o seu índice entre os lances legais da posição, ordenados por
+ * origem, destino e peça da promoção (uma ordem que não depende do gerador de lances). Uma
+ * posição tem no máximo 218 lances legais, então um byte sempre basta. Ler a partida refaz os
+ * lances num Board a partir da posição inicial, ou do cabeçalho FEN se houver.
+ *
+ * Layout (little-endian):
+ *   short  número de meias-jogadas
+ *   byte   resultado: 0 = "*", 1 = "1-0", 2 = "0-1", 3 = "1/2-1/2"
+ *   byte   número de cabeçalhos
+ *   para cada cabeçalho: byte tamanho do nome, nome, short tamanho do valor, valor (UTF-8)
+ *   um byte por meia-jogada
+ */
+public final class GameRecord {
+    public static final int MAX_PLIES = 0xFFFF;
+    static final int MAX_SIZE = 1 << 20; // um registro nunca passa de 1 MB
+
+    private static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+    private static final String PROMOTIONS = " nbrq";
+
+    private final Map<String, String> tags;
+    private final String result;
+    private final List<Move> moves;
+
+    /**
+     * @param tags Cabeçalhos na ordem em que devem ser gravados (ex: "White", "Event", "FEN").
+     * @param result "1-0", "0-1", "1/2-1/2" ou "*".
+     * @param moves Lances legais a partir da posição inicial (ou do cabeçalho FEN), com a peça
+     *              da promoção indicada.
+     */
+    public GameRecord(Map<String, String> tags, String result, List<Move> moves) {
+        if (Arrays.asList(RESULTS).indexOf(result) < 0) throw new IllegalArgumentException("Resultado inválido: " + result);
+        this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        this.result = result;
+        this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+    }
+
+    /**
+     * Partida lida de um PGN, com os cabeçalhos (de um nome repetido, fica o primeiro, como em
+     * PgnGame.getTag); se um lance for inválido, só os anteriores a ele.
+     */
+    public static GameRecord fromPgn(PgnGame game) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (int i = 0; i < game.getTagCount(); i++) {
+            tags.putIfAbsent(game.getTagName(i), game.getTagValue(i));
+        }
+        return new GameRecord(tags, game.getResult(), game.getMoves());
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return O valor do cabeçalho, ou null se ele não existir.
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Lances da partida, compatíveis com Game (origem, destino e peça de promoção). Os lances
+     * lidos do arquivo vêm da geração de lances legais, com a peça movida e a capturada.
+     */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Posição inicial da partida: o cabeçalho FEN, ou a posição inicial padrão.
+     */
+    public String getStartFen() {
+        String fen = tags.get("FEN");
+        return fen != null ? fen : Fen.START_POSITION;
+    }
+
+    /**
+     * Grava a partida no formato do arquivo.
+     * @throws IllegalArgumentException se um lance for ilegal ou a partida não couber no formato.
+     */
+    public byte[] encode() {
+        if (moves.size() > MAX_PLIES) throw new IllegalArgumentException("Partida longa demais: " + moves.size() + " meias-jogadas");
+        if (tags.size() > 0xFF) throw new IllegalArgumentException("Cabeçalhos demais: " + tags.size());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + moves.size());
+        out.write(moves.size() & 0xFF);
+        out.write(moves.size() >>> 8);
+        out.write(Arrays.asList(RESULTS).indexOf(result));
+        out.write(tags.size());
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            byte[] name = tag.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = tag.getValue().getBytes(StandardCharsets.UTF_8);
+            if (name.length > 0xFF || value.length > 0xFFFF) throw new IllegalArgumentException("Cabeçalho longo demais: " + tag.getKey());
+            out.write(name.length);
+            out.write(name, 0, name.length);
+            out.write(value.length & 0xFF);
+            out.write(value.length >>> 8);
+            out.write(value, 0, value.length);
+        }
+
+        Board board = new Board();
+        boolean white = Fen.load(board, getStartFen());
+        for (int ply = 0; ply < moves.size(); ply++) {
+            List<Move> legal = board.generateLegalMoves(white);
+            int[] ordered = orderedMoves(legal);
+            int identity = identity(moves.get(ply));
+            int index = 0;
+            while (index < ordered.length && ordered[index] >>> 8 != identity) index++;
+            if (index == ordered.length) throw new IllegalArgumentException("Lance ilegal na meia-jogada " + (ply + 1) + ": " + moves.get(ply));
+            out.write(index);
+            board.makeMove(legal.get(ordered[index] & 0xFF));
+            white = !white;
+        }
+        if (out.size() > MAX_SIZE) throw new IllegalArgumentException("Partida grande demais: " + out.size() + " bytes");
+        return out.toByteArray();
+    }
+
+    /**
+     * Lê uma partida gravada por encode, sem alterar a posição do buffer.
+     * @param in Buffer em little-endian.
+     * @param offset Início do registro no buffer.
+     * @throws IllegalArgumentException se o registro estiver corrompido.
+     */
+    public static GameRecord decode(ByteBuffer in, int offset) {
+        int plies = Short.toUnsignedInt(in.getShort(offset));
+        int resultCode = in.get(offset + 2);
+        int tagCount = Byte.toUnsignedInt(in.get(offset + 3));
+        if (resultCode < 0 || resultCode >= RESULTS.length) throw new IllegalArgumentException("Registro inválido no byte " + offset);
+        int pos = offset + 4;
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (int i = 0; i < tagCount; i++) {
+            int nameLength = Byte.toUnsignedInt(in.get(pos));
+            String name = string(in, pos + 1, nameLength);
+            pos += 1 + nameLength;
+            int valueLength = Short.toUnsignedInt(in.getShort(pos));
+            tags.put(name, string(in, pos + 2, valueLength));
+            pos += 2 + valueLength;
+        }
+
+        String fen = tags.get("FEN");
+        Board board = new Board();
+        boolean white = Fen.load(board, fen != null ? fen : Fen.START_POSITION);
+        List<Move> moves = new ArrayList<>(plies);
+        for (int ply = 0; ply < plies; ply++) {
+            List<Move> legal = board.generateLegalMoves(white);
+            int index = Byte.toUnsignedInt(in.get(pos + ply));
+            if (index >= legal.size()) throw new IllegalArgumentException("Registro inválido no byte " + offset);
+            Move move = legal.get(orderedMoves(legal)[index] & 0xFF);
+            board.makeMove(move);
+            moves.add(move);
+            white = !white;
+        }
+        return new GameRecord(tags, RESULTS[resultCode], moves);
+    }
+
+    /**
+     * Número de meias-jogadas do registro, sem ler os lances.
+     */
+    static int plyCount(ByteBuffer in, int offset) {
+        return Short.toUnsignedInt(in.getShort(offset));
+    }
+
+    private static String string(ByteBuffer in, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) bytes[i] = in.get(offset + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Identidade de cada lance legal em ordem crescente, com o índice do lance na lista nos 8 bits baixos
+    private static int[] orderedMoves(List<Move> legal) {
+        int[] ordered = new int[legal.size()];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = identity(legal.get(i)) << 8 | i;
+        }
+        Arrays.sort(ordered);
+        return ordered;
+    }
+
+    // Origem, destino e peça da promoção em 15 bits
+    private static int identity(Move move) {
+        String promotion = move.getPromotionSymbol();
+        return (square(move.getFrom()) << 6 | square(move.getTo())) << 3
+                | (promotion == null ? 0 : PROMOTIONS.indexOf(promotion.charAt(0)));
+    }
+
+    private static int square(Position position) {
+        return position.getRow() * 8 + position.getColumn();
+    }
+
+    @Override
+    public String toString() {
+        return tags.get("White") + " x " + tags.get("Black") + " " + result + " (" + moves.size() + " lances)";
+    }
+}
@@ -1,24 +1,77 @@
 package model.board;
 
+import java.util.ArrayList;
+import java.util.List;
+import model.pieces.Bishop;
+import model.pieces.King;
+import model.pieces.Knight;
+import model.pieces.Pawn;
 import model.pieces.Piece;
+import model.pieces.Queen;
+import model.pieces.Rook;
 
 public class Board {
+    private static final int[][] KNIGHT_OFFSETS = {
+        {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+    private static final int[][] KING_OFFSETS = {
+        {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}
+    };
+    private static final int[][] ORTHOGONAL = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] DIAGONAL = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+    private static final String[] PROMOTION_SYMBOLS = {"q", "r", "b", "n"};
+
     private Piece[][] pieces;
+    private Position enPassantTarget; // casa "atravessada" pelo último avanço duplo de peão
+    private Piece whiteKing;
+    private Piece blackKing;
+    private long hash; // parte Zobrist das peças, atualizada a cada colocação/remoção
+    private int pieceCount;
+    private BoardListener listener;
 
     public Board() {
         pieces = new Piece[8][8];
     }
 
+    /**
+     * Define quem é avisado de cada peça colocada ou retirada (null remove). Não é copiado por copy().
+     */
+    public void setListener(BoardListener listener) {
+        this.listener = listener;
+    }
+
     public Piece getPieceAt(Position position) {
         if (position == null || !position.isValid()) return null;
         return pieces[position.getRow()][position.getColumn()];
     }
 
+    /**
+     * Acesso direto por linha e coluna, sem criar um objeto Position.
+     */
+    public Piece getPieceAt(int row, int col) {
+        if (row < 0 || row >= 8 || col < 0 || col >= 8) return null;
+        return pieces[row][col];
+    }
+
     public void placePiece(Piece piece, Position position) {
         if (position == null || !position.isValid()) return;
-        pieces[position.getRow()][position.getColumn()] = piece;
+        int row = position.getRow();
+        int col = position.getColumn();
+        Piece previous = pieces[row][col];
+        if (previous != null) {
+            hash ^= Zobrist.pieceSquare(previous, row, col);
+            pieceCount--;
+            if (listener != null) listener.pieceRemoved(previous, row, col);
+        }
+        pieces[row][col] = piece;
         if (piece != null) {
+            hash ^= Zobrist.pieceSquare(piece, row, col);
+            pieceCount++;
+            if (listener != null) listener.piecePlaced(piece, row, col);
             piece.setPosition(position);
+            if (piece instanceof King) {
+                if (piece.isWhite()) whiteKing = piece; else blackKing = piece;
+            }
         }
     }
 
@@ -27,6 +80,9 @@ public class Board {
         Piece piece = getPieceAt(position);
         if (piece != null) {
             piece.setPosition(null); // desvincula a peça do tabuleiro
+            hash ^= Zobrist.pieceSquare(piece, position.getRow(), position.getColumn());
+            pieceCount--;
+            if (listener != null) listener.pieceRemoved(piece, position.getRow(), position.getColumn());
         }
         pieces[position.getRow()][position.getColumn()] = null;
     }
@@ -38,23 +94,466 @@ public class Board {
     public void clear() {
         for (int row = 0; row < 8; row++) {
             for (int col = 0; col < 8; col++) {
+                if (listener != null && pieces[row][col] != null) listener.pieceRemoved(pieces[row][col], row, col);
                 pieces[row][col] = null;
             }
         }
+        enPassantTarget = null;
+        whiteKing = null;
+        blackKing = null;
+        hash = 0;
+        pieceCount = 0;
+    }
+
+    /**
+     * Cria uma cópia independente do tabuleiro, com novas peças (incluindo as flags de movimento).
+     * Usada para que a IA possa procurar lances sem tocar no tabuleiro exibido.
+     */
+    public Board copy() {
+        Board copy = new Board();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = pieces[row][col];
+                if (piece != null) {
+                    Piece clone = Piece.create(copy, piece.getSymbol(), piece.isWhite());
+                    clone.setHasMoved(piece.hasMoved());
+                    copy.placePiece(clone, new Position(row, col));
+                }
+            }
+        }
+        copy.enPassantTarget = enPassantTarget;
+        return copy;
+    }
+
+    /**
+     * Limpa o tabuleiro e coloca as peças na posição inicial padrão.
+     */
+    public void setupInitialPosition() {
+        clear();
+        String[] backRank = {"r", "n", "b", "q", "k", "b", "n", "r"};
+        for (int col = 0; col < 8; col++) {
+            placePiece(Piece.create(this, backRank[col], true), new Position(7, col));
+            placePiece(new Pawn(this, true), new Position(6, col));
+            placePiece(Piece.create(this, backRank[col], false), new Position(0, col));
+            placePiece(new Pawn(this, false), new Position(1, col));
+        }
+    }
+
+    /**
+     * Parte da chave Zobrist referente às peças; use Zobrist.key para a chave completa.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Quantidade de peças no tabuleiro, incluindo os reis.
+     */
+    public int getPieceCount() {
+        return pieceCount;
+    }
+
+    public Position getEnPassantTarget() {
+        return enPassantTarget;
+    }
+
+    public void setEnPassantTarget(Position enPassantTarget) {
+        this.enPassantTarget = enPassantTarget;
+    }
+
+    /**
+     * Retorna a posição do rei da cor indicada, ou null se ele não estiver no tabuleiro.
+     */
+    public Position findKing(boolean white) {
+        Piece king = white ? whiteKing : blackKing;
+        return king != null ? king.getPosition() : null;
     }
 
     // Método auxiliar para verificar se uma posição está sob ataque
     public boolean isUnderAttack(Position position, boolean byWhite) {
+        return position != null && position.isValid()
+                && isAttackedBy(position.getRow(), position.getColumn(), byWhite);
+    }
+
+    /**
+     * Verifica se a casa (row, col) é atacada por peças da cor indicada.
+     * Procura a partir da casa alvo (raios, saltos de cavalo, rei e peões), sem percorrer
+     * o tabuleiro nem gerar a lista de movimentos de cada peça.
+     */
+    public boolean isAttackedBy(int row, int col, boolean byWhite) {
+        // Peões: o peão branco ataca "para cima" (linha menor), então fica uma linha abaixo do alvo
+        int pawnRow = byWhite ? row + 1 : row - 1;
+        if (pawnRow >= 0 && pawnRow < 8) {
+            for (int dc = -1; dc <= 1; dc += 2) {
+                int c = col + dc;
+                if (c >= 0 && c < 8) {
+                    Piece p = pieces[pawnRow][c];
+                    if (p instanceof Pawn && p.isWhite() == byWhite) return true;
+                }
+            }
+        }
+        for (int[] d : KNIGHT_OFFSETS) {
+            int r = row + d[0], c = col + d[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                Piece p = pieces[r][c];
+                if (p instanceof Knight && p.isWhite() == byWhite) return true;
+            }
+        }
+        for (int[] d : KING_OFFSETS) {
+            int r = row + d[0], c = col + d[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                Piece p = pieces[r][c];
+                if (p instanceof King && p.isWhite() == byWhite) return true;
+            }
+        }
+        for (int[] d : ORTHOGONAL) {
+            Piece p = firstPieceOnRay(row, col, d[0], d[1]);
+            if (p != null && p.isWhite() == byWhite && (p instanceof Rook || p instanceof Queen)) return true;
+        }
+        for (int[] d : DIAGONAL) {
+            Piece p = firstPieceOnRay(row, col, d[0], d[1]);
+            if (p != null && p.isWhite() == byWhite && (p instanceof Bishop || p instanceof Queen)) return true;
+        }
+        return false;
+    }
+
+    private Piece firstPieceOnRay(int row, int col, int dr, int dc) {
+        int r = row + dr, c = col + dc;
+        while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+            if (pieces[r][c] != null) return pieces[r][c];
+            r += dr;
+            c += dc;
+        }
+        return null;
+    }
+
+    /**
+     * Verifica se o rei da cor indicada está em xeque.
+     */
+    public boolean isInCheck(boolean white) {
+        Position king = findKing(white);
+        return king != null && isAttackedBy(king.getRow(), king.getColumn(), !white);
+    }
+
+    /**
+     * Gera todos os lances legais do lado indicado: movimentos das peças, roque (sem passar
+     * por casas atacadas), en passant e as quatro opções de promoção, descartando os lances
+     * que deixam o próprio rei em xeque.
+     */
+    public List<Move> generateLegalMoves(boolean white) {
+        List<Move> pseudoLegal = new ArrayList<>();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = pieces[row][col];
+                if (piece == null || piece.isWhite() != white) continue;
+                Position from = new Position(row, col);
+                for (Position to : piece.getPossibleMoves()) {
+                    addPseudoLegalMove(piece, from, to, white, pseudoLegal);
+                }
+            }
+        }
+        addEnPassantMoves(white, pseudoLegal);
+
+        List<Move> legal = new ArrayList<>(pseudoLegal.size());
+        for (Move move : pseudoLegal) {
+            makeMove(move);
+            boolean inCheck = isInCheck(white);
+            unmakeMove(move);
+            if (!inCheck) legal.add(move);
+        }
+        return legal;
+    }
+
+    /**
+     * Gera só os lances legais de uma peça do tipo indicado até a casa de destino, opcionalmente
+     * partindo de uma linha ou coluna dada (-1 para qualquer), como pede um lance em SAN. As peças
+     * que não alcançam o destino são descartadas antes de gerar seus lances, e só os candidatos
+     * restantes são feitos e desfeitos para testar a legalidade.
+     * @param symbol Símbolo da peça em minúscula (ex: 'n', 'p').
+     */
+    public List<Move> generateLegalMovesTo(boolean white, char symbol, int toRow, int toCol, int fromRow, int fromCol) {
+        List<Move> candidates = new ArrayList<>(4);
+        for (int row = 0; row < 8; row++) {
+            if (fromRow >= 0 && row != fromRow) continue;
+            for (int col = 0; col < 8; col++) {
+                if (fromCol >= 0 && col != fromCol) continue;
+                Piece piece = pieces[row][col];
+                if (piece == null || piece.isWhite() != white || piece.getSymbol().charAt(0) != symbol) continue;
+                if (!canReach(symbol, toRow - row, toCol - col)) continue;
+                for (Position target : piece.getPossibleMoves()) {
+                    if (target.getRow() != toRow || target.getColumn() != toCol) continue;
+                    addPseudoLegalMove(piece, new Position(row, col), target, white, candidates);
+                }
+            }
+        }
+        if (symbol == 'p' && enPassantTarget != null
+                && enPassantTarget.getRow() == toRow && enPassantTarget.getColumn() == toCol) {
+            List<Move> enPassant = new ArrayList<>(2);
+            addEnPassantMoves(white, enPassant);
+            for (Move move : enPassant) {
+                if (fromCol < 0 || move.getFrom().getColumn() == fromCol) candidates.add(move);
+            }
+        }
+
+        List<Move> legal = new ArrayList<>(candidates.size());
+        for (Move move : candidates) {
+            if (isLegal(move, white)) legal.add(move);
+        }
+        return legal;
+    }
+
+    // Descarta pela geometria as peças que não podem chegar ao destino (dr, dc: destino - origem)
+    private static boolean canReach(char symbol, int dr, int dc) {
+        int rows = Math.abs(dr);
+        int cols = Math.abs(dc);
+        switch (symbol) {
+            case 'p': return cols <= 1;
+            case 'n': return rows * cols == 2;
+            case 'b': return rows == cols;
+            case 'r': return rows == 0 || cols == 0;
+            case 'q': return rows == cols || rows == 0 || cols == 0;
+            case 'k': return rows <= 1 && cols <= 2;
+            default: return false;
+        }
+    }
+
+    // Acrescenta o lance da peça: roque (sem passar por casa atacada), as quatro promoções ou um lance simples
+    private void addPseudoLegalMove(Piece piece, Position from, Position to, boolean white, List<Move> moves) {
+        int row = from.getRow();
+        int col = from.getColumn();
+        Piece target = pieces[to.getRow()][to.getColumn()];
+        if (piece instanceof King && Math.abs(to.getColumn() - col) == 2) {
+            // Roque: o rei não pode estar em xeque nem atravessar casa atacada
+            int step = to.getColumn() > col ? 1 : -1;
+            if (isAttackedBy(row, col, !white) || isAttackedBy(row, col + step, !white)) return;
+            Move castle = new Move(from, to, piece, null);
+            castle.setCastling(true);
+            moves.add(castle);
+        } else if (piece instanceof Pawn && (to.getRow() == 0 || to.getRow() == 7)) {
+            for (String symbol : PROMOTION_SYMBOLS) {
+                Move promotion = new Move(from, to, piece, target);
+                promotion.setPromotionSymbol(symbol);
+                moves.add(promotion);
+            }
+        } else {
+            moves.add(new Move(from, to, piece, target));
+        }
+    }
+
+    /**
+     * Verifica se o lado tem algum lance legal, parando no primeiro. Fora de xeque, um lance de
+     * peça que não está cravada no rei é sempre legal e dispensa fazer e desfazer o lance; só os
+     * lances do rei, das peças cravadas, de en passant e os lances em xeque são testados.
+     */
+    public boolean hasLegalMove(boolean white) {
+        Position king = findKing(white);
+        if (king == null) return !generateLegalMoves(white).isEmpty();
+        int kingRow = king.getRow();
+        int kingCol = king.getColumn();
+        boolean inCheck = isAttackedBy(kingRow, kingCol, !white);
+        long pinned = inCheck ? 0 : pinnedPieces(white, kingRow, kingCol);
+
         for (int row = 0; row < 8; row++) {
             for (int col = 0; col < 8; col++) {
                 Piece piece = pieces[row][col];
-                if (piece != null && piece.isWhite() == byWhite) {
-                    if (piece.canMoveTo(position)) {
-                        return true;
-                    }
+                if (piece == null || piece.isWhite() != white) continue;
+                boolean free = !inCheck && !(piece instanceof King) && (pinned & (1L << (row * 8 + col))) == 0;
+                Position from = null;
+                for (Position to : piece.getPossibleMoves()) {
+                    if (free) return true;
+                    // Se o roque é legal, o passo do rei na mesma direção também é
+                    if (piece instanceof King && Math.abs(to.getColumn() - col) == 2) continue;
+                    if (from == null) from = new Position(row, col);
+                    if (isLegal(new Move(from, to, piece, pieces[to.getRow()][to.getColumn()]), white)) return true;
                 }
             }
         }
+        List<Move> enPassant = new ArrayList<>(2);
+        addEnPassantMoves(white, enPassant);
+        for (Move move : enPassant) {
+            if (isLegal(move, white)) return true;
+        }
+        return false;
+    }
+
+    private boolean isLegal(Move move, boolean white) {
+        makeMove(move);
+        boolean inCheck = isInCheck(white);
+        unmakeMove(move);
+        return !inCheck;
+    }
+
+    // Peças do lado (bit linha * 8 + coluna) entre o rei e uma torre, bispo ou dama adversária
+    private long pinnedPieces(boolean white, int kingRow, int kingCol) {
+        long pinned = 0;
+        for (int[] d : ORTHOGONAL) pinned |= pinnedOnRay(white, kingRow, kingCol, d[0], d[1], true);
+        for (int[] d : DIAGONAL) pinned |= pinnedOnRay(white, kingRow, kingCol, d[0], d[1], false);
+        return pinned;
+    }
+
+    private long pinnedOnRay(boolean white, int row, int col, int dr, int dc, boolean orthogonal) {
+        long candidate = 0;
+        int r = row + dr, c = col + dc;
+        while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+            Piece p = pieces[r][c];
+            if (p != null) {
+                if (p.isWhite() == white) {
+                    if (candidate != 0) return 0; // duas peças próprias: nenhuma está cravada
+                    candidate = 1L << (r * 8 + c);
+                } else {
+                    boolean slider = p instanceof Queen || (orthogonal ? p instanceof Rook : p instanceof Bishop);
+                    return slider ? candidate : 0;
+                }
+            }
+            r += dr;
+            c += dc;
+        }
+        return 0;
+    }
+
+    /**
+     * Verifica se nenhum dos lados pode dar mate: só os reis, rei e uma peça menor contra rei,
+     * ou só bispos (de qualquer lado) em casas da mesma cor.
+     */
+    public boolean isInsufficientMaterial() {
+        int minors = 0;
+        int bishopColors = 0; // bit 0 = bispo em casa clara, bit 1 = em casa escura
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece p = pieces[row][col];
+                if (p == null || p instanceof King) continue;
+                if (p instanceof Pawn || p instanceof Rook || p instanceof Queen) return false;
+                minors++;
+                if (p instanceof Bishop) bishopColors |= (row + col) % 2 == 0 ? 1 : 2;
+                else bishopColors = 3; // cavalo: com outra peça menor, o mate é possível
+            }
+        }
+        return minors <= 1 || bishopColors != 3;
+    }
+
+    /**
+     * Verifica se o lado tem material para dar mate, no critério usual para derrotas por tempo:
+     * rei sozinho ou rei e uma única peça menor não bastam.
+     */
+    public boolean hasMatingMaterial(boolean white) {
+        int minors = 0;
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece p = pieces[row][col];
+                if (p == null || p.isWhite() != white || p instanceof King) continue;
+                if (p instanceof Pawn || p instanceof Rook || p instanceof Queen || ++minors > 1) return true;
+            }
+        }
         return false;
     }
+
+    private void addEnPassantMoves(boolean white, List<Move> moves) {
+        if (enPassantTarget == null) return;
+        int pawnRow = enPassantTarget.getRow() + (white ? 1 : -1);
+        if (pawnRow < 0 || pawnRow > 7) return;
+        for (int dc = -1; dc <= 1; dc += 2) {
+            int col = enPassantTarget.getColumn() + dc;
+            if (col < 0 || col > 7) continue;
+            Piece pawn = pieces[pawnRow][col];
+            if (pawn instanceof Pawn && pawn.isWhite() == white) {
+                Piece captured = pieces[pawnRow][enPassantTarget.getColumn()];
+                Move move = new Move(new Position(pawnRow, col), enPassantTarget, pawn, captured);
+                move.setEnPassant(true);
+                moves.add(move);
+            }
+        }
+    }
+
+    /**
+     * Executa um lance no tabuleiro, tratando captura, roque, en passant e promoção.
+     * O estado necessário para desfazê-lo fica guardado no próprio objeto Move.
+     * @param move O lance a executar; a peça e a captura são preenchidas se estiverem vazias.
+     */
+    public void makeMove(Move move) {
+        Position from = move.getFrom();
+        Position to = move.getTo();
+        Piece piece = getPieceAt(from);
+        move.setPiece(piece);
+        move.setPieceHadMoved(piece.hasMoved());
+        move.setPreviousEnPassant(enPassantTarget);
+
+        Piece captured = getPieceAt(to);
+        if (piece instanceof Pawn && captured == null && from.getColumn() != to.getColumn()) {
+            // En passant: o peão capturado está ao lado da casa de origem
+            Position capturedAt = new Position(from.getRow(), to.getColumn());
+            captured = getPieceAt(capturedAt);
+            removePiece(capturedAt);
+            move.setEnPassant(true);
+        } else if (captured != null) {
+            removePiece(to);
+        }
+        move.setCapturedPiece(captured);
+
+        if (piece instanceof King && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+            boolean kingSide = to.getColumn() > from.getColumn();
+            Position rookFrom = new Position(from.getRow(), kingSide ? 7 : 0);
+            Position rookTo = new Position(from.getRow(), kingSide ? to.getColumn() - 1 : to.getColumn() + 1);
+            Piece rook = getPieceAt(rookFrom);
+            removePiece(rookFrom);
+            placePiece(rook, rookTo);
+            rook.setHasMoved(true);
+            move.setCastling(true);
+        }
+
+        removePiece(from);
+        placePiece(piece, to);
+        piece.setHasMoved(true);
+
+        if (piece instanceof Pawn && (to.getRow() == 0 || to.getRow() == 7)) {
+            String symbol = move.getPromotionSymbol() != null ? move.getPromotionSymbol() : "q";
+            Piece promoted = Piece.create(this, symbol, piece.isWhite());
+            promoted.setHasMoved(true);
+            removePiece(to);
+            placePiece(promoted, to);
+            move.setPromotionSymbol(symbol);
+            move.setPromotedPiece(promoted);
+        } else {
+            move.setPromotedPiece(null);
+        }
+
+        if (piece instanceof Pawn && Math.abs(to.getRow() - from.getRow()) == 2) {
+            enPassantTarget = new Position((from.getRow() + to.getRow()) / 2, from.getColumn());
+        } else {
+            enPassantTarget = null;
+        }
+    }
+
+    /**
+     * Desfaz um lance executado por makeMove, restaurando o tabuleiro exatamente como estava.
+     */
+    public void unmakeMove(Move move) {
+        Position from = move.getFrom();
+        Position to = move.getTo();
+        Piece piece = move.getPiece();
+
+        removePiece(to);
+        placePiece(piece, from);
+        piece.setHasMoved(move.pieceHadMoved());
+
+        Piece captured = move.getCapturedPiece();
+        if (captured != null) {
+            if (move.isEnPassant()) {
+                placePiece(captured, new Position(from.getRow(), to.getColumn()));
+            } else {
+                placePiece(captured, to);
+            }
+        }
+
+        if (move.isCastling()) {
+            boolean kingSide = to.getColumn() > from.getColumn();
+            Position rookFrom = new Position(from.getRow(), kingSide ? 7 : 0);
+            Position rookTo = new Position(from.getRow(), kingSide ? to.getColumn() - 1 : to.getColumn() + 1);
+            Piece rook = getPieceAt(rookTo);
+            removePiece(rookTo);
+            placePiece(rook, rookFrom);
+            rook.setHasMoved(false);
+        }
+
+        enPassantTarget = move.getPreviousEnPassant();
+    }
 }
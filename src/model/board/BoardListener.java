@@ -0,0 +1,13 @@
+package model.board;
+
+import model.pieces.Piece;
+
+/**
+ * Recebe cada peça colocada ou retirada do tabuleiro, inclusive durante makeMove e unmakeMove,
+ * para manter estruturas atualizadas de forma incremental (ex: o acumulador da avaliação neural).
+ */
+public interface BoardListener {
+    void piecePlaced(Piece piece, int row, int col);
+
+    void pieceRemoved(Piece piece, int row, int col);
+}
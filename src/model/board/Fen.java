@@ -0,0 +1,126 @@
+package model.board;
+
+import model.pieces.King;
+import model.pieces.Pawn;
+import model.pieces.Piece;
+import model.pieces.Rook;
+
+/**
+ * Leitura e escrita de posições no formato FEN (Forsyth-Edwards Notation).
+ *
+ * O Board não guarda direitos de roque separadamente: eles são representados pelas flags
+ * hasMoved do rei e das torres, como no resto do jogo.
+ */
+public final class Fen {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * Coloca no tabuleiro a posição descrita. Aceita também linhas EPD (sem os contadores de lances).
+     * @return true se as brancas jogam na posição.
+     * @throws IllegalArgumentException se o texto não for uma posição FEN válida.
+     */
+    public static boolean load(Board board, String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("FEN inválido: " + fen);
+        }
+
+        board.clear();
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN inválido: " + fen);
+        }
+        for (int row = 0; row < 8; row++) {
+            int col = 0;
+            for (char c : ranks[row].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                Piece piece = Piece.create(board, String.valueOf(Character.toLowerCase(c)), Character.isUpperCase(c));
+                if (piece == null || col >= 8) {
+                    throw new IllegalArgumentException("FEN inválido: " + fen);
+                }
+                // Só importa para peões (lance duplo), reis e torres (roque, ajustado abaixo)
+                piece.setHasMoved(piece instanceof Pawn ? row != (piece.isWhite() ? 6 : 1)
+                        : piece instanceof King || piece instanceof Rook);
+                board.placePiece(piece, new Position(row, col++));
+            }
+        }
+        if (board.findKing(true) == null || board.findKing(false) == null) {
+            throw new IllegalArgumentException("FEN sem os dois reis: " + fen);
+        }
+
+        String castling = fields.length > 2 ? fields[2] : "-";
+        allowCastling(board, castling.indexOf('K') >= 0, 7, 7);
+        allowCastling(board, castling.indexOf('Q') >= 0, 7, 0);
+        allowCastling(board, castling.indexOf('k') >= 0, 0, 7);
+        allowCastling(board, castling.indexOf('q') >= 0, 0, 0);
+
+        if (fields.length > 3 && fields[3].length() == 2) {
+            board.setEnPassantTarget(new Position('8' - fields[3].charAt(1), fields[3].charAt(0) - 'a'));
+        }
+        return fields[1].equals("w");
+    }
+
+    /**
+     * Contador de meias-jogadas da regra dos 50 lances (quinto campo), ou 0 se ausente (EPD).
+     */
+    public static int halfmoveClock(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        try {
+            return fields.length > 4 ? Math.max(0, Integer.parseInt(fields[4])) : 0;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("FEN inválido: " + fen, e);
+        }
+    }
+
+    private static void allowCastling(Board board, boolean allowed, int row, int rookCol) {
+        if (!allowed) return;
+        Piece king = board.getPieceAt(row, 4);
+        Piece rook = board.getPieceAt(row, rookCol);
+        boolean white = row == 7;
+        if (king instanceof King && king.isWhite() == white && rook instanceof Rook && rook.isWhite() == white) {
+            king.setHasMoved(false);
+            rook.setHasMoved(false);
+        }
+    }
+
+    /**
+     * Descreve a posição em FEN (os contadores de lances são sempre "0 1").
+     */
+    public static String toFen(Board board, boolean whiteToMove) {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.getPieceAt(row, col);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) fen.append(empty);
+                empty = 0;
+                String symbol = piece.getSymbol();
+                fen.append(piece.isWhite() ? symbol.toUpperCase() : symbol);
+            }
+            if (empty > 0) fen.append(empty);
+            if (row < 7) fen.append('/');
+        }
+
+        fen.append(whiteToMove ? " w " : " b ");
+        int rights = Zobrist.castlingRights(board);
+        if (rights == 0) fen.append('-');
+        if ((rights & 1) != 0) fen.append('K');
+        if ((rights & 2) != 0) fen.append('Q');
+        if ((rights & 4) != 0) fen.append('k');
+        if ((rights & 8) != 0) fen.append('q');
+
+        Position ep = board.getEnPassantTarget();
+        fen.append(' ').append(ep == null ? "-" : "" + (char) ('a' + ep.getColumn()) + (8 - ep.getRow()));
+        return fen.append(" 0 1").toString();
+    }
+}
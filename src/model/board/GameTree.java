@@ -0,0 +1,206 @@
+package model.board;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Árvore de lances de uma partida, com as variantes. Cada nó é uma posição e guarda só o lance
+ * que levou a ela (codificado como em MoveHistory), a chave Zobrist e os índices do pai, do
+ * primeiro filho e do próximo irmão, em arrays paralelos de tipos primitivos: as variantes
+ * compartilham com a linha principal todos os nós até o ponto em que se separam.
+ *
+ * A cada KEYFRAME_INTERVAL meias-jogadas de profundidade o nó guarda também a posição inteira
+ * (PackedPosition, 32 bytes). Para reconstruir qualquer nó basta desempacotar o quadro-chave
+ * mais próximo acima dele e refazer no máximo KEYFRAME_INTERVAL - 1 lances.
+ *
+ * O primeiro filho de cada nó é a continuação principal; os outros são variantes. Nós não são
+ * removidos.
+ */
+public final class GameTree {
+    public static final int ROOT = 0;
+    public static final int NONE = -1;
+    private static final int KEYFRAME_INTERVAL = 16;
+
+    private int size;
+    private int[] parents = new int[256];
+    private int[] firstChildren = new int[256];
+    private int[] nextSiblings = new int[256];
+    private int[] moves = new int[256];
+    private int[] depths = new int[256];
+    private int[] keyframes = new int[256]; // índice do quadro-chave do nó, ou NONE
+    private long[] keys = new long[256];
+    private ByteBuffer keyframeData = ByteBuffer.allocate(PackedPosition.SIZE * 16).order(ByteOrder.LITTLE_ENDIAN);
+    private int keyframeCount;
+    private final boolean rootWhiteToMove;
+
+    /**
+     * @param root Posição inicial (é copiada).
+     */
+    public GameTree(Board root, boolean whiteToMove) {
+        this.rootWhiteToMove = whiteToMove;
+        append(NONE, 0, 0, Zobrist.key(root, whiteToMove), root, whiteToMove);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Nó do lance a partir do nó pai, criado se ainda não existir.
+     * @param move O lance, já aplicado a after (com a peça movida e a capturada preenchidas).
+     * @param after O tabuleiro depois do lance; só é lido.
+     */
+    public int addChild(int parent, Move move, Board after) {
+        int code = MoveHistory.encode(move);
+        int last = NONE;
+        for (int child = firstChildren[parent]; child != NONE; child = nextSiblings[child]) {
+            if (MoveHistory.sameMove(moves[child], code)) return child;
+            last = child;
+        }
+        int depth = depths[parent] + 1;
+        boolean whiteToMove = !whiteToMove(parent);
+        int node = append(parent, code, depth, Zobrist.key(after, whiteToMove),
+                depth % KEYFRAME_INTERVAL == 0 ? after : null, whiteToMove);
+        if (last == NONE) {
+            firstChildren[parent] = node;
+        } else {
+            nextSiblings[last] = node;
+        }
+        return node;
+    }
+
+    private int append(int parent, int code, int depth, long key, Board keyframe, boolean whiteToMove) {
+        if (size == parents.length) grow();
+        int node = size++;
+        parents[node] = parent;
+        firstChildren[node] = NONE;
+        nextSiblings[node] = NONE;
+        moves[node] = code;
+        depths[node] = depth;
+        keys[node] = key;
+        keyframes[node] = NONE;
+        if (keyframe != null) {
+            if (keyframeData.remaining() < PackedPosition.SIZE) {
+                ByteBuffer larger = ByteBuffer.allocate(keyframeData.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                keyframeData.flip();
+                larger.put(keyframeData);
+                keyframeData = larger;
+            }
+            PackedPosition.pack(keyframe, whiteToMove, 0, 0, depth, keyframeData);
+            keyframes[node] = keyframeCount++;
+        }
+        return node;
+    }
+
+    private void grow() {
+        int capacity = parents.length * 2;
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        moves = Arrays.copyOf(moves, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+        keyframes = Arrays.copyOf(keyframes, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * Continuação principal do nó, ou NONE se ele não tem filhos.
+     */
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    /**
+     * Próxima variante do mesmo pai, ou NONE.
+     */
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    /**
+     * Lance que levou ao nó, codificado como em MoveHistory (indefinido na raiz).
+     */
+    public int getMove(int node) {
+        return moves[node];
+    }
+
+    public long getKey(int node) {
+        return keys[node];
+    }
+
+    /**
+     * Meias-jogadas desde a raiz.
+     */
+    public int getDepth(int node) {
+        return depths[node];
+    }
+
+    public boolean whiteToMove(int node) {
+        return rootWhiteToMove ^ (depths[node] % 2 != 0);
+    }
+
+    /**
+     * Antepassado do nó na profundidade indicada (a própria raiz para 0).
+     */
+    public int ancestorAt(int node, int depth) {
+        if (depth < 0 || depth > depths[node]) throw new IndexOutOfBoundsException("Profundidade " + depth);
+        while (depths[node] > depth) node = parents[node];
+        return node;
+    }
+
+    /**
+     * Nós do caminho da raiz até o nó, inclusive.
+     */
+    public int[] path(int node) {
+        int[] path = new int[depths[node] + 1];
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i] = node;
+            node = parents[node];
+        }
+        return path;
+    }
+
+    /**
+     * Coloca no tabuleiro a posição do nó: o quadro-chave mais próximo e os lances seguintes.
+     * O tabuleiro é limpo antes (os seus ouvintes veem as peças sendo recolocadas).
+     */
+    public void load(int node, Board board) {
+        int[] pending = new int[KEYFRAME_INTERVAL];
+        int count = 0;
+        int keyframeNode = node;
+        while (keyframes[keyframeNode] == NONE) {
+            pending[count++] = keyframeNode;
+            keyframeNode = parents[keyframeNode];
+        }
+        PackedPosition.unpack(keyframeData, keyframes[keyframeNode] * PackedPosition.SIZE, board);
+        for (int i = count - 1; i >= 0; i--) {
+            board.makeMove(toMove(pending[i]));
+        }
+    }
+
+    /**
+     * Tabuleiro novo com a posição do nó.
+     */
+    public Board getBoard(int node) {
+        Board board = new Board();
+        load(node, board);
+        return board;
+    }
+
+    /**
+     * O lance que levou ao nó como Move (origem, destino e promoção), pronto para Board.makeMove.
+     */
+    public Move toMove(int node) {
+        int code = moves[node];
+        int from = MoveHistory.from(code);
+        int to = MoveHistory.to(code);
+        Move move = new Move(new Position(from >> 3, from & 7), new Position(to >> 3, to & 7));
+        move.setPromotionSymbol(MoveHistory.promotionSymbol(code));
+        return move;
+    }
+}
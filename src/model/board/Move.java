@@ -2,6 +2,7 @@ package model.board;
 
 import model.pieces.Piece;
 import java.io.Serializable;
+import java.util.Objects;
 
 public class Move implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -13,6 +14,12 @@ public class Move implements Serializable {
     private boolean isPromotion;
     private boolean isCastling;
     private boolean isEnPassant;
+    private String promotionSymbol; // "q", "r", "b" ou "n" (null se não houver promoção)
+
+    // Estado usado por Board.unmakeMove para desfazer o lance
+    private transient boolean pieceHadMoved;
+    private transient Position previousEnPassant;
+    private transient Piece promotedPiece;
 
     public Move(Position from, Position to, Piece piece, Piece capturedPiece) {
         this.from = from;
@@ -64,6 +71,10 @@ public class Move implements Serializable {
         return isEnPassant;
     }
 
+    public String getPromotionSymbol() {
+        return promotionSymbol;
+    }
+
     // Setters
     public void setPromotion(boolean promotion) {
         this.isPromotion = promotion;
@@ -77,9 +88,68 @@ public class Move implements Serializable {
         this.isEnPassant = enPassant;
     }
 
+    /**
+     * Define a peça escolhida para a promoção ("q", "r", "b" ou "n").
+     * Também marca o lance como promoção.
+     */
+    public void setPromotionSymbol(String promotionSymbol) {
+        this.promotionSymbol = promotionSymbol;
+        this.isPromotion = promotionSymbol != null;
+    }
+
+    void setPiece(Piece piece) {
+        this.piece = piece;
+    }
+
+    void setCapturedPiece(Piece capturedPiece) {
+        this.capturedPiece = capturedPiece;
+    }
+
+    boolean pieceHadMoved() {
+        return pieceHadMoved;
+    }
+
+    void setPieceHadMoved(boolean pieceHadMoved) {
+        this.pieceHadMoved = pieceHadMoved;
+    }
+
+    Position getPreviousEnPassant() {
+        return previousEnPassant;
+    }
+
+    void setPreviousEnPassant(Position previousEnPassant) {
+        this.previousEnPassant = previousEnPassant;
+    }
+
+    Piece getPromotedPiece() {
+        return promotedPiece;
+    }
+
+    void setPromotedPiece(Piece promotedPiece) {
+        this.promotedPiece = promotedPiece;
+    }
+
+    /**
+     * Dois lances são iguais quando têm a mesma origem, destino e peça de promoção.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Move move = (Move) obj;
+        return Objects.equals(from, move.from) && Objects.equals(to, move.to)
+                && Objects.equals(promotionSymbol, move.promotionSymbol);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, promotionSymbol);
+    }
+
     @Override
     public String toString() {
         String symbol = (piece != null) ? piece.getSymbol() : "?";
-        return symbol + from.toString() + "-" + to.toString();
+        String promotion = (promotionSymbol != null) ? "=" + promotionSymbol : "";
+        return symbol + from.toString() + "-" + to.toString() + promotion;
     }
 }
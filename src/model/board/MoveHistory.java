@@ -0,0 +1,152 @@
+package model.board;
+
+import java.util.Arrays;
+import model.pieces.Piece;
+
+/**
+ * Lances de uma partida guardados como int, um por meia-jogada, num array que dobra de tamanho
+ * quando enche (acrescentar custa O(1) amortizado e não cria objetos por lance).
+ *
+ * Layout de cada lance:
+ *   bits 0-5   casa de origem (linha * 8 + coluna)
+ *   bits 6-11  casa de destino
+ *   bits 12-14 peça movida: p, n, b, r, q, k
+ *   bit  15    peça branca
+ *   bits 16-18 peça capturada (7 = nenhuma)
+ *   bits 19-21 peça da promoção (7 = nenhuma)
+ *   bit  22    roque
+ *   bit  23    en passant
+ */
+public final class MoveHistory {
+    private static final String PIECE_ORDER = "pnbrqk";
+    private static final String[] PIECE_NAMES = {"Peão", "Cavalo", "Bispo", "Torre", "Rainha", "Rei"};
+    private static final int NONE = 7;
+    private static final int IDENTITY_BITS = 0xFFF | 7 << 19; // origem, destino e promoção
+
+    private int[] moves = new int[64];
+    private int size;
+
+    /**
+     * Acrescenta um lance já aplicado ao tabuleiro (com a peça movida e a capturada preenchidas).
+     */
+    public void add(Move move) {
+        add(encode(move));
+    }
+
+    /**
+     * Acrescenta um lance já codificado (ver encode).
+     */
+    public void add(int code) {
+        if (size == moves.length) moves = Arrays.copyOf(moves, size * 2);
+        moves[size++] = code;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Descarta os lances a partir da meia-jogada indicada.
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) throw new IndexOutOfBoundsException("Meia-jogada " + newSize);
+        size = newSize;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Lance codificado da meia-jogada (0 = primeiro lance da partida).
+     */
+    public int get(int ply) {
+        if (ply < 0 || ply >= size) throw new IndexOutOfBoundsException("Meia-jogada " + ply);
+        return moves[ply];
+    }
+
+    /**
+     * O lance como Move (origem, destino e promoção), pronto para Board.makeMove.
+     */
+    public Move toMove(int ply) {
+        int code = get(ply);
+        int from = from(code);
+        int to = to(code);
+        Move move = new Move(new Position(from >> 3, from & 7), new Position(to >> 3, to & 7));
+        move.setPromotionSymbol(promotionSymbol(code));
+        return move;
+    }
+
+    public static int encode(Move move) {
+        Piece piece = move.getPiece();
+        Piece captured = move.getCapturedPiece();
+        int code = square(move.getFrom()) | square(move.getTo()) << 6;
+        code |= PIECE_ORDER.indexOf(piece.getSymbol()) << 12;
+        if (piece.isWhite()) code |= 1 << 15;
+        code |= (captured == null ? NONE : PIECE_ORDER.indexOf(captured.getSymbol())) << 16;
+        code |= (move.getPromotionSymbol() == null ? NONE : PIECE_ORDER.indexOf(move.getPromotionSymbol())) << 19;
+        if (move.isCastling()) code |= 1 << 22;
+        if (move.isEnPassant()) code |= 1 << 23;
+        return code;
+    }
+
+    private static int square(Position position) {
+        return position.getRow() * 8 + position.getColumn();
+    }
+
+    public static int from(int code) {
+        return code & 63;
+    }
+
+    public static int to(int code) {
+        return (code >>> 6) & 63;
+    }
+
+    /**
+     * Peça da promoção ("q", "r", "b" ou "n"), ou null se o lance não é promoção.
+     */
+    public static String promotionSymbol(int code) {
+        int promotion = (code >>> 19) & 7;
+        return promotion == NONE ? null : String.valueOf(PIECE_ORDER.charAt(promotion));
+    }
+
+    /**
+     * Os dois códigos são do mesmo lance (mesma origem, destino e peça da promoção).
+     */
+    public static boolean sameMove(int a, int b) {
+        return ((a ^ b) & IDENTITY_BITS) == 0;
+    }
+
+    /**
+     * Captura ou lance de peão: zera a contagem da regra dos 50 lances.
+     */
+    public static boolean isIrreversible(int code) {
+        return isCapture(code) || ((code >>> 12) & 7) == 0;
+    }
+
+    public static boolean isWhite(int code) {
+        return (code & 1 << 15) != 0;
+    }
+
+    public static boolean isCapture(int code) {
+        return ((code >>> 16) & 7) != NONE;
+    }
+
+    public static boolean isCastling(int code) {
+        return (code & 1 << 22) != 0;
+    }
+
+    /**
+     * Nome da peça movida ("Peão", "Cavalo", etc.).
+     */
+    public static String pieceName(int code) {
+        return PIECE_NAMES[(code >>> 12) & 7];
+    }
+
+    /**
+     * Casa em notação algébrica ("e4").
+     */
+    public static String squareName(int square) {
+        return (char) ('a' + (square & 7)) + "" + (8 - (square >> 3));
+    }
+}
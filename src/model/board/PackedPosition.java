@@ -0,0 +1,191 @@
+package model.board;
+
+import java.nio.ByteBuffer;
+import model.pieces.King;
+import model.pieces.Pawn;
+import model.pieces.Piece;
+import model.pieces.Rook;
+
+/**
+ * Codificação binária de posições com tamanho fixo de 32 bytes, para dados de treino.
+ *
+ * Layout (little-endian):
+ *   0  long  ocupação: bit (linha * 8 + coluna) ligado para cada casa com peça
+ *   8  16 B  uma peça por nibble, na ordem das casas ocupadas (até 32 peças):
+ *            bit 3 = preta, bits 0-2 = p, n, b, r, q, k ou 6 = torre que ainda pode rocar
+ *   24 byte  bit 7 = brancas jogam, bits 0-6 = casa de en passant (64 = nenhuma)
+ *   25 short pontuação da busca em centipeões, do ponto de vista das brancas
+ *   27 byte  resultado da partida para as brancas: 1 vitória, 0 empate, -1 derrota
+ *   28 short número da meia-jogada na partida
+ *   30 short reservado
+ */
+public final class PackedPosition {
+    public static final int SIZE = 32;
+
+    private static final String PIECE_ORDER = "pnbrqk";
+    private static final int CASTLING_ROOK = 6;
+    private static final int NO_EN_PASSANT = 64;
+    private static final int[] BACK_RANKS = {0, 7};
+    private static final int[] ROOK_COLUMNS = {0, 7};
+
+    private PackedPosition() {
+    }
+
+    /**
+     * Escreve a posição na posição atual do buffer (que deve estar em little-endian).
+     * @param score Pontuação do ponto de vista das brancas (limitada a 16 bits).
+     * @param result Resultado para as brancas: 1, 0 ou -1.
+     */
+    public static void pack(Board board, boolean whiteToMove, int score, int result, int ply, ByteBuffer out) {
+        long occupancy = 0;
+        long nibbles0 = 0;
+        long nibbles1 = 0;
+        int count = 0;
+        int castling = Zobrist.castlingRights(board);
+        for (int square = 0; square < 64; square++) {
+            Piece piece = board.getPieceAt(square >> 3, square & 7);
+            if (piece == null) continue;
+            occupancy |= 1L << square;
+            int code = pieceCode(piece, square, castling);
+            if (count < 16) nibbles0 |= (long) code << (4 * count);
+            else nibbles1 |= (long) code << (4 * (count - 16));
+            count++;
+        }
+
+        Position ep = board.getEnPassantTarget();
+        int epSquare = ep == null ? NO_EN_PASSANT : ep.getRow() * 8 + ep.getColumn();
+        out.putLong(occupancy);
+        out.putLong(nibbles0);
+        out.putLong(nibbles1);
+        out.put((byte) ((whiteToMove ? 0x80 : 0) | epSquare));
+        out.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score)));
+        out.put((byte) result);
+        out.putShort((short) ply);
+        out.putShort((short) 0);
+    }
+
+    private static int pieceCode(Piece piece, int square, int castling) {
+        int type = PIECE_ORDER.indexOf(piece.getSymbol().charAt(0));
+        if (piece instanceof Rook) {
+            int bit = square == 63 ? 1 : square == 56 ? 2 : square == 7 ? 4 : square == 0 ? 8 : 0;
+            if ((castling & bit) != 0) type = CASTLING_ROOK;
+        }
+        return (piece.isWhite() ? 0 : 8) | type;
+    }
+
+    /**
+     * Peças e casas reaproveitadas por unpack, para desempacotar milhões de posições no mesmo
+     * tabuleiro sem criar objetos (ex: TexelTuner). Cada casa tem a sua peça de cada código, e
+     * uma peça só fica numa casa, então as peças reaproveitadas nunca se repetem no tabuleiro.
+     * Só pode ser usado com o tabuleiro do construtor, e por uma thread de cada vez.
+     */
+    public static final class PiecePool {
+        private final Board board;
+        private final Piece[] pieces = new Piece[64 * 16];
+        private final Position[] squares = new Position[64];
+
+        public PiecePool(Board board) {
+            this.board = board;
+            for (int square = 0; square < 64; square++) {
+                squares[square] = new Position(square >> 3, square & 7);
+            }
+        }
+
+        public Board getBoard() {
+            return board;
+        }
+
+        private Piece piece(int square, int code) {
+            Piece piece = pieces[square * 16 + code];
+            if (piece == null) {
+                piece = create(board, code);
+                pieces[square * 16 + code] = piece;
+            }
+            return piece;
+        }
+    }
+
+    /**
+     * Coloca no tabuleiro a posição guardada a partir de offset (o buffer não é avançado).
+     * @return true se as brancas jogam.
+     */
+    public static boolean unpack(ByteBuffer in, int offset, Board board) {
+        return unpack(in, offset, board, null);
+    }
+
+    /**
+     * Como unpack, no tabuleiro do pool e com as peças e as casas dele em vez de objetos novos.
+     */
+    public static boolean unpack(ByteBuffer in, int offset, PiecePool pool) {
+        return unpack(in, offset, pool.board, pool);
+    }
+
+    private static Piece create(Board board, int code) {
+        int type = code & 7;
+        return Piece.create(board, type == CASTLING_ROOK ? "r" : String.valueOf(PIECE_ORDER.charAt(type)), (code & 8) == 0);
+    }
+
+    private static boolean unpack(ByteBuffer in, int offset, Board board, PiecePool pool) {
+        board.clear();
+        long occupancy = in.getLong(offset);
+        long nibbles0 = in.getLong(offset + 8);
+        long nibbles1 = in.getLong(offset + 16);
+        int count = 0;
+        for (long bits = occupancy; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            int code = (int) ((count < 16 ? nibbles0 >>> (4 * count) : nibbles1 >>> (4 * (count - 16))) & 0xF);
+            count++;
+            int type = code & 7;
+            boolean white = (code & 8) == 0;
+            Piece piece = pool != null ? pool.piece(square, code) : create(board, code);
+            int row = square >> 3;
+            // Reis e torres só contam como não movidos quando ainda podem rocar
+            piece.setHasMoved(piece instanceof Pawn ? row != (white ? 6 : 1)
+                    : type != CASTLING_ROOK && (piece instanceof Rook || piece instanceof King));
+            board.placePiece(piece, pool != null ? pool.squares[square] : new Position(row, square & 7));
+        }
+        for (int row : BACK_RANKS) {
+            Piece king = board.getPieceAt(row, 4);
+            boolean castles = false;
+            for (int col : ROOK_COLUMNS) {
+                Piece rook = board.getPieceAt(row, col);
+                castles |= rook instanceof Rook && !rook.hasMoved();
+            }
+            if (king instanceof King && castles) king.setHasMoved(false);
+        }
+
+        int flags = in.get(offset + 24) & 0xFF;
+        int epSquare = flags & 0x7F;
+        board.setEnPassantTarget(epSquare == NO_EN_PASSANT ? null
+                : pool != null ? pool.squares[epSquare] : new Position(epSquare >> 3, epSquare & 7));
+        return (flags & 0x80) != 0;
+    }
+
+    public static boolean whiteToMove(ByteBuffer in, int offset) {
+        return (in.get(offset + 24) & 0x80) != 0;
+    }
+
+    public static int score(ByteBuffer in, int offset) {
+        return in.getShort(offset + 25);
+    }
+
+    public static int result(ByteBuffer in, int offset) {
+        return in.get(offset + 27);
+    }
+
+    public static int ply(ByteBuffer in, int offset) {
+        return in.getShort(offset + 28);
+    }
+
+    public static long occupancy(ByteBuffer in, int offset) {
+        return in.getLong(offset);
+    }
+
+    /**
+     * Código (nibble) da index-ésima peça, na ordem das casas ocupadas.
+     */
+    public static int pieceCode(ByteBuffer in, int offset, int index) {
+        long nibbles = in.getLong(offset + (index < 16 ? 8 : 16));
+        return (int) (nibbles >>> (4 * (index & 15))) & 0xF;
+    }
+}
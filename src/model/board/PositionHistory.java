@@ -0,0 +1,97 @@
+package model.board;
+
+/**
+ * Chaves Zobrist das últimas posições de uma partida (ou da linha que a busca está procurando)
+ * e o contador de meias-jogadas da regra dos 50 lances.
+ *
+ * As chaves ficam num buffer circular: uma posição só pode se repetir depois do último lance
+ * irreversível (captura ou lance de peão), então a procura volta no máximo tantas posições quanto
+ * o contador, de duas em duas (mesmo lado a jogar). O contador passa de 100 muito antes de o
+ * buffer dar a volta.
+ */
+public final class PositionHistory {
+    private static final int CAPACITY = 512; // potência de 2: 100 meias-jogadas da regra + a busca
+    private static final int MASK = CAPACITY - 1;
+
+    private final long[] keys = new long[CAPACITY];
+    private final int[] clocks = new int[CAPACITY]; // contador de meias-jogadas em cada posição
+    private int size;
+
+    /**
+     * Começa uma história nova a partir da posição com a chave e o contador indicados.
+     */
+    public void reset(long key, int halfmoveClock) {
+        keys[0] = key;
+        clocks[0] = halfmoveClock;
+        size = 1;
+    }
+
+    /**
+     * Registra a posição depois de um lance.
+     * @param irreversible true para capturas e lances de peão (zeram o contador).
+     */
+    public void push(long key, boolean irreversible) {
+        int clock = irreversible || size == 0 ? 0 : clocks[(size - 1) & MASK] + 1;
+        keys[size & MASK] = key;
+        clocks[size & MASK] = clock;
+        size++;
+    }
+
+    /**
+     * Volta à posição anterior (desfaz o último push).
+     */
+    public void pop() {
+        if (size <= 1) throw new IllegalStateException("Sem lance para desfazer");
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long lastKey() {
+        return keys[(size - 1) & MASK];
+    }
+
+    /**
+     * Meias-jogadas desde a última captura ou lance de peão.
+     */
+    public int getHalfmoveClock() {
+        return size == 0 ? 0 : clocks[(size - 1) & MASK];
+    }
+
+    /**
+     * @return true se a posição atual já ocorreu antes (uma repetição basta para a busca).
+     */
+    public boolean isRepetition() {
+        return repetitions(2) >= 2;
+    }
+
+    /**
+     * Quantas vezes a posição atual ocorreu, contando a atual (3 = tripla repetição).
+     */
+    public int repetitionCount() {
+        return repetitions(Integer.MAX_VALUE);
+    }
+
+    // Conta as ocorrências da posição atual, parando ao chegar a limit
+    private int repetitions(int limit) {
+        if (size == 0) return 0;
+        int last = size - 1;
+        long key = keys[last & MASK];
+        int oldest = Math.max(0, Math.max(last - clocks[last & MASK], size - CAPACITY));
+        int count = 1;
+        for (int i = last - 4; i >= oldest && count < limit; i -= 2) {
+            if (keys[i & MASK] == key) count++;
+        }
+        return count;
+    }
+
+    public PositionHistory copy() {
+        PositionHistory copy = new PositionHistory();
+        System.arraycopy(keys, 0, copy.keys, 0, CAPACITY);
+        System.arraycopy(clocks, 0, copy.clocks, 0, CAPACITY);
+        copy.size = size;
+        return copy;
+    }
+}
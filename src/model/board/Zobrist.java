@@ -0,0 +1,100 @@
+package model.board;
+
+import java.util.SplittableRandom;
+import model.pieces.King;
+import model.pieces.Pawn;
+import model.pieces.Piece;
+import model.pieces.Rook;
+
+/**
+ * Chaves Zobrist de 64 bits para identificar posições.
+ *
+ * A parte das peças é mantida de forma incremental pelo Board (getHash); key() acrescenta
+ * o lado a jogar, os direitos de roque e a coluna de en passant. Os números aleatórios são
+ * gerados com semente fixa, então as chaves são estáveis entre execuções e arquivos.
+ */
+public final class Zobrist {
+    private static final String PIECE_ORDER = "pnbrqk";
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[4]; // K, Q, k, q
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long WHITE_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x9E3779B97F4A7C15L);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int i = 0; i < 64; i++) {
+                squares[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < 4; i++) CASTLING[i] = random.nextLong();
+        for (int i = 0; i < 8; i++) EN_PASSANT_FILE[i] = random.nextLong();
+        WHITE_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Índice da peça (0 a 11): tipo na ordem p, n, b, r, q, k, brancas nos índices pares.
+     */
+    public static int pieceIndex(Piece piece) {
+        return PIECE_ORDER.indexOf(piece.getSymbol().charAt(0)) * 2 + (piece.isWhite() ? 0 : 1);
+    }
+
+    /**
+     * Chave de uma peça em uma casa (row e col no sistema do Board: linha 0 = oitava fileira).
+     */
+    public static long pieceSquare(Piece piece, int row, int col) {
+        return PIECE_SQUARE[pieceIndex(piece)][row * 8 + col];
+    }
+
+    /**
+     * Direitos de roque deduzidos das flags hasMoved do rei e das torres.
+     * @return Bits 0 a 3 para roque pequeno/grande das brancas e roque pequeno/grande das pretas.
+     */
+    public static int castlingRights(Board board) {
+        int rights = 0;
+        if (canCastle(board, 7, 7)) rights |= 1;
+        if (canCastle(board, 7, 0)) rights |= 2;
+        if (canCastle(board, 0, 7)) rights |= 4;
+        if (canCastle(board, 0, 0)) rights |= 8;
+        return rights;
+    }
+
+    private static boolean canCastle(Board board, int row, int rookCol) {
+        Piece king = board.getPieceAt(new Position(row, 4));
+        Piece rook = board.getPieceAt(new Position(row, rookCol));
+        boolean white = row == 7;
+        return king instanceof King && king.isWhite() == white && !king.hasMoved()
+                && rook instanceof Rook && rook.isWhite() == white && !rook.hasMoved();
+    }
+
+    /**
+     * Chave completa da posição.
+     * Como no formato Polyglot, a coluna de en passant só entra na chave quando algum
+     * peão do lado a jogar pode de fato capturar.
+     */
+    public static long key(Board board, boolean whiteToMove) {
+        long key = board.getHash();
+        int rights = castlingRights(board);
+        for (int i = 0; i < 4; i++) {
+            if ((rights & (1 << i)) != 0) key ^= CASTLING[i];
+        }
+        Position ep = board.getEnPassantTarget();
+        if (ep != null && hasEnPassantCapture(board, ep, whiteToMove)) {
+            key ^= EN_PASSANT_FILE[ep.getColumn()];
+        }
+        if (whiteToMove) key ^= WHITE_TO_MOVE;
+        return key;
+    }
+
+    private static boolean hasEnPassantCapture(Board board, Position ep, boolean whiteToMove) {
+        int row = ep.getRow() + (whiteToMove ? 1 : -1);
+        for (int dc = -1; dc <= 1; dc += 2) {
+            Piece p = board.getPieceAt(new Position(row, ep.getColumn() + dc));
+            if (p instanceof Pawn && p.isWhite() == whiteToMove) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,85 @@
+package model.book;
+
+import model.board.Move;
+import model.board.Position;
+
+/**
+ * Uma entrada do livro de aberturas, no layout Polyglot: chave Zobrist (8 bytes),
+ * lance (2 bytes), peso (2 bytes) e aprendizado (4 bytes), em big-endian.
+ */
+public class BookEntry {
+    public static final int SIZE = 16;
+
+    private static final String PROMOTIONS = " nbrq";
+
+    private final long key;
+    private final int move;
+    private final int weight;
+    private final int learn;
+
+    public BookEntry(long key, int move, int weight, int learn) {
+        this.key = key;
+        this.move = move;
+        this.weight = weight;
+        this.learn = learn;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    public int getRawMove() {
+        return move;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getLearn() {
+        return learn;
+    }
+
+    /**
+     * Codifica um lance no formato Polyglot: colunas e fileiras de 3 bits (fileira 0 = primeira
+     * fileira) e a peça de promoção nos bits 12 a 14. O roque é gravado como "rei captura torre".
+     */
+    public static int encodeMove(Move move) {
+        Position from = move.getFrom();
+        Position to = move.getTo();
+        int toColumn = to.getColumn();
+        if (move.isCastling()) {
+            toColumn = toColumn > from.getColumn() ? 7 : 0;
+        }
+        int promotion = move.getPromotionSymbol() != null ? PROMOTIONS.indexOf(move.getPromotionSymbol().charAt(0)) : 0;
+        return toColumn | (7 - to.getRow()) << 3 | from.getColumn() << 6 | (7 - from.getRow()) << 9 | promotion << 12;
+    }
+
+    /**
+     * Converte o lance gravado em um Move (origem, destino e promoção).
+     * @param kingOnFrom true se a peça na casa de origem for o rei, para reconhecer o roque.
+     */
+    public Move toMove(boolean kingOnFrom) {
+        int toColumn = move & 7;
+        int toRow = 7 - ((move >> 3) & 7);
+        int fromColumn = (move >> 6) & 7;
+        int fromRow = 7 - ((move >> 9) & 7);
+        int promotion = (move >> 12) & 7;
+
+        boolean castling = kingOnFrom && fromColumn == 4 && fromRow == toRow && (toColumn == 7 || toColumn == 0);
+        if (castling) {
+            toColumn = toColumn == 7 ? 6 : 2;
+        }
+        Move result = new Move(new Position(fromRow, fromColumn), new Position(toRow, toColumn));
+        result.setCastling(castling);
+        if (promotion > 0 && promotion < PROMOTIONS.length()) {
+            result.setPromotionSymbol(String.valueOf(PROMOTIONS.charAt(promotion)));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toMove(false) + " peso=" + weight;
+    }
+}
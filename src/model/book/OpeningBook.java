@@ -0,0 +1,142 @@
+package model.book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import model.board.Board;
+import model.board.Move;
+import model.board.Zobrist;
+import model.pieces.King;
+
+/**
+ * Livro de aberturas em arquivo binário ordenado pela chave Zobrist (layout Polyglot).
+ *
+ * O arquivo é mapeado em memória e consultado por busca binária, então uma consulta
+ * custa poucos acessos ao arquivo e nenhuma leitura prévia do livro inteiro.
+ */
+public class OpeningBook implements Closeable {
+    private static final String DEFAULT_PATH = "resources/book.bin";
+    private static final int ENTRIES_PER_SEGMENT = 1 << 26; // segmentos de 1 GB
+
+    private static OpeningBook defaultBook;
+    private static boolean defaultLoaded;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long entryCount;
+
+    public OpeningBook(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        entryCount = channel.size() / BookEntry.SIZE;
+        int segmentCount = (int) ((entryCount + ENTRIES_PER_SEGMENT - 1) / ENTRIES_PER_SEGMENT);
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long first = (long) i * ENTRIES_PER_SEGMENT;
+            long count = Math.min(ENTRIES_PER_SEGMENT, entryCount - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * BookEntry.SIZE, count * BookEntry.SIZE);
+        }
+    }
+
+    /**
+     * Abre o livro padrão, indicado pela propriedade "chess.book" ou em resources/book.bin.
+     * O livro é mapeado uma única vez e compartilhado.
+     * @return O livro, ou null se o arquivo não existir.
+     */
+    public static synchronized OpeningBook openDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            Path path = Paths.get(System.getProperty("chess.book", DEFAULT_PATH));
+            if (Files.isRegularFile(path)) {
+                try {
+                    defaultBook = new OpeningBook(path);
+                } catch (IOException e) {
+                    System.out.println("⚠️ Não foi possível abrir o livro de aberturas: " + e.getMessage());
+                }
+            }
+        }
+        return defaultBook;
+    }
+
+    public long size() {
+        return entryCount;
+    }
+
+    private long keyAt(long index) {
+        MappedByteBuffer segment = segments[(int) (index / ENTRIES_PER_SEGMENT)];
+        return segment.getLong((int) (index % ENTRIES_PER_SEGMENT) * BookEntry.SIZE);
+    }
+
+    private BookEntry entryAt(long index) {
+        MappedByteBuffer segment = segments[(int) (index / ENTRIES_PER_SEGMENT)];
+        int offset = (int) (index % ENTRIES_PER_SEGMENT) * BookEntry.SIZE;
+        return new BookEntry(segment.getLong(offset),
+                Short.toUnsignedInt(segment.getShort(offset + 8)),
+                Short.toUnsignedInt(segment.getShort(offset + 10)),
+                segment.getInt(offset + 12));
+    }
+
+    /**
+     * Retorna todas as entradas de uma chave (as chaves são comparadas sem sinal, como no Polyglot).
+     */
+    public List<BookEntry> lookup(long key) {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<BookEntry> entries = new ArrayList<>();
+        for (long i = low; i < entryCount && keyAt(i) == key; i++) {
+            entries.add(entryAt(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Escolhe um lance do livro para a posição, sorteado proporcionalmente ao peso.
+     * Só retorna lances que são legais no tabuleiro.
+     * @return O lance escolhido, ou null se a posição não estiver no livro.
+     */
+    public Move pickMove(Board board, boolean whiteToMove, Random random) {
+        List<BookEntry> entries = lookup(Zobrist.key(board, whiteToMove));
+        if (entries.isEmpty()) return null;
+
+        List<Move> legalMoves = board.generateLegalMoves(whiteToMove);
+        List<Move> candidates = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        long total = 0;
+        for (BookEntry entry : entries) {
+            Move move = entry.toMove(board.getPieceAt(entry.toMove(false).getFrom()) instanceof King);
+            if (entry.getWeight() > 0 && legalMoves.contains(move)) {
+                candidates.add(move);
+                weights.add(entry.getWeight());
+                total += entry.getWeight();
+            }
+        }
+        if (candidates.isEmpty()) return null;
+
+        long pick = (long) (random.nextDouble() * total);
+        for (int i = 0; i < candidates.size(); i++) {
+            pick -= weights.get(i);
+            if (pick < 0) return candidates.get(i);
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
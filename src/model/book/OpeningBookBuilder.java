@@ -0,0 +1,283 @@
+package model.book;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import model.board.Board;
+import model.board.Fen;
+import model.board.Move;
+import model.board.Zobrist;
+import model.pgn.PgnGame;
+import model.pgn.PgnReader;
+
+/**
+ * Constrói um livro de aberturas a partir de um arquivo PGN.
+ *
+ * As partidas são lidas em paralelo; cada thread acumula (chave, lance, peso) em um buffer
+ * de tamanho fixo que, quando cheio, é ordenado, agregado e gravado em um arquivo temporário.
+ * No final os arquivos são intercalados (k-way merge) no livro ordenado. A memória usada é
+ * limitada a "threads x bufferEntries" registros, qualquer que seja o tamanho do PGN.
+ *
+ * Peso de um lance: 2 por vitória e 1 por empate do lado que jogou (como no Polyglot).
+ */
+public class OpeningBookBuilder {
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPly;
+    private final int bufferEntries;
+    private final Path tempDir;
+    private final List<Path> runs = new ArrayList<>();
+    private final List<RunBuffer> buffers = new ArrayList<>();
+    private final ThreadLocal<RunBuffer> localBuffer = ThreadLocal.withInitial(this::newBuffer);
+
+    public OpeningBookBuilder(int maxPly, int bufferEntries, Path tempDir) {
+        this.maxPly = maxPly;
+        this.bufferEntries = bufferEntries;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Lê o PGN e grava o livro ordenado em "output".
+     */
+    public void build(Path pgn, Path output) throws IOException {
+        try (PgnReader reader = new PgnReader(pgn)) {
+            reader.parallelGames().forEach(this::addGame);
+        }
+        synchronized (buffers) {
+            for (RunBuffer buffer : buffers) buffer.flush();
+        }
+        try {
+            merge(output);
+        } finally {
+            for (Path run : runs) Files.deleteIfExists(run);
+        }
+    }
+
+    private RunBuffer newBuffer() {
+        RunBuffer buffer = new RunBuffer(bufferEntries);
+        synchronized (buffers) {
+            buffers.add(buffer);
+        }
+        return buffer;
+    }
+
+    private void addGame(PgnGame game) {
+        int whiteScore;
+        switch (game.getResult()) {
+            case "1-0": whiteScore = 2; break;
+            case "0-1": whiteScore = 0; break;
+            case "1/2-1/2": whiteScore = 1; break;
+            default: return; // partida sem resultado não entra no livro
+        }
+        RunBuffer buffer = localBuffer.get();
+        Board board = buffer.board;
+        boolean white = true;
+        if (game.getTag("FEN") == null) {
+            board.setupInitialPosition();
+        } else if (game.isValid()) {
+            white = Fen.load(board, game.getStartFen());
+        } else {
+            return; // a posição inicial da partida não pôde ser lida
+        }
+        List<Move> moves = game.getMoves();
+        for (int ply = 0; ply < moves.size() && ply < maxPly; ply++) {
+            Move move = moves.get(ply);
+            int weight = white ? whiteScore : 2 - whiteScore;
+            buffer.add(Zobrist.key(board, white), BookEntry.encodeMove(move), weight);
+            board.makeMove(move);
+            white = !white;
+        }
+    }
+
+    private synchronized Path newRunFile() throws IOException {
+        Path run = Files.createTempFile(tempDir, "book-run", ".tmp");
+        runs.add(run);
+        return run;
+    }
+
+    /**
+     * Buffer de uma thread: vetores primitivos de chaves e de (lance << 32 | peso).
+     */
+    private class RunBuffer {
+        final Board board = new Board();
+        final long[] keys;
+        final long[] data;
+        int size;
+
+        RunBuffer(int capacity) {
+            keys = new long[capacity];
+            data = new long[capacity];
+        }
+
+        void add(long key, int move, int weight) {
+            if (size == keys.length) flush();
+            keys[size] = key;
+            data[size] = ((long) move << 32) | weight;
+            size++;
+        }
+
+        // Ordena por (chave sem sinal, lance), soma pesos repetidos e grava um arquivo ordenado
+        void flush() {
+            if (size == 0) return;
+            sort(keys, data, 0, size - 1);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(newRunFile())))) {
+                int i = 0;
+                while (i < size) {
+                    long key = keys[i];
+                    long move = data[i] >>> 32;
+                    long weight = 0;
+                    while (i < size && keys[i] == key && (data[i] >>> 32) == move) {
+                        weight += data[i] & 0xFFFFFFFFL;
+                        i++;
+                    }
+                    writeRecord(out, key, (int) move, weight);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            size = 0;
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, long key, int move, long weight) throws IOException {
+        out.writeLong(key);
+        out.writeShort(move);
+        out.writeLong(weight);
+    }
+
+    private static int compare(long keyA, long dataA, long keyB, long dataB) {
+        int c = Long.compareUnsigned(keyA, keyB);
+        return c != 0 ? c : Long.compare(dataA >>> 32, dataB >>> 32);
+    }
+
+    // Quicksort sobre os dois vetores em paralelo, sem criar objetos
+    private static void sort(long[] keys, long[] data, int low, int high) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long pivotKey = keys[middle];
+            long pivotData = data[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[i], data[i], pivotKey, pivotData) < 0) i++;
+                while (compare(keys[j], data[j], pivotKey, pivotData) > 0) j--;
+                if (i <= j) {
+                    long k = keys[i]; keys[i] = keys[j]; keys[j] = k;
+                    long d = data[i]; data[i] = data[j]; data[j] = d;
+                    i++;
+                    j--;
+                }
+            }
+            // Recursão no lado menor para limitar a pilha
+            if (j - low < high - i) {
+                sort(keys, data, low, j);
+                low = i;
+            } else {
+                sort(keys, data, i, high);
+                high = j;
+            }
+        }
+    }
+
+    /**
+     * Cursor sobre um arquivo temporário ordenado.
+     */
+    private static class RunReader {
+        final DataInputStream in;
+        long key;
+        int move;
+        long weight;
+
+        RunReader(Path path) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        }
+
+        boolean next() throws IOException {
+            try {
+                key = in.readLong();
+                move = Short.toUnsignedInt(in.readShort());
+                weight = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                in.close();
+                return false;
+            }
+        }
+    }
+
+    // Intercala os arquivos temporários em dois passos: soma os pesos (guardando o maior)
+    // e depois reescala para 16 bits se necessário
+    private void merge(Path output) throws IOException {
+        Path merged = Files.createTempFile(tempDir, "book-merged", ".tmp");
+        runs.add(merged);
+        long maxWeight = 0;
+
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(
+                (a, b) -> compare(a.key, (long) a.move << 32, b.key, (long) b.move << 32));
+        for (Path run : runs) {
+            if (run.equals(merged)) continue;
+            RunReader reader = new RunReader(run);
+            if (reader.next()) queue.add(reader);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(merged)))) {
+            while (!queue.isEmpty()) {
+                RunReader head = queue.poll();
+                long key = head.key;
+                int move = head.move;
+                long weight = head.weight;
+                if (head.next()) queue.add(head);
+                while (!queue.isEmpty() && queue.peek().key == key && queue.peek().move == move) {
+                    RunReader same = queue.poll();
+                    weight += same.weight;
+                    if (same.next()) queue.add(same);
+                }
+                if (weight > 0) {
+                    writeRecord(out, key, move, weight);
+                    maxWeight = Math.max(maxWeight, weight);
+                }
+            }
+        }
+
+        RunReader reader = new RunReader(merged);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            while (reader.next()) {
+                long weight = reader.weight;
+                if (maxWeight > MAX_WEIGHT) {
+                    weight = Math.max(1, weight * MAX_WEIGHT / maxWeight);
+                }
+                out.writeLong(reader.key);
+                out.writeShort(reader.move);
+                out.writeShort((int) weight);
+                out.writeInt(0); // aprendizado
+            }
+        }
+    }
+
+    /**
+     * Uso: java -cp out model.book.OpeningBookBuilder partidas.pgn livro.bin [lancesMaximos]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: OpeningBookBuilder <partidas.pgn> <livro.bin> [lancesMaximos]");
+            return;
+        }
+        int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        Path output = Paths.get(args[1]);
+        Path tempDir = output.toAbsolutePath().getParent();
+        long start = System.nanoTime();
+        new OpeningBookBuilder(maxPly, 1 << 20, tempDir).build(Paths.get(args[0]), output);
+        System.out.printf("Livro gravado em %s (%d entradas) em %.1f s%n", output,
+                Files.size(output) / BookEntry.SIZE, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,120 @@
+package model.pgn;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import model.board.Fen;
+import model.board.Move;
+
+/**
+ * Uma partida lida de um arquivo PGN: cabeçalhos, lances (já validados) e resultado.
+ * Os cabeçalhos ficam guardados como bytes brutos e só viram String quando consultados.
+ */
+public class PgnGame {
+    private final long offset;
+    private final byte[] tagData;
+    private final int[] tagBounds; // para cada tag: início/fim do nome, início/fim do valor
+    private final int tagCount;
+    private final List<Move> moves;
+    private final String result;
+    private final int errorPly;
+
+    PgnGame(long offset, byte[] tagData, int[] tagBounds, int tagCount,
+            List<Move> moves, String result, int errorPly) {
+        this.offset = offset;
+        this.tagData = tagData;
+        this.tagBounds = tagBounds;
+        this.tagCount = tagCount;
+        this.moves = moves;
+        this.result = result;
+        this.errorPly = errorPly;
+    }
+
+    /**
+     * Posição (em bytes) do início da partida no arquivo.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Lances da partida a partir de getStartFen(), compatíveis com Game (origem, destino e peça de promoção).
+     * Se a partida tiver um lance inválido, contém apenas os lances anteriores a ele.
+     */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Posição de onde a partida começa: o cabeçalho FEN, ou a posição inicial se ele não existir.
+     */
+    public String getStartFen() {
+        String fen = getTag("FEN");
+        return fen != null ? fen : Fen.START_POSITION;
+    }
+
+    /**
+     * Resultado da partida: "1-0", "0-1", "1/2-1/2" ou "*".
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @return true se todos os lances foram reconhecidos e são legais.
+     */
+    public boolean isValid() {
+        return errorPly < 0;
+    }
+
+    /**
+     * @return O índice do primeiro lance inválido, ou -1 se a partida for válida.
+     */
+    public int getErrorPly() {
+        return errorPly;
+    }
+
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * Nome do cabeçalho de índice indicado (0 a getTagCount() - 1), na ordem do arquivo.
+     */
+    public String getTagName(int index) {
+        return new String(tagData, tagBounds[index * 4], tagBounds[index * 4 + 1] - tagBounds[index * 4], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Valor do cabeçalho de índice indicado.
+     */
+    public String getTagValue(int index) {
+        return new String(tagData, tagBounds[index * 4 + 2], tagBounds[index * 4 + 3] - tagBounds[index * 4 + 2], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Procura o valor de um cabeçalho (ex: "White", "Event") sem decodificar os demais.
+     * @return O valor do cabeçalho, ou null se ele não existir.
+     */
+    public String getTag(String name) {
+        for (int i = 0; i < tagCount; i++) {
+            int nameStart = tagBounds[i * 4];
+            int nameEnd = tagBounds[i * 4 + 1];
+            if (nameEnd - nameStart != name.length()) continue;
+            boolean same = true;
+            for (int j = 0; j < name.length() && same; j++) {
+                same = tagData[nameStart + j] == name.charAt(j);
+            }
+            if (same) {
+                int valueStart = tagBounds[i * 4 + 2];
+                int valueEnd = tagBounds[i * 4 + 3];
+                return new String(tagData, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return getTag("White") + " x " + getTag("Black") + " " + result + " (" + moves.size() + " lances)";
+    }
+}
@@ -0,0 +1,392 @@
+package model.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import model.board.Board;
+import model.board.Fen;
+import model.board.Move;
+import model.board.Position;
+
+/**
+ * Leitor de arquivos PGN grandes (vários gigabytes) baseado em memory-mapping.
+ *
+ * O arquivo é mapeado em janelas e lido byte a byte: cabeçalhos e lances são reconhecidos
+ * diretamente nos bytes, sem criar uma String por token. Cada partida é reproduzida em um
+ * Board reutilizado, validando a legalidade de cada lance. As partidas são entregues como
+ * um Stream, que pode ser dividido em paralelo nos limites entre partidas.
+ */
+public class PgnReader implements Closeable {
+    private static final long WINDOW_SIZE = 64L << 20;   // janela mapeada por leitor
+    private static final long MIN_SPLIT_SIZE = 1L << 20; // não divide trechos menores que 1 MB
+    private static final int SCAN_CHUNK = 1 << 20;
+    private static final int AVERAGE_GAME_BYTES = 1024;
+    private static final int MAX_TOKEN = 16;
+
+    private final FileChannel channel;
+    private final long size;
+
+    public PgnReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /**
+     * @return As partidas do arquivo, na ordem em que aparecem.
+     */
+    public Stream<PgnGame> games() {
+        return StreamSupport.stream(new GameSpliterator(0, size), false);
+    }
+
+    /**
+     * @return As partidas do arquivo em um Stream paralelo, dividido nos limites entre partidas.
+     */
+    public Stream<PgnGame> parallelGames() {
+        return StreamSupport.stream(new GameSpliterator(0, size), true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Procura o início da próxima partida a partir de "from": um '[' logo após uma linha vazia.
+     * @return A posição encontrada, ou -1 se não houver outra partida antes de "limit".
+     */
+    private long findGameStart(long from, long limit) {
+        try {
+            long chunkStart = Math.max(0, from - 3);
+            while (chunkStart < limit) {
+                int length = (int) Math.min(SCAN_CHUNK, limit - chunkStart);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, length);
+                for (int i = 3; i < length; i++) {
+                    if (chunk.get(i) == '[' && chunk.get(i - 1) == '\n'
+                            && (chunk.get(i - 2) == '\n' || (chunk.get(i - 2) == '\r' && chunk.get(i - 3) == '\n'))
+                            && chunkStart + i >= from) {
+                        return chunkStart + i;
+                    }
+                }
+                if (chunkStart + length >= limit) break;
+                chunkStart += length - 3; // sobreposição para não perder um limite entre blocos
+            }
+            return -1;
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Percorre as partidas do trecho [pos, end) do arquivo. Cada instância tem seu próprio
+     * Board e buffers, então pode ser usada por uma thread do Stream paralelo.
+     */
+    private class GameSpliterator implements Spliterator<PgnGame> {
+        private long pos;
+        private long end;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long windowEnd;
+        private long gameStart;
+        private Board board;
+        private final byte[] token = new byte[MAX_TOKEN];
+        private byte[] tagData = new byte[256];
+        private int[] tagBounds = new int[32];
+
+        GameSpliterator(long start, long end) {
+            this.pos = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super PgnGame> action) {
+            skipToGame();
+            if (pos >= end) return false;
+            action.accept(readGame());
+            return true;
+        }
+
+        @Override
+        public Spliterator<PgnGame> trySplit() {
+            if (end - pos < 2 * MIN_SPLIT_SIZE) return null;
+            long middle = pos + (end - pos) / 2;
+            long boundary = findGameStart(middle, end);
+            if (boundary < 0) return null;
+            GameSpliterator suffix = new GameSpliterator(boundary, end);
+            end = boundary;
+            return suffix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(1, (end - pos) / AVERAGE_GAME_BYTES);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        // --- Acesso aos bytes ---
+
+        private int at(long p) {
+            if (p >= end) return -1;
+            if (p < windowStart || p >= windowEnd) remap(p);
+            return window.get((int) (p - windowStart)) & 0xFF; // bytes UTF-8 acima de 0x7F não são o fim do arquivo
+        }
+
+        // Mapeia uma nova janela a partir do início da partida atual, para que ela caiba inteira
+        private void remap(long p) {
+            long start = (p >= gameStart && p - gameStart < WINDOW_SIZE / 2) ? gameStart : p;
+            long length = Math.min(WINDOW_SIZE, end - start);
+            try {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+            windowStart = start;
+            windowEnd = start + length;
+        }
+
+        private boolean isLineStart(long p) {
+            return p == 0 || at(p - 1) == '\n';
+        }
+
+        private void skipWhitespace() {
+            int c = at(pos);
+            while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                c = at(++pos);
+            }
+        }
+
+        // Pula lixo entre partidas (ex: texto antes do primeiro cabeçalho)
+        private void skipToGame() {
+            gameStart = pos;
+            skipWhitespace();
+            gameStart = pos;
+        }
+
+        // --- Leitura de uma partida ---
+
+        private PgnGame readGame() {
+            long offset = pos;
+            int tagLength = 0;
+            int tagCount = 0;
+            int fenTag = -1;
+
+            // Cabeçalhos: [Nome "Valor"]
+            while (at(pos) == '[') {
+                pos++;
+                if ((tagCount + 1) * 4 > tagBounds.length) tagBounds = Arrays.copyOf(tagBounds, tagBounds.length * 2);
+                int c = at(pos);
+                int nameStart = tagLength;
+                while (c >= 0 && c != ' ' && c != '"' && c != ']') {
+                    tagLength = appendTagByte(tagLength, c);
+                    c = at(++pos);
+                }
+                int nameEnd = tagLength;
+                while (c >= 0 && c != '"' && c != ']') c = at(++pos);
+                int valueStart = tagLength;
+                if (c == '"') {
+                    c = at(++pos);
+                    while (c >= 0 && c != '"' && c != '\n') {
+                        if (c == '\\') c = at(++pos);
+                        tagLength = appendTagByte(tagLength, c);
+                        c = at(++pos);
+                    }
+                }
+                int valueEnd = tagLength;
+                while (c >= 0 && c != ']' && c != '\n') c = at(++pos);
+                while (c >= 0 && c != '\n') c = at(++pos);
+                tagBounds[tagCount * 4] = nameStart;
+                tagBounds[tagCount * 4 + 1] = nameEnd;
+                tagBounds[tagCount * 4 + 2] = valueStart;
+                tagBounds[tagCount * 4 + 3] = valueEnd;
+                if (nameEnd - nameStart == 3 && tagData[nameStart] == 'F'
+                        && tagData[nameStart + 1] == 'E' && tagData[nameStart + 2] == 'N') {
+                    fenTag = tagCount;
+                }
+                tagCount++;
+                skipWhitespace();
+            }
+
+            // Lances
+            if (board == null) board = new Board();
+            boolean white = true;
+            int errorPly = -1;
+            if (fenTag < 0) {
+                board.setupInitialPosition();
+            } else {
+                // Partida que começa de uma posição dada pelo cabeçalho FEN
+                int valueStart = tagBounds[fenTag * 4 + 2];
+                String fen = new String(tagData, valueStart, tagBounds[fenTag * 4 + 3] - valueStart, StandardCharsets.US_ASCII);
+                try {
+                    white = Fen.load(board, fen);
+                } catch (IllegalArgumentException e) {
+                    errorPly = 0;
+                }
+            }
+            List<Move> moves = new ArrayList<>();
+            String result = "*";
+
+            while (true) {
+                skipWhitespace();
+                int c = at(pos);
+                if (c < 0) break;
+                if (c == '[' && isLineStart(pos)) break; // próxima partida sem resultado
+                if (c == '{') {
+                    while (c >= 0 && c != '}') c = at(++pos);
+                    pos++;
+                } else if (c == ';' || (c == '%' && isLineStart(pos))) {
+                    while (c >= 0 && c != '\n') c = at(++pos);
+                } else if (c == '(') {
+                    skipVariation();
+                } else if (c == '$') {
+                    c = at(++pos);
+                    while (c >= '0' && c <= '9') c = at(++pos);
+                } else if (c == '*') {
+                    pos++;
+                    break;
+                } else if (c >= '0' && c <= '9' && !isZeroCastling()) {
+                    String parsed = readNumberOrResult();
+                    if (parsed != null) {
+                        result = parsed;
+                        break;
+                    }
+                } else {
+                    int length = readToken();
+                    if (length > 0 && errorPly < 0) {
+                        Move move = SanParser.resolve(token, length, board, white);
+                        if (move == null) {
+                            errorPly = moves.size();
+                        } else {
+                            board.makeMove(move);
+                            moves.add(detach(move));
+                            white = !white;
+                        }
+                    } else if (length == 0) {
+                        pos++; // caractere desconhecido
+                    }
+                }
+            }
+
+            if (pos == offset) pos++; // nada reconhecido: avança para não ler a mesma posição de novo
+            gameStart = pos;
+            return new PgnGame(offset, Arrays.copyOf(tagData, tagLength), Arrays.copyOf(tagBounds, tagCount * 4),
+                    tagCount, moves, result, errorPly);
+        }
+
+        private int appendTagByte(int length, int c) {
+            if (length == tagData.length) tagData = Arrays.copyOf(tagData, length * 2);
+            tagData[length] = (byte) c;
+            return length + 1;
+        }
+
+        private void skipVariation() {
+            int depth = 0;
+            int c = at(pos);
+            while (c >= 0) {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                    if (depth == 0) {
+                        pos++;
+                        return;
+                    }
+                } else if (c == '{') {
+                    while (c >= 0 && c != '}') c = at(++pos);
+                }
+                c = at(++pos);
+            }
+        }
+
+        // Roque escrito com zeros ("0-0", "0-0-0"): é um lance, não um número ou resultado
+        private boolean isZeroCastling() {
+            return at(pos) == '0' && at(pos + 1) == '-' && at(pos + 2) == '0';
+        }
+
+        // Lê um número de lance ("12.", "12...") ou um resultado; retorna o resultado, se for um
+        private String readNumberOrResult() {
+            int first = at(pos);
+            int c = at(++pos);
+            if (first == '1' && c == '-' && at(pos + 1) == '0') {
+                pos += 2;
+                return "1-0";
+            }
+            if (first == '0' && c == '-' && at(pos + 1) == '1') {
+                pos += 2;
+                return "0-1";
+            }
+            if (first == '1' && c == '/') {
+                while (c >= 0 && c != ' ' && c != '\n' && c != '\r') c = at(++pos);
+                return "1/2-1/2";
+            }
+            while (c >= '0' && c <= '9') c = at(++pos);
+            while (c == '.') c = at(++pos);
+            return null;
+        }
+
+        // Copia um lance SAN para o buffer reutilizável "token"
+        private int readToken() {
+            int length = 0;
+            int c = at(pos);
+            while (c > ' ' && c != '(' && c != ')' && c != '{' && c != '}' && c != ';' && c != '$') {
+                if (length < MAX_TOKEN) token[length++] = (byte) c;
+                c = at(++pos);
+            }
+            return length;
+        }
+
+        private Move detach(Move move) {
+            Move copy = new Move(new Position(move.getFrom().getRow(), move.getFrom().getColumn()),
+                    new Position(move.getTo().getRow(), move.getTo().getColumn()));
+            copy.setPromotionSymbol(move.getPromotionSymbol());
+            copy.setCastling(move.isCastling());
+            copy.setEnPassant(move.isEnPassant());
+            return copy;
+        }
+    }
+
+    /**
+     * Mede a vazão de leitura: java -cp out model.pgn.PgnReader arquivo.pgn [--sequencial]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: PgnReader <arquivo.pgn> [--sequencial]");
+            return;
+        }
+        boolean parallel = !(args.length > 1 && args[1].equals("--sequencial"));
+        int cores = parallel ? Runtime.getRuntime().availableProcessors() : 1;
+        LongAdder games = new LongAdder();
+        LongAdder invalid = new LongAdder();
+        LongAdder plies = new LongAdder();
+
+        long start = System.nanoTime();
+        try (PgnReader reader = new PgnReader(Paths.get(args[0]))) {
+            Stream<PgnGame> stream = parallel ? reader.parallelGames() : reader.games();
+            stream.forEach(game -> {
+                games.increment();
+                plies.add(game.getMoves().size());
+                if (!game.isValid()) invalid.increment();
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Partidas: %d (%d inválidas), lances: %d%n", games.sum(), invalid.sum(), plies.sum());
+        System.out.printf("Tempo: %.2f s, %.0f partidas/s, %.0f partidas/s por núcleo (%d núcleos)%n",
+                seconds, games.sum() / seconds, games.sum() / seconds / cores, cores);
+    }
+}
@@ -0,0 +1,96 @@
+package model.pgn;
+
+import model.board.Board;
+import model.board.Move;
+
+/**
+ * Converte um lance em notação algébrica (SAN), lido diretamente dos bytes do arquivo,
+ * no lance legal correspondente do tabuleiro. Não cria Strings intermediárias nem gera todos
+ * os lances legais: só os da peça indicada até a casa de destino.
+ */
+final class SanParser {
+
+    private SanParser() {
+    }
+
+    /**
+     * @param san Bytes do lance (ex: "Nbd7", "exd6", "e8=Q+", "O-O").
+     * @param length Quantidade de bytes válidos em san.
+     * @param board Tabuleiro na posição anterior ao lance.
+     * @param white true se for a vez das brancas.
+     * @return O lance legal correspondente, ou null se não existir ou for ambíguo.
+     */
+    static Move resolve(byte[] san, int length, Board board, boolean white) {
+        // Remove sufixos de xeque e anotações (+, #, !, ?)
+        while (length > 0 && (san[length - 1] == '+' || san[length - 1] == '#'
+                || san[length - 1] == '!' || san[length - 1] == '?')) {
+            length--;
+        }
+        if (length < 2) return null;
+
+        if (san[0] == 'O' || san[0] == '0') {
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                if (san[i] == 'O' || san[i] == '0') count++;
+            }
+            int targetColumn = count == 3 ? 2 : 6;
+            int kingRow = white ? 7 : 0;
+            for (Move move : board.generateLegalMovesTo(white, 'k', kingRow, targetColumn, kingRow, 4)) {
+                if (move.isCastling()) return move;
+            }
+            return null;
+        }
+
+        char pieceSymbol = 'p';
+        int start = 0;
+        switch (san[0]) {
+            case 'N': pieceSymbol = 'n'; start = 1; break;
+            case 'B': pieceSymbol = 'b'; start = 1; break;
+            case 'R': pieceSymbol = 'r'; start = 1; break;
+            case 'Q': pieceSymbol = 'q'; start = 1; break;
+            case 'K': pieceSymbol = 'k'; start = 1; break;
+            default: break;
+        }
+
+        char promotion = 0;
+        if (length >= 2 && san[length - 2] == '=') {
+            promotion = Character.toLowerCase((char) san[length - 1]);
+            length -= 2;
+        } else if (pieceSymbol == 'p' && isPromotionLetter(san[length - 1])) {
+            promotion = Character.toLowerCase((char) san[length - 1]);
+            length -= 1;
+        }
+        if (length - start < 2) return null;
+
+        int toColumn = san[length - 2] - 'a';
+        int toRow = 7 - (san[length - 1] - '1');
+        if (toColumn < 0 || toColumn > 7 || toRow < 0 || toRow > 7) return null;
+
+        int fromColumn = -1;
+        int fromRow = -1;
+        for (int i = start; i < length - 2; i++) {
+            byte c = san[i];
+            if (c >= 'a' && c <= 'h') fromColumn = c - 'a';
+            else if (c >= '1' && c <= '8') fromRow = 7 - (c - '1');
+            else if (c != 'x' && c != '-' && c != ':') return null;
+        }
+
+        // Só as peças do tipo que chegam ao destino (com a origem indicada) são testadas
+        Move found = null;
+        for (Move move : board.generateLegalMovesTo(white, pieceSymbol, toRow, toColumn, fromRow, fromColumn)) {
+            if (move.isPromotion()) {
+                char symbol = promotion == 0 ? 'q' : promotion;
+                if (move.getPromotionSymbol().charAt(0) != symbol) continue;
+            } else if (promotion != 0) {
+                continue;
+            }
+            if (found != null) return null; // ambíguo
+            found = move;
+        }
+        return found;
+    }
+
+    private static boolean isPromotionLetter(byte c) {
+        return c == 'Q' || c == 'R' || c == 'B' || c == 'N';
+    }
+}
@@ -51,5 +51,21 @@ public abstract class Piece {
     public abstract String getSymbol();
 
     public abstract String getName();
+
+    /**
+     * Cria uma peça a partir do seu símbolo ("k", "q", "r", "b", "n" ou "p").
+     * @return A nova peça, ou null se o símbolo for desconhecido.
+     */
+    public static Piece create(Board board, String symbol, boolean isWhite) {
+        switch (symbol) {
+            case "k": return new King(board, isWhite);
+            case "q": return new Queen(board, isWhite);
+            case "r": return new Rook(board, isWhite);
+            case "b": return new Bishop(board, isWhite);
+            case "n": return new Knight(board, isWhite);
+            case "p": return new Pawn(board, isWhite);
+            default: return null;
+        }
+    }
 }
 
@@ -0,0 +1,204 @@
+package model.tablebase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Consulta de tabelas de finais (KQK, KRK, KPK, KBNK) geradas por TablebaseGenerator.
+ *
+ * Cada tabela é um arquivo com um byte por posição, mapeado em memória. O byte guarda o
+ * resultado para o lado a jogar (2 bits: empate, vitória ou derrota) e a distância até o
+ * mate em lances (6 bits). As posições em que o lado mais forte é o preto são espelhadas
+ * verticalmente, então cada tabela cobre as duas cores.
+ */
+public class Tablebase implements Closeable {
+    public static final int ILLEGAL = 0;
+    public static final int DRAW = 1;
+    public static final int WIN = 2;
+    public static final int LOSS = 3;
+
+    static final int MAGIC = 0x43544231; // "CTB1"
+    static final int HEADER_SIZE = 8;
+    static final String PIECE_TYPES = "pnbrq";
+
+    private static final String DEFAULT_DIRECTORY = "tablebases";
+    private static Tablebase defaultTablebase;
+    private static boolean defaultLoaded;
+
+    private final Map<String, MappedByteBuffer> tables = new HashMap<>();
+    private final Map<String, FileChannel> channels = new HashMap<>();
+
+    /**
+     * Mapeia todos os arquivos .tb do diretório.
+     */
+    public Tablebase(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.tb")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                name = name.substring(0, name.length() - 3).toUpperCase();
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                MappedByteBuffer buffer;
+                try {
+                    // O tamanho é conferido antes de ler o cabeçalho (um arquivo truncado pode ter menos de 4 bytes)
+                    buffer = channel.size() == HEADER_SIZE + (long) tableSize(name.length() - 2)
+                            ? channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()) : null;
+                } catch (IOException | RuntimeException e) {
+                    channel.close();
+                    throw e;
+                }
+                if (buffer == null || buffer.getInt(0) != MAGIC) {
+                    channel.close();
+                    System.out.println("⚠️ Tabela de finais inválida: " + file);
+                    continue;
+                }
+                tables.put(name, buffer);
+                channels.put(name, channel);
+            }
+        }
+    }
+
+    /**
+     * Abre as tabelas do diretório indicado pela propriedade "chess.tablebases" ou "tablebases".
+     * @return As tabelas, ou null se o diretório não existir ou estiver vazio.
+     */
+    public static synchronized Tablebase openDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            Path directory = Paths.get(System.getProperty("chess.tablebases", DEFAULT_DIRECTORY));
+            if (Files.isDirectory(directory)) {
+                try {
+                    Tablebase tablebase = new Tablebase(directory);
+                    if (!tablebase.tables.isEmpty()) defaultTablebase = tablebase;
+                } catch (IOException e) {
+                    System.out.println("⚠️ Não foi possível abrir as tabelas de finais: " + e.getMessage());
+                }
+            }
+        }
+        return defaultTablebase;
+    }
+
+    /**
+     * Quantidade de posições de uma tabela com "extraPieces" peças além dos reis.
+     */
+    static int tableSize(int extraPieces) {
+        return 2 << (6 * (2 + extraPieces));
+    }
+
+    /**
+     * Índice perfeito da posição: lado a jogar, rei forte, rei fraco e as demais peças,
+     * cada casa com 6 bits (casa = linha * 8 + coluna, linha 0 = oitava fileira).
+     */
+    static int index(int sideToMove, int strongKing, int weakKing, int[] squares, int count) {
+        int index = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            index = (index << 6) | squares[i];
+        }
+        index = (((index << 6) | weakKing) << 6) | strongKing;
+        return (index << 1) | sideToMove;
+    }
+
+    static int encode(int wdl, int moves) {
+        return (moves << 2) | wdl;
+    }
+
+    /**
+     * Resultado (DRAW, WIN ou LOSS) para o lado a jogar, a partir de um valor de probe.
+     */
+    public static int wdl(int value) {
+        return value & 3;
+    }
+
+    /**
+     * Distância até o mate em lances completos (0 quando já é mate ou empate).
+     */
+    public static int movesToMate(int value) {
+        return (value >> 2) & 63;
+    }
+
+    public boolean hasTables() {
+        return !tables.isEmpty();
+    }
+
+    /**
+     * Consulta a posição do tabuleiro.
+     * Posições com apenas os reis, ou reis e uma única peça menor, são empates conhecidos.
+     * @return O valor da posição para o lado a jogar, ou -1 se não houver tabela para o material.
+     */
+    public int probe(Board board, boolean whiteToMove) {
+        int whiteKing = -1;
+        int blackKing = -1;
+        int whiteCount = 0;
+        int blackCount = 0;
+        int[] whiteSquares = new int[2];
+        int[] blackSquares = new int[2];
+        char[] whiteTypes = new char[2];
+        char[] blackTypes = new char[2];
+
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.getPieceAt(row, col);
+                if (piece == null) continue;
+                char type = piece.getSymbol().charAt(0);
+                int square = row * 8 + col;
+                if (type == 'k') {
+                    if (piece.isWhite()) whiteKing = square; else blackKing = square;
+                } else if (piece.isWhite()) {
+                    if (whiteCount == 2) return -1;
+                    whiteTypes[whiteCount] = type;
+                    whiteSquares[whiteCount++] = square;
+                } else {
+                    if (blackCount == 2) return -1;
+                    blackTypes[blackCount] = type;
+                    blackSquares[blackCount++] = square;
+                }
+            }
+        }
+        if (whiteKing < 0 || blackKing < 0) return -1;
+        if (whiteCount > 0 && blackCount > 0) return -1;
+        int count = whiteCount + blackCount;
+        char[] types = whiteCount > 0 ? whiteTypes : blackTypes;
+        if (count == 0 || (count == 1 && (types[0] == 'b' || types[0] == 'n'))) {
+            return encode(DRAW, 0);
+        }
+
+        boolean strongIsWhite = whiteCount > 0;
+        int[] squares = strongIsWhite ? whiteSquares : blackSquares;
+        // Ordena as peças na ordem do nome da tabela (ex: KBNK tem o bispo antes do cavalo)
+        if (count == 2 && PIECE_TYPES.indexOf(types[0]) < PIECE_TYPES.indexOf(types[1])) {
+            char t = types[0]; types[0] = types[1]; types[1] = t;
+            int s = squares[0]; squares[0] = squares[1]; squares[1] = s;
+        }
+        StringBuilder name = new StringBuilder("K");
+        for (int i = 0; i < count; i++) name.append(Character.toUpperCase(types[i]));
+        name.append('K');
+        MappedByteBuffer table = tables.get(name.toString());
+        if (table == null) return -1;
+
+        // Espelha o tabuleiro quando o lado forte é o preto
+        int flip = strongIsWhite ? 0 : 56;
+        for (int i = 0; i < count; i++) squares[i] ^= flip;
+        int strongKing = (strongIsWhite ? whiteKing : blackKing) ^ flip;
+        int weakKing = (strongIsWhite ? blackKing : whiteKing) ^ flip;
+        int sideToMove = (whiteToMove == strongIsWhite) ? 0 : 1;
+
+        int value = table.get(HEADER_SIZE + index(sideToMove, strongKing, weakKing, squares, count)) & 0xFF;
+        return wdl(value) == ILLEGAL ? -1 : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel channel : channels.values()) channel.close();
+        tables.clear();
+    }
+}
@@ -0,0 +1,445 @@
+package model.tablebase;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Gera tabelas de finais por análise retrógrada, para um lado forte (rei + 1 ou 2 peças)
+ * contra o rei sozinho: KQK, KRK, KPK e KBNK.
+ *
+ * Cada posição recebe um byte (resultado + distância até o mate). A geração começa pelos
+ * mates e avança uma meia-jogada por passo: no passo ímpar, os antecessores (desfazendo
+ * lances do lado forte) de posições perdidas pelo rei sozinho viram vitórias; no passo par,
+ * os antecessores do rei sozinho cujos lances levam todos a vitórias do lado forte viram
+ * derrotas. Cada passo é dividido entre os núcleos; em um passo só um lado a jogar é
+ * escrito e só o outro é lido, então as threads não disputam as mesmas posições.
+ *
+ * Internamente o lado forte é sempre o branco (lado 0) e a casa é linha * 8 + coluna.
+ */
+public class TablebaseGenerator {
+    private static final int UNKNOWN = 0xFF;
+    private static final int CHUNKS = 256;
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    static {
+        int[][] knight = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+        for (int sq = 0; sq < 64; sq++) {
+            int row = sq >> 3, col = sq & 7;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    if ((dr != 0 || dc != 0) && onBoard(row + dr, col + dc)) {
+                        KING_ATTACKS[sq] |= 1L << ((row + dr) * 8 + col + dc);
+                    }
+                }
+            }
+            for (int[] d : knight) {
+                if (onBoard(row + d[0], col + d[1])) KNIGHT_ATTACKS[sq] |= 1L << ((row + d[0]) * 8 + col + d[1]);
+            }
+        }
+    }
+
+    private final String name;
+    private final char[] types;
+    private final int count;
+    private final Map<Character, byte[]> promotionTables;
+    private byte[] table;
+
+    /**
+     * @param name Nome da tabela, ex: "KQK" ou "KBNK".
+     * @param promotionTables Tabelas já geradas usadas nas promoções de peão ('q' e 'r').
+     */
+    public TablebaseGenerator(String name, Map<Character, byte[]> promotionTables) {
+        this.name = name.toUpperCase();
+        this.count = this.name.length() - 2;
+        this.types = new char[count];
+        for (int i = 0; i < count; i++) {
+            types[i] = Character.toLowerCase(this.name.charAt(i + 1));
+        }
+        this.promotionTables = promotionTables;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    private static int plies(int value) {
+        int moves = value >> 2;
+        return (value & 3) == Tablebase.WIN ? 2 * moves - 1 : 2 * moves;
+    }
+
+    /**
+     * Gera a tabela completa.
+     * @return Um byte por índice, no formato lido por Tablebase.
+     */
+    public byte[] generate() {
+        table = new byte[Tablebase.tableSize(count)];
+        parallel((index, position) -> table[index] = (byte) initialValue(index, position));
+
+        int maxPromotionPlies = 0;
+        for (byte[] other : promotionTables.values()) {
+            for (byte b : other) {
+                int value = b & 0xFF;
+                if ((value & 3) == Tablebase.LOSS) maxPromotionPlies = Math.max(maxPromotionPlies, plies(value));
+            }
+        }
+
+        int idlePasses = 0;
+        for (int ply = 1; ply <= 126 && (idlePasses < 2 || ply <= maxPromotionPlies + 1); ply++) {
+            AtomicBoolean changed = new AtomicBoolean();
+            final int p = ply;
+            if (ply % 2 == 1) {
+                parallel((index, position) -> {
+                    if (strongWinPass(index, position, p)) changed.set(true);
+                });
+            } else {
+                parallel((index, position) -> {
+                    if (weakLossPass(index, position, p)) changed.set(true);
+                });
+            }
+            idlePasses = changed.get() ? 0 : idlePasses + 1;
+        }
+
+        for (int i = 0; i < table.length; i++) {
+            if ((table[i] & 0xFF) == UNKNOWN) table[i] = (byte) Tablebase.encode(Tablebase.DRAW, 0);
+        }
+        return table;
+    }
+
+    private interface IndexVisitor {
+        void visit(int index, Position position);
+    }
+
+    private void parallel(IndexVisitor visitor) {
+        int chunkSize = table.length / CHUNKS;
+        IntStream.range(0, CHUNKS).parallel().forEach(chunk -> {
+            Position position = new Position(count);
+            for (int index = chunk * chunkSize; index < (chunk + 1) * chunkSize; index++) {
+                position.decode(index);
+                visitor.visit(index, position);
+            }
+        });
+    }
+
+    /**
+     * Posição decodificada a partir do índice (uma instância por thread).
+     */
+    private final class Position {
+        int side;
+        int strongKing;
+        int weakKing;
+        final int[] squares;
+        long occupied;
+
+        Position(int count) {
+            squares = new int[count];
+        }
+
+        void decode(int index) {
+            side = index & 1;
+            index >>>= 1;
+            strongKing = index & 63;
+            weakKing = (index >>> 6) & 63;
+            occupied = (1L << strongKing) | (1L << weakKing);
+            for (int i = 0; i < count; i++) {
+                squares[i] = (index >>> (12 + 6 * i)) & 63;
+                occupied |= 1L << squares[i];
+            }
+        }
+
+        int index(int side) {
+            return Tablebase.index(side, strongKing, weakKing, squares, count);
+        }
+
+        boolean isLegal() {
+            if (Long.bitCount(occupied) != count + 2) return false;
+            if ((KING_ATTACKS[strongKing] & (1L << weakKing)) != 0) return false;
+            for (int i = 0; i < count; i++) {
+                if (types[i] == 'p' && (squares[i] < 8 || squares[i] >= 56)) return false;
+            }
+            // Com o lado forte a jogar, o rei sozinho não pode estar em xeque
+            return side == 1 || !attackedByStrong(weakKing, occupied, -1);
+        }
+
+        /**
+         * Verifica se a casa é atacada pelas peças do lado forte (sem contar o rei).
+         * @param ignored Índice de uma peça capturada que não deve ser considerada, ou -1.
+         */
+        boolean attackedByStrong(int target, long occupancy, int ignored) {
+            for (int i = 0; i < count; i++) {
+                if (i == ignored) continue;
+                if (attacks(types[i], squares[i], occupancy, target)) return true;
+            }
+            return false;
+        }
+    }
+
+    private static boolean attacks(char type, int from, long occupancy, int target) {
+        switch (type) {
+            case 'p': {
+                int row = from >> 3, col = from & 7;
+                return (target == (row - 1) * 8 + col - 1 && col > 0) || (target == (row - 1) * 8 + col + 1 && col < 7);
+            }
+            case 'n':
+                return (KNIGHT_ATTACKS[from] & (1L << target)) != 0;
+            case 'b':
+                return slides(from, target, occupancy, BISHOP_DIRECTIONS);
+            case 'r':
+                return slides(from, target, occupancy, ROOK_DIRECTIONS);
+            case 'q':
+                return slides(from, target, occupancy, BISHOP_DIRECTIONS) || slides(from, target, occupancy, ROOK_DIRECTIONS);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean slides(int from, int target, long occupancy, int[][] directions) {
+        for (int[] d : directions) {
+            int row = (from >> 3) + d[0], col = (from & 7) + d[1];
+            while (onBoard(row, col)) {
+                int sq = row * 8 + col;
+                if (sq == target) return true;
+                if ((occupancy & (1L << sq)) != 0) break;
+                row += d[0];
+                col += d[1];
+            }
+        }
+        return false;
+    }
+
+    // --- Valor inicial: ilegal, mate, afogamento ou desconhecido ---
+
+    private int initialValue(int index, Position position) {
+        if (!position.isLegal()) return Tablebase.encode(Tablebase.ILLEGAL, 0);
+        if (position.side == 1) {
+            int moves = countWeakMoves(position);
+            if (moves == 0) {
+                boolean inCheck = position.attackedByStrong(position.weakKing, position.occupied, -1);
+                return inCheck ? Tablebase.encode(Tablebase.LOSS, 0) : Tablebase.encode(Tablebase.DRAW, 0);
+            }
+        } else if (!strongHasMove(position)) {
+            return Tablebase.encode(Tablebase.DRAW, 0); // lado forte afogado
+        }
+        return UNKNOWN;
+    }
+
+    private int countWeakMoves(Position position) {
+        int moves = 0;
+        long targets = KING_ATTACKS[position.weakKing] & ~KING_ATTACKS[position.strongKing] & ~(1L << position.strongKing);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (weakMoveIsLegal(position, to)) moves++;
+        }
+        return moves;
+    }
+
+    // O rei sozinho pode ir para "to" se a casa não for atacada (a peça capturada não conta)
+    private boolean weakMoveIsLegal(Position position, int to) {
+        int captured = capturedPiece(position, to);
+        long occupancy = position.occupied & ~(1L << position.weakKing);
+        return !position.attackedByStrong(to, occupancy, captured);
+    }
+
+    private int capturedPiece(Position position, int square) {
+        for (int i = 0; i < count; i++) {
+            if (position.squares[i] == square) return i;
+        }
+        return -1;
+    }
+
+    private boolean strongHasMove(Position position) {
+        long kingTargets = KING_ATTACKS[position.strongKing] & ~position.occupied & ~KING_ATTACKS[position.weakKing];
+        if (kingTargets != 0) return true;
+        for (int i = 0; i < count; i++) {
+            int from = position.squares[i];
+            if (types[i] == 'p') {
+                if ((position.occupied & (1L << (from - 8))) == 0) return true;
+            } else {
+                for (int to = 0; to < 64; to++) {
+                    if ((position.occupied & (1L << to)) == 0 && attacks(types[i], from, position.occupied, to)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // --- Passo ímpar: vitórias do lado forte em "ply" meias-jogadas ---
+
+    private boolean strongWinPass(int index, Position position, int ply) {
+        boolean changed = false;
+        int value = table[index] & 0xFF;
+        int win = Tablebase.encode(Tablebase.WIN, (ply + 1) / 2);
+
+        if (position.side == 1 && value != UNKNOWN && (value & 3) == Tablebase.LOSS && plies(value) == ply - 1) {
+            // Desfaz lances do lado forte a partir de uma posição perdida para o rei sozinho
+            for (int piece = -1; piece < count; piece++) {
+                int from = piece < 0 ? position.strongKing : position.squares[piece];
+                long origins = unmoveOrigins(position, piece);
+                while (origins != 0) {
+                    int origin = Long.numberOfTrailingZeros(origins);
+                    origins &= origins - 1;
+                    setSquare(position, piece, origin);
+                    int predecessor = position.index(0);
+                    if ((table[predecessor] & 0xFF) == UNKNOWN) {
+                        table[predecessor] = (byte) win;
+                        changed = true;
+                    }
+                    setSquare(position, piece, from);
+                }
+            }
+        } else if (position.side == 0 && value == UNKNOWN && count == 1 && types[0] == 'p'
+                && position.squares[0] < 16 && promotesInto(position, ply - 1)) {
+            table[index] = (byte) win;
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void setSquare(Position position, int piece, int square) {
+        if (piece < 0) position.strongKing = square; else position.squares[piece] = square;
+    }
+
+    // Casas de onde a peça (ou o rei forte, se piece < 0) pode ter vindo
+    private long unmoveOrigins(Position position, int piece) {
+        long empty = ~position.occupied;
+        if (piece < 0) {
+            return KING_ATTACKS[position.strongKing] & empty & ~KING_ATTACKS[position.weakKing];
+        }
+        int square = position.squares[piece];
+        switch (types[piece]) {
+            case 'p': {
+                long origins = 0;
+                int back = square + 8;
+                if (back < 56 && (empty & (1L << back)) != 0) {
+                    origins |= 1L << back;
+                    if ((square >> 3) == 4 && (empty & (1L << (square + 16))) != 0) origins |= 1L << (square + 16);
+                }
+                return origins;
+            }
+            case 'n':
+                return KNIGHT_ATTACKS[square] & empty;
+            default: {
+                long origins = 0;
+                for (int sq = 0; sq < 64; sq++) {
+                    if ((empty & (1L << sq)) != 0 && attacks(types[piece], square, position.occupied, sq)) origins |= 1L << sq;
+                }
+                return origins;
+            }
+        }
+    }
+
+    // Promoção do peão para uma posição da tabela de dama/torre perdida em exatamente "childPlies"
+    private boolean promotesInto(Position position, int childPlies) {
+        int pawn = position.squares[0];
+        int to = pawn - 8;
+        if (to < 0 || (position.occupied & (1L << to)) != 0) return false;
+        if ((KING_ATTACKS[position.strongKing] & (1L << position.weakKing)) != 0) return false;
+        for (Map.Entry<Character, byte[]> entry : promotionTables.entrySet()) {
+            int[] squares = {to};
+            int value = entry.getValue()[Tablebase.index(1, position.strongKing, position.weakKing, squares, 1)] & 0xFF;
+            if ((value & 3) == Tablebase.LOSS && plies(value) == childPlies) return true;
+        }
+        return false;
+    }
+
+    // --- Passo par: derrotas do rei sozinho em "ply" meias-jogadas ---
+
+    private boolean weakLossPass(int index, Position position, int ply) {
+        int value = table[index] & 0xFF;
+        if (position.side != 0 || value == UNKNOWN || (value & 3) != Tablebase.WIN || plies(value) != ply - 1) {
+            return false;
+        }
+        boolean changed = false;
+        int from = position.weakKing;
+        long origins = KING_ATTACKS[from] & ~position.occupied & ~KING_ATTACKS[position.strongKing];
+        while (origins != 0) {
+            int origin = Long.numberOfTrailingZeros(origins);
+            origins &= origins - 1;
+            position.weakKing = origin;
+            position.occupied ^= (1L << from) | (1L << origin);
+            int predecessor = position.index(1);
+            if ((table[predecessor] & 0xFF) == UNKNOWN && allWeakMovesLose(position)) {
+                table[predecessor] = (byte) Tablebase.encode(Tablebase.LOSS, ply / 2);
+                changed = true;
+            }
+            position.occupied ^= (1L << from) | (1L << origin);
+            position.weakKing = from;
+        }
+        return changed;
+    }
+
+    // Todos os lances do rei sozinho levam a posições já vencidas pelo lado forte?
+    private boolean allWeakMovesLose(Position position) {
+        int from = position.weakKing;
+        long targets = KING_ATTACKS[from] & ~KING_ATTACKS[position.strongKing] & ~(1L << position.strongKing);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!weakMoveIsLegal(position, to)) continue;
+            if (capturedPiece(position, to) >= 0) return false; // captura leva a empate
+            position.weakKing = to;
+            int child = table[position.index(0)] & 0xFF;
+            position.weakKing = from;
+            if (child == UNKNOWN || (child & 3) != Tablebase.WIN) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Grava a tabela no formato lido por Tablebase (cabeçalho + um byte por posição). A tabela é
+     * escrita num arquivo temporário e só então renomeada, para nunca deixar um .tb incompleto.
+     */
+    public static void write(Path file, byte[] table, int pieces) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(pieces);
+            out.write(table);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Uso: java -cp out model.tablebase.TablebaseGenerator [diretório] [KQK KRK KPK KBNK]
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "tablebases");
+        String[] names = args.length > 1 ? java.util.Arrays.copyOfRange(args, 1, args.length)
+                : new String[] {"KQK", "KRK", "KPK", "KBNK"};
+        Files.createDirectories(directory);
+
+        Map<String, byte[]> generated = new HashMap<>();
+        for (String name : names) {
+            name = name.toUpperCase();
+            Map<Character, byte[]> promotions = new HashMap<>();
+            if (name.contains("P")) {
+                // KPK depende de KQK e KRK para avaliar as promoções
+                for (String other : new String[] {"KQK", "KRK"}) {
+                    byte[] table = generated.get(other);
+                    if (table == null) {
+                        table = new TablebaseGenerator(other, new HashMap<>()).generate();
+                        generated.put(other, table);
+                    }
+                    promotions.put(Character.toLowerCase(other.charAt(1)), table);
+                }
+            }
+            long start = System.nanoTime();
+            byte[] table = new TablebaseGenerator(name, promotions).generate();
+            generated.put(name, table);
+            write(directory.resolve(name + ".tb"), table, name.length() - 2);
+            System.out.printf("%s gerada em %.1f s (%d posições)%n", name, (System.nanoTime() - start) / 1e9, table.length);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package view;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.Timer;
+
+/**
+ * Relógio único das animações da interface: um só Timer do Swing, na frequência da tela, avança
+ * todas as animações ativas a cada quadro. Quando não há nenhuma, o Timer para, sem custo algum.
+ *
+ * Deve ser usado só na thread do Swing.
+ */
+public final class Animator {
+    /**
+     * Uma animação em andamento, avançada uma vez por quadro.
+     */
+    public interface Animation {
+        /**
+         * @param now Instante do quadro (System.nanoTime).
+         * @return false quando a animação terminou.
+         */
+        boolean step(long now);
+    }
+
+    private static final int DEFAULT_REFRESH_RATE = 60;
+    private static Animator shared;
+
+    private final List<Animation> animations = new ArrayList<>();
+    private final Timer timer;
+
+    private Animator(int refreshRate) {
+        timer = new Timer(Math.max(1, 1000 / refreshRate), e -> tick());
+        timer.setCoalesce(true); // quadros atrasados não se acumulam
+    }
+
+    /**
+     * Animador compartilhado por todos os componentes.
+     */
+    public static Animator shared() {
+        if (shared == null) shared = new Animator(refreshRate());
+        return shared;
+    }
+
+    // Frequência do monitor principal, ou 60 Hz quando ela não é conhecida
+    private static int refreshRate() {
+        if (GraphicsEnvironment.isHeadless()) return DEFAULT_REFRESH_RATE;
+        try {
+            DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+            int rate = mode.getRefreshRate();
+            return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_REFRESH_RATE : Math.min(rate, 240);
+        } catch (HeadlessException e) {
+            return DEFAULT_REFRESH_RATE;
+        }
+    }
+
+    /**
+     * Começa a animar (se ainda não estiver animando) a partir do próximo quadro.
+     */
+    public void start(Animation animation) {
+        if (!animations.contains(animation)) animations.add(animation);
+        if (!timer.isRunning()) timer.start();
+    }
+
+    public void cancel(Animation animation) {
+        animations.remove(animation);
+        if (animations.isEmpty()) timer.stop();
+    }
+
+    public boolean isRunning(Animation animation) {
+        return animations.contains(animation);
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        // Percorre uma cópia: uma animação pode iniciar ou cancelar outras no step
+        for (Animation animation : animations.toArray(new Animation[0])) {
+            if (animations.contains(animation) && !animation.step(now)) {
+                animations.remove(animation);
+            }
+        }
+        if (animations.isEmpty()) timer.stop();
+    }
+}
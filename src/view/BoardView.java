@@ -0,0 +1,523 @@
+package view;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import javax.swing.JComponent;
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Tabuleiro desenhado por um único componente, em camadas: casas, destaques, peças e, por cima,
+ * as marcas de lance possível e o brilho do lance recém-jogado.
+ *
+ * As casas e as marcas ficam em imagens guardadas para o tamanho atual e as peças vêm do atlas de
+ * PieceSprites; enquanto ele não fica pronto, as peças aparecem como símbolos de fonte. Cada mudança
+ * redesenha só o retângulo das casas afetadas (bit linha * 8 + coluna, com a linha 0 na oitava
+ * fileira). O componente converte os cliques em casas e avisa o SquareListener.
+ *
+ * O brilho da peça selecionada, o deslizar da peça no lance e o brilho da casa de destino são
+ * animados pelo Animator compartilhado: cada quadro só atualiza a fase e pede o redesenho das
+ * casas envolvidas.
+ */
+public class BoardView extends JComponent {
+    /**
+     * Recebe os cliques no tabuleiro, já convertidos em casas.
+     */
+    public interface SquareListener {
+        void squareClicked(int row, int col);
+    }
+
+    private static final int DEFAULT_SQUARE_SIZE = 75;
+    private static final double PIECE_SCALE = 65 / 75.0;
+    private static final Color FLASH = new Color(106, 168, 79, 100);
+    private static final long PULSE_PERIOD_NANOS = 1_000_000_000L;
+    private static final long FLASH_NANOS = 300_000_000L;
+    private static final long SLIDE_NANOS = 150_000_000L;
+    private static final String GLYPHS = "kqrbnp";
+
+    private Board board;
+    private PieceSprites sprites;
+    private SquareListener squareListener;
+    private Color lightSquare = new Color(240, 217, 181);
+    private Color darkSquare = new Color(181, 136, 99);
+    // Tons clareados das casas, calculados uma vez por tema: [0] casas claras, [1] escuras
+    private final Color[] hoverColors = new Color[2];
+    private final Color[] pulseColors = new Color[2];
+    private final Color selectedColor;
+    private final Color moveColor;
+    private final Color captureColor;
+
+    // Destaques
+    private int selectedSquare = -1;
+    private long moveTargets;
+    private long captureTargets;
+    private int hoverSquare = -1;
+
+    // Animações: a fase de cada uma (0 a 1) é atualizada pelo Animator e lida no paintComponent
+    private long pulseStart;
+    private float pulsePhase;
+    private int flashSquare = -1;
+    private long flashStart;
+    private float flashAlpha;
+    private int slideFrom = -1;
+    private int slideTo = -1;
+    private long slideStart;
+    private double slideProgress;
+    private final Rectangle slideBounds = new Rectangle(); // área ocupada pela peça no último quadro
+    private final Animator.Animation pulseAnimation = this::stepPulse;
+    private final Animator.Animation flashAnimation = this::stepFlash;
+    private final Animator.Animation slideAnimation = this::stepSlide;
+
+    // Camadas guardadas para o tamanho atual das casas e a escala do monitor
+    private int cachedSize;
+    private double cachedScale;
+    private BufferedImage squaresLayer;
+    private BufferedImage moveMarker;
+    private BufferedImage captureMarker;
+
+    /**
+     * @param selectedColor Borda da peça selecionada.
+     * @param moveColor Borda e marca das casas para onde a peça pode ir.
+     * @param captureColor Borda e marca das capturas possíveis.
+     */
+    public BoardView(Color selectedColor, Color moveColor, Color captureColor) {
+        this.selectedColor = selectedColor;
+        this.moveColor = moveColor;
+        this.captureColor = captureColor;
+        setOpaque(true);
+        updateSquareTones();
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int square = squareAt(e.getX(), e.getY());
+                if (square >= 0 && squareListener != null) squareListener.squareClicked(square >> 3, square & 7);
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setHoverSquare(squareAt(e.getX(), e.getY()));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                setHoverSquare(-1);
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    public void setBoard(Board board) {
+        this.board = board;
+        repaint();
+    }
+
+    /**
+     * Troca o tabuleiro mostrado redesenhando só as casas cuja peça muda (ao percorrer as
+     * posições de uma partida). O tabuleiro anterior precisa continuar intacto até a troca.
+     */
+    public void showBoard(Board board) {
+        long changed = 0;
+        for (int square = 0; square < 64; square++) {
+            if (!samePiece(this.board.getPieceAt(square >> 3, square & 7), board.getPieceAt(square >> 3, square & 7))) {
+                changed |= 1L << square;
+            }
+        }
+        this.board = board;
+        repaintSquares(changed);
+    }
+
+    private static boolean samePiece(Piece a, Piece b) {
+        if (a == null || b == null) return a == b;
+        return a.isWhite() == b.isWhite() && a.getSymbol().equals(b.getSymbol());
+    }
+
+    /**
+     * Imagens das peças; até a primeira chamada o tabuleiro desenha os símbolos das peças.
+     */
+    public void setSprites(PieceSprites sprites) {
+        this.sprites = sprites;
+        repaint();
+    }
+
+    public void setSquareListener(SquareListener squareListener) {
+        this.squareListener = squareListener;
+    }
+
+    public void setSquareColors(Color lightSquare, Color darkSquare) {
+        if (lightSquare.equals(this.lightSquare) && darkSquare.equals(this.darkSquare)) return;
+        this.lightSquare = lightSquare;
+        this.darkSquare = darkSquare;
+        updateSquareTones();
+        squaresLayer = null;
+        repaint();
+    }
+
+    /**
+     * Destaca a peça selecionada e as casas para onde ela pode ir.
+     * @param moves Casas vazias alcançáveis.
+     * @param captures Casas com peças adversárias alcançáveis.
+     */
+    public void setSelection(int row, int col, long moves, long captures) {
+        clearSelection();
+        selectedSquare = row * 8 + col;
+        moveTargets = moves;
+        captureTargets = captures;
+        pulseStart = System.nanoTime();
+        pulsePhase = 0;
+        Animator.shared().start(pulseAnimation);
+        repaintSquares(moves | captures | 1L << selectedSquare);
+    }
+
+    public void clearSelection() {
+        if (selectedSquare < 0 && moveTargets == 0 && captureTargets == 0) return;
+        long previous = moveTargets | captureTargets | (selectedSquare >= 0 ? 1L << selectedSquare : 0);
+        Animator.shared().cancel(pulseAnimation);
+        selectedSquare = -1;
+        moveTargets = 0;
+        captureTargets = 0;
+        repaintSquares(previous);
+    }
+
+    /**
+     * Brilho rápido na casa de destino de um lance.
+     */
+    public void flash(int row, int col) {
+        repaintSquare(flashSquare);
+        flashSquare = row * 8 + col;
+        flashStart = System.nanoTime();
+        flashAlpha = 1;
+        repaintSquare(flashSquare);
+        Animator.shared().start(flashAnimation);
+    }
+
+    /**
+     * Faz a peça que está na casa de destino deslizar desde a casa de origem. Um lance novo
+     * durante o deslizamento termina o anterior na hora.
+     */
+    public void animateMove(int fromRow, int fromCol, int toRow, int toCol) {
+        if (slideTo >= 0) repaintSquare(slideTo);
+        repaint(slideBounds);
+        slideFrom = fromRow * 8 + fromCol;
+        slideTo = toRow * 8 + toCol;
+        slideStart = System.nanoTime();
+        slideProgress = 0;
+        slideBounds.setBounds(0, 0, 0, 0);
+        repaintSquare(slideFrom);
+        Animator.shared().start(slideAnimation);
+    }
+
+    // Brilho da peça selecionada: sobe e desce suavemente, um ciclo por segundo
+    private boolean stepPulse(long now) {
+        if (selectedSquare < 0) return false;
+        double cycle = (now - pulseStart) % PULSE_PERIOD_NANOS / (double) PULSE_PERIOD_NANOS;
+        pulsePhase = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * cycle));
+        repaintSquare(selectedSquare);
+        return true;
+    }
+
+    private boolean stepFlash(long now) {
+        if (flashSquare < 0) return false;
+        flashAlpha = 1 - Math.min(1f, (now - flashStart) / (float) FLASH_NANOS);
+        repaintSquare(flashSquare);
+        if (flashAlpha > 0) return true;
+        flashSquare = -1;
+        return false;
+    }
+
+    private boolean stepSlide(long now) {
+        if (slideTo < 0) return false;
+        double t = Math.min(1, (now - slideStart) / (double) SLIDE_NANOS);
+        slideProgress = 1 - Math.pow(1 - t, 3); // desacelera perto do destino
+        repaint(slideBounds);
+        if (t < 1) {
+            int size = squareSize();
+            Insets insets = getInsets();
+            slideBounds.setBounds(insets.left + slideX(size), insets.top + slideY(size), size, size);
+            repaint(slideBounds);
+            return true;
+        }
+        slideFrom = -1;
+        repaintSquare(slideTo);
+        slideTo = -1;
+        return false;
+    }
+
+    private int slideX(int size) {
+        return (int) Math.round(((slideFrom & 7) + ((slideTo & 7) - (slideFrom & 7)) * slideProgress) * size);
+    }
+
+    private int slideY(int size) {
+        return (int) Math.round(((slideFrom >> 3) + ((slideTo >> 3) - (slideFrom >> 3)) * slideProgress) * size);
+    }
+
+    private void setHoverSquare(int square) {
+        if (square == hoverSquare) return;
+        int previous = hoverSquare;
+        hoverSquare = square;
+        repaintSquare(previous);
+        repaintSquare(square);
+    }
+
+    /**
+     * Casa (linha * 8 + coluna) no ponto indicado do componente, ou -1 fora do tabuleiro.
+     */
+    public int squareAt(int x, int y) {
+        int size = squareSize();
+        Insets insets = getInsets();
+        if (size <= 0 || x < insets.left || y < insets.top) return -1;
+        int col = (x - insets.left) / size;
+        int row = (y - insets.top) / size;
+        return row < 8 && col < 8 ? row * 8 + col : -1;
+    }
+
+    public void repaintSquare(int row, int col) {
+        repaintSquare(row * 8 + col);
+    }
+
+    private void repaintSquare(int square) {
+        if (square < 0) return;
+        int size = squareSize();
+        Insets insets = getInsets();
+        repaint(insets.left + (square & 7) * size, insets.top + (square >> 3) * size, size, size);
+    }
+
+    public void repaintSquares(long squares) {
+        for (long bits = squares; bits != 0; bits &= bits - 1) {
+            repaintSquare(Long.numberOfTrailingZeros(bits));
+        }
+    }
+
+    private int squareSize() {
+        Insets insets = getInsets();
+        int width = getWidth() - insets.left - insets.right;
+        int height = getHeight() - insets.top - insets.bottom;
+        return Math.min(width, height) / 8;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) return super.getPreferredSize();
+        Insets insets = getInsets();
+        return new Dimension(8 * DEFAULT_SQUARE_SIZE + insets.left + insets.right,
+                8 * DEFAULT_SQUARE_SIZE + insets.top + insets.bottom);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int size = squareSize();
+        if (size <= 0) return;
+        Graphics2D g2 = (Graphics2D) g.create();
+        double scale = PieceSprites.deviceScale(g2);
+        if (size != cachedSize || scale != cachedScale) {
+            cachedSize = size;
+            cachedScale = scale;
+            squaresLayer = null;
+            moveMarker = null;
+            captureMarker = null;
+        }
+        Insets insets = getInsets();
+        g2.setColor(getBackground()); // sobra do componente fora das casas
+        g2.fillRect(0, 0, getWidth(), getHeight());
+        g2.translate(insets.left, insets.top);
+
+        // Casas: uma imagem para o tabuleiro inteiro, recortada pela área a redesenhar
+        g2.drawImage(squaresLayer(size), 0, 0, null);
+
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, 8 * size, 8 * size);
+        int firstRow = Math.max(0, clip.y / size);
+        int lastRow = Math.min(7, (clip.y + clip.height - 1) / size);
+        int firstCol = Math.max(0, clip.x / size);
+        int lastCol = Math.min(7, (clip.x + clip.width - 1) / size);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                paintSquare(g2, row, col, size);
+            }
+        }
+
+        // Peça deslizando, por cima das casas por onde passa
+        Piece sliding = slideTo >= 0 && board != null ? board.getPieceAt(slideTo >> 3, slideTo & 7) : null;
+        if (sliding != null) {
+            paintPiece(g2, sliding, slideX(size), slideY(size), size);
+        }
+        g2.dispose();
+    }
+
+    private void paintSquare(Graphics2D g, int row, int col, int size) {
+        int square = row * 8 + col;
+        long bit = 1L << square;
+        int x = col * size;
+        int y = row * size;
+        int tone = (row + col) % 2;
+
+        // Destaques sob a peça
+        if (square == selectedSquare) {
+            if (pulsePhase > 0) {
+                fillTranslucent(g, pulseColors[tone], pulsePhase, x, y, size);
+            }
+            drawBorder(g, x, y, size, selectedColor, 3);
+        } else if (square == hoverSquare && selectedSquare < 0) {
+            g.setColor(hoverColors[tone]);
+            g.fillRect(x, y, size, size);
+        }
+        if ((moveTargets & bit) != 0) drawBorder(g, x, y, size, moveColor, 4);
+        if ((captureTargets & bit) != 0) drawBorder(g, x, y, size, captureColor, 4);
+
+        // Peça
+        Piece piece = board != null && square != slideTo ? board.getPieceAt(row, col) : null;
+        if (piece != null) {
+            paintPiece(g, piece, x, y, size);
+        }
+
+        // Marcas por cima da peça
+        if ((moveTargets & bit) != 0) g.drawImage(moveMarker(size), x, y, size, size, null);
+        if ((captureTargets & bit) != 0) g.drawImage(captureMarker(size), x, y, size, size, null);
+        if (square == flashSquare && flashAlpha > 0) {
+            fillTranslucent(g, FLASH, flashAlpha, x, y, size);
+        }
+    }
+
+    private void paintPiece(Graphics2D g, Piece piece, int x, int y, int size) {
+        int pieceSize = (int) Math.round(size * PIECE_SCALE);
+        int offset = (size - pieceSize) / 2;
+        String key = (piece.isWhite() ? "w" : "b") + piece.getSymbol();
+        if (sprites == null || !sprites.draw(g, key, x + offset, y + offset, pieceSize)) {
+            drawGlyph(g, piece, x, y, size);
+        }
+    }
+
+    // Preenche a casa com a cor, atenuada pela opacidade da animação (sem criar uma cor por quadro)
+    private static void fillTranslucent(Graphics2D g, Color color, float alpha, int x, int y, int size) {
+        Composite previous = g.getComposite();
+        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        g.setColor(color);
+        g.fillRect(x, y, size, size);
+        g.setComposite(previous);
+    }
+
+    private void updateSquareTones() {
+        hoverColors[0] = lighter(lightSquare, 20);
+        hoverColors[1] = lighter(darkSquare, 20);
+        pulseColors[0] = lighter(lightSquare, 30);
+        pulseColors[1] = lighter(darkSquare, 30);
+    }
+
+    // Símbolo Unicode da peça, usado enquanto as imagens carregam: o contorno (♔) sobre o
+    // símbolo cheio (♚) pintado da cor da peça
+    private void drawGlyph(Graphics2D g, Piece piece, int x, int y, int size) {
+        int index = GLYPHS.indexOf(piece.getSymbol());
+        if (index < 0) return;
+        String filled = String.valueOf((char) ('\u265A' + index));
+        String outline = String.valueOf((char) ('\u2654' + index));
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(new Font(Font.SERIF, Font.PLAIN, size * 3 / 4));
+        FontMetrics metrics = g.getFontMetrics();
+        int textX = x + (size - metrics.stringWidth(filled)) / 2;
+        int textY = y + (size - metrics.getHeight()) / 2 + metrics.getAscent();
+        g.setColor(piece.isWhite() ? Color.WHITE : Color.BLACK);
+        g.drawString(filled, textX, textY);
+        g.setColor(Color.BLACK);
+        g.drawString(outline, textX, textY);
+    }
+
+    private static void drawBorder(Graphics2D g, int x, int y, int size, Color color, int width) {
+        g.setColor(color);
+        g.fillRect(x, y, size, width);
+        g.fillRect(x, y + size - width, size, width);
+        g.fillRect(x, y + width, width, size - 2 * width);
+        g.fillRect(x + size - width, y + width, width, size - 2 * width);
+    }
+
+    private static Color lighter(Color color, int amount) {
+        return new Color(Math.min(255, color.getRed() + amount), Math.min(255, color.getGreen() + amount),
+                Math.min(255, color.getBlue() + amount));
+    }
+
+    private BufferedImage createImage(int width, int height, boolean translucent) {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if (configuration != null) {
+            return configuration.createCompatibleImage(width, height,
+                    translucent ? Transparency.TRANSLUCENT : Transparency.OPAQUE);
+        }
+        return new BufferedImage(width, height, translucent ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    }
+
+    private BufferedImage squaresLayer(int size) {
+        if (squaresLayer == null) {
+            squaresLayer = createImage(8 * size, 8 * size, false);
+            Graphics2D g = squaresLayer.createGraphics();
+            for (int row = 0; row < 8; row++) {
+                for (int col = 0; col < 8; col++) {
+                    g.setColor((row + col) % 2 == 0 ? lightSquare : darkSquare);
+                    g.fillRect(col * size, row * size, size, size);
+                }
+            }
+            g.dispose();
+        }
+        return squaresLayer;
+    }
+
+    // Círculo no centro das casas vazias para onde a peça pode ir
+    private BufferedImage moveMarker(int size) {
+        if (moveMarker == null) {
+            moveMarker = createMarker(size);
+            Graphics2D g = antialiased(moveMarker, size);
+            int circle = Math.max(6, size * 24 / DEFAULT_SQUARE_SIZE);
+            int offset = (size - circle) / 2;
+            g.setColor(new Color(moveColor.getRed(), moveColor.getGreen(), moveColor.getBlue(), 200));
+            g.fillOval(offset, offset, circle, circle);
+            g.setColor(moveColor);
+            g.setStroke(new BasicStroke(2));
+            g.drawOval(offset, offset, circle, circle);
+            g.dispose();
+        }
+        return moveMarker;
+    }
+
+    // X dentro de um círculo sobre as peças que podem ser capturadas
+    private BufferedImage captureMarker(int size) {
+        if (captureMarker == null) {
+            captureMarker = createMarker(size);
+            Graphics2D g = antialiased(captureMarker, size);
+            int margin = size / 4;
+            g.setColor(captureColor);
+            g.setStroke(new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.drawLine(margin, margin, size - margin, size - margin);
+            g.drawLine(size - margin, margin, margin, size - margin);
+            g.setStroke(new BasicStroke(3));
+            g.drawOval(margin / 2, margin / 2, size - margin, size - margin);
+            g.dispose();
+        }
+        return captureMarker;
+    }
+
+    // Imagem de uma casa em pixels da tela (tamanho * escala), desenhada em coordenadas da casa
+    private BufferedImage createMarker(int size) {
+        int pixels = (int) Math.ceil(size * cachedScale);
+        return createImage(pixels, pixels, true);
+    }
+
+    private static Graphics2D antialiased(BufferedImage image, int size) {
+        Graphics2D g = image.createGraphics();
+        g.scale(image.getWidth() / (double) size, image.getHeight() / (double) size);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g;
+    }
+}
@@ -1,29 +1,67 @@
 package view;
 
+import controller.BoardChange;
+import controller.ChessClock;
 import controller.Game;
+import controller.GameListener;
+import controller.GameStatus;
+import controller.Search;
+import controller.SearchInfo;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import model.archive.GameArchive;
+import model.archive.GameRecord;
+import model.board.Board;
+import model.board.Move;
 import model.board.Position;
+import model.pgn.PgnGame;
+import model.pgn.PgnReader;
 import model.pieces.Piece;
 
 public class ChessGUI extends JFrame {
     private Game game;
-    private JPanel boardPanel;
-    private JButton[][] squares;
-    private Map<String, ImageIcon> pieceIcons;
+    private BoardView boardView;
+
+    // Casas a redesenhar (bit linha * 8 + coluna), acumuladas até a próxima passada da thread do Swing
+    private long dirtySquares;
+    private boolean boardRefreshScheduled;
 
     // Novos componentes
-    private JTextArea moveHistory;
+    private JList<String> moveList;
+    private MoveListModel moveListModel;
+    private Board viewedBoard; // posição anterior escolhida na lista de lances (null = posição atual)
+    private int viewedPly;
+    // Dois tabuleiros alternados para percorrer a partida: o que está na tela é comparado com o
+    // que acabou de ser carregado, e só as casas diferentes são redesenhadas
+    private final Board[] scrubBoards = {new Board(), new Board()};
+    private JSlider plySlider;
+    private boolean syncingNavigation; // a lista e o controle deslizante sendo acertados pelo código
     private JLabel turnLabel;
     private JLabel statusLabel;
     private JLabel timerLabel;
+    private JButton aiButton;
+
+    // Análise contínua da posição, no painel lateral
+    private boolean analysisEnabled;
+    private CompletableFuture<SearchInfo> analysis;
+    private int analysisRun; // descarta resultados de análises já interrompidas
+    private JButton analysisButton;
+    private JPanel analysisPanel;
+    private EvaluationBar evaluationBar;
+    private JLabel analysisLabel;
+    private JTextArea principalVariation;
     
-    // Sistema de cronômetro
+    // Sistema de cronômetro (e relógio por lado, com controle de tempo)
+    private final String timeControl; // null = sem relógio
     private Timer gameTimer;
     private long gameStartTime;
     private long elapsedTime = 0;
@@ -66,15 +104,99 @@ public class ChessGUI extends JFrame {
     
     private final Font CHESS_FONT = new Font("Segoe UI", Font.BOLD, 16);
     private final Font HISTORY_FONT = new Font("Consolas", Font.PLAIN, 14);
+    private static final int MAX_IMPORT_CHOICES = 1000; // partidas oferecidas na escolha ao importar
 
     public ChessGUI() {
+        this(null);
+    }
+
+    /**
+     * @param timeControl Controle de tempo no formato de ChessClock.parse (ex: "5+3"), ou null
+     *                    para jogar sem relógio, só com o cronômetro da partida.
+     */
+    public ChessGUI(String timeControl) {
+        this.timeControl = timeControl;
         game = new Game();
+        configureGame();
         updateThemeColors(); // Inicializar cores do tema
         initializeGUI();
         loadPieceIcons();
         updateBoardDisplay();
     }
     
+    /**
+     * Liga o jogo à interface: os resultados da IA chegam na thread do Swing e o progresso
+     * da busca atualiza o status (e o painel de análise) no máximo 10 vezes por segundo.
+     */
+    private void configureGame() {
+        SwingThrottle<SearchInfo> progress = new SwingThrottle<>(100, info -> {
+            if (game.isAIThinking()) {
+                statusLabel.setText("IA pensando... profundidade " + info.getDepth());
+                if (analysisEnabled) showAnalysis(info, game.isAIWhite());
+            }
+        });
+        game.setCallbackExecutor(SwingUtilities::invokeLater);
+        if (timeControl != null) game.setClock(ChessClock.parse(timeControl));
+        // A IA continua pensando enquanto o jogador pensa, exceto durante a análise (mesma thread de busca)
+        game.setPondering(!analysisEnabled);
+        game.addGameListener(new GameListener() {
+            @Override
+            public void onBoardChanged(BoardChange change) {
+                dirtySquares |= change.getSquares();
+                scheduleBoardRefresh();
+            }
+
+            @Override
+            public void onMoveApplied(Move move, GameStatus status) {
+                // Iniciar cronômetro no primeiro movimento
+                if (!isGameRunning && game.getMoveCount() == 1) {
+                    startTimer();
+                }
+                appendHistory();
+                boardView.animateMove(move.getFrom().getRow(), move.getFrom().getColumn(),
+                        move.getTo().getRow(), move.getTo().getColumn());
+                // A análise da posição anterior para já; a nova começa depois que o lance terminar
+                // de ser aplicado, quando já se sabe se a IA vai pensar
+                if (analysisEnabled) {
+                    stopAnalysis();
+                    SwingUtilities.invokeLater(() -> restartAnalysis());
+                }
+                showStatus(status);
+            }
+
+            @Override
+            public void onPositionChanged(GameStatus status) {
+                viewedBoard = null;
+                moveListModel.setGame(game);
+                syncNavigation(game.getMoveCount());
+                clearHighlights();
+                updateBoardDisplay();
+                if (!status.isGameOver() && game.getMoveCount() > 0) startTimer();
+                if (analysisEnabled) {
+                    stopAnalysis();
+                    SwingUtilities.invokeLater(() -> restartAnalysis());
+                }
+            }
+
+            @Override
+            public void onSearchProgress(SearchInfo info) {
+                progress.submit(info);
+            }
+
+            @Override
+            public void onSearchFailed(Throwable error) {
+                statusLabel.setText("Erro na busca da IA");
+            }
+
+            @Override
+            public void onTimeout(boolean white) {
+                stopAnalysis();
+                updateTimerDisplay();
+                showStatus(GameStatus.TIME_FORFEIT);
+            }
+        });
+    }
+
     /**
      * Atualiza as variáveis de cor dinâmicas com base no tema atual (escuro ou claro).
      * Chamado na inicialização e ao alternar o tema.
@@ -112,7 +234,7 @@ public class ChessGUI extends JFrame {
         timerLabel = new JLabel("00:00", SwingConstants.CENTER);
         timerLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         timerLabel.setForeground(TEXT_COLOR);
-        timerLabel.setPreferredSize(new Dimension(140, 40));
+        timerLabel.setPreferredSize(new Dimension(timeControl != null ? 180 : 140, 40));
         timerLabel.setBorder(BorderFactory.createCompoundBorder(
             BorderFactory.createLineBorder(new Color(100, 100, 100), 1),
             BorderFactory.createEmptyBorder(8, 0, 8, 0)
@@ -161,66 +283,18 @@ public class ChessGUI extends JFrame {
         JPanel centerPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
         centerPanel.setBackground(BACKGROUND_COLOR);
         
-        // Painel do tabuleiro com borda
-        boardPanel = new JPanel(new GridLayout(8, 8, 0, 0));
-        boardPanel.setBorder(BorderFactory.createLineBorder(new Color(60, 60, 60), 3));
+        // Tabuleiro: um único componente, que desenha as casas, os destaques e as peças
+        boardView = new BoardView(HIGHLIGHT_SELECTED, HIGHLIGHT_MOVE, HIGHLIGHT_CAPTURE);
+        boardView.setBorder(BorderFactory.createLineBorder(new Color(60, 60, 60), 3));
+        boardView.setBackground(BACKGROUND_COLOR);
+        boardView.setSquareColors(LIGHT_SQUARE, DARK_SQUARE);
+        boardView.setBoard(game.getBoard());
+        boardView.setSquareListener(this::handleSquareClick);
         
         // Adicionar coordenadas ao redor do tabuleiro
         JPanel boardWithCoords = new JPanel(new BorderLayout(5, 5));
         boardWithCoords.setBackground(BACKGROUND_COLOR);
         
-        // Criar as casas do tabuleiro
-        squares = new JButton[8][8];
-        boolean isWhite = true;
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                squares[row][col] = new JButton();
-                squares[row][col].setPreferredSize(new Dimension(75, 75));
-                squares[row][col].setBackground(isWhite ? LIGHT_SQUARE : DARK_SQUARE);
-                squares[row][col].setBorderPainted(false);
-                squares[row][col].setFocusPainted(false);
-                
-                // --- A cor da casa muda ligeiramente ao passar o mouse, exceto quando uma peça está selecionada ---
-                final Color originalColor = squares[row][col].getBackground();
-                final int r = row;
-                final int c = col;
-                squares[row][col].addMouseListener(new MouseAdapter() {
-                    @Override
-                    public void mouseEntered(MouseEvent e) {
-                        // Aplica efeito de hover apenas se nenhuma peça estiver selecionada ou o jogo não estiver rodando
-                        if (!isGameRunning || game.getSelectedPiece() == null) {
-                            JButton button = (JButton) e.getSource();
-                            Color hoverColor = new Color(
-                                Math.min(255, originalColor.getRed() + 20),
-                                Math.min(255, originalColor.getGreen() + 20),
-                                Math.min(255, originalColor.getBlue() + 20)
-                            );
-                            button.setBackground(hoverColor);
-                        }
-                    }
-                    
-                    @Override
-                    public void mouseExited(MouseEvent e) {
-                        // Restaura a cor original da casa ao remover o mouse, exceto se uma peça estiver selecionada
-                        if (!isGameRunning || game.getSelectedPiece() == null) {
-                            JButton button = (JButton) e.getSource();
-                            button.setBackground(originalColor);
-                        }
-                    }
-                    
-                    @Override
-                    public void mouseClicked(MouseEvent e) {
-                        handleSquareClick(r, c);
-                    }
-                });
-                
-
-                boardPanel.add(squares[row][col]);
-                isWhite = !isWhite;
-            }
-            isWhite = !isWhite;
-        }
-        
         // Adicionar coordenadas
         JPanel colCoords = new JPanel(new GridLayout(1, 8));
         colCoords.setBackground(BACKGROUND_COLOR);
@@ -238,7 +312,7 @@ public class ChessGUI extends JFrame {
             rowCoords.add(rowLabel);
         }
         
-        boardWithCoords.add(boardPanel, BorderLayout.CENTER);
+        boardWithCoords.add(boardView, BorderLayout.CENTER);
         boardWithCoords.add(colCoords, BorderLayout.SOUTH);
         boardWithCoords.add(rowCoords, BorderLayout.WEST);
         
@@ -259,20 +333,84 @@ public class ChessGUI extends JFrame {
         historyTitle.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
         sidePanel.add(historyTitle, BorderLayout.NORTH);
 
-        // Área de histórico
-        moveHistory = new JTextArea();
-        moveHistory.setEditable(false);
-        moveHistory.setFont(HISTORY_FONT);
-        moveHistory.setBackground(PANEL_COLOR);
-        moveHistory.setForeground(TEXT_COLOR);
-        moveHistory.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        // Lista de lances: a altura fixa das linhas evita que a JList meça todos os lances,
+        // então só as linhas visíveis são montadas e desenhadas
+        moveListModel = new MoveListModel(game);
+        moveList = new JList<>(moveListModel);
+        moveList.setFont(HISTORY_FONT);
+        moveList.setBackground(PANEL_COLOR);
+        moveList.setForeground(TEXT_COLOR);
+        moveList.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        moveList.setFixedCellHeight(moveList.getFontMetrics(HISTORY_FONT).getHeight() + 2);
+        moveList.setFixedCellWidth(180);
+        moveList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        moveList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting() && !syncingNavigation) showPosition(moveList.getSelectedIndex());
+        });
         
-        JScrollPane scrollPane = new JScrollPane(moveHistory);
+        JScrollPane scrollPane = new JScrollPane(moveList);
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(100, 100, 100), 1));
-        sidePanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Controle deslizante para percorrer a partida (0 = posição inicial) e importação de partidas
+        plySlider = new JSlider(0, 0, 0);
+        plySlider.setBackground(BACKGROUND_COLOR);
+        plySlider.setFocusable(false);
+        plySlider.addChangeListener(e -> {
+            if (!syncingNavigation) showPly(plySlider.getValue());
+        });
+        JButton importButton = new JButton("IMPORTAR PARTIDA");
+        importButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        importButton.setBackground(new Color(90, 150, 160));
+        importButton.setForeground(Color.WHITE);
+        importButton.setFocusPainted(false);
+        importButton.setBorder(BorderFactory.createEmptyBorder(6, 0, 6, 0));
+        importButton.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                importButton.setBackground(new Color(110, 170, 180));
+                importButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                importButton.setBackground(new Color(90, 150, 160));
+                importButton.setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+            }
+        });
+        importButton.addActionListener(e -> importGame());
+        JPanel navigationPanel = new JPanel(new BorderLayout(0, 5));
+        navigationPanel.setBackground(BACKGROUND_COLOR);
+        navigationPanel.add(plySlider, BorderLayout.CENTER);
+        navigationPanel.add(importButton, BorderLayout.SOUTH);
+
+        JPanel historyPanel = new JPanel(new BorderLayout(0, 5));
+        historyPanel.setBackground(BACKGROUND_COLOR);
+        historyPanel.add(scrollPane, BorderLayout.CENTER);
+        historyPanel.add(navigationPanel, BorderLayout.SOUTH);
+        sidePanel.add(historyPanel, BorderLayout.CENTER);
+
+        // Painel de análise (barra de avaliação, profundidade, nós/s e variante principal), visível só durante a análise
+        analysisPanel = new JPanel(new BorderLayout(0, 5));
+        analysisPanel.setBackground(BACKGROUND_COLOR);
+        analysisPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
+        analysisPanel.setVisible(false);
+        evaluationBar = new EvaluationBar();
+        analysisPanel.add(evaluationBar, BorderLayout.NORTH);
+        analysisLabel = new JLabel(" ", SwingConstants.CENTER);
+        analysisLabel.setForeground(TEXT_COLOR);
+        analysisPanel.add(analysisLabel, BorderLayout.CENTER);
+        principalVariation = new JTextArea(3, 1);
+        principalVariation.setEditable(false);
+        principalVariation.setLineWrap(true);
+        principalVariation.setWrapStyleWord(true);
+        principalVariation.setFont(HISTORY_FONT);
+        principalVariation.setBackground(PANEL_COLOR);
+        principalVariation.setForeground(TEXT_COLOR);
+        principalVariation.setBorder(BorderFactory.createLineBorder(new Color(100, 100, 100), 1));
+        analysisPanel.add(principalVariation, BorderLayout.SOUTH);
 
         // Painel inferior com botões
-        JPanel buttonPanel = new JPanel(new GridLayout(3, 1, 0, 10));
+        JPanel buttonPanel = new JPanel(new GridLayout(5, 1, 0, 10));
         buttonPanel.setBackground(BACKGROUND_COLOR);
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
         
@@ -286,7 +424,7 @@ public class ChessGUI extends JFrame {
         buttonPanel.add(statusLabel);
         
         // --- Botão para ativar/desativar IA ---
-        JButton aiButton = new JButton("ATIVAR IA");
+        aiButton = new JButton("ATIVAR IA");
         aiButton.setFont(new Font("Segoe UI", Font.BOLD, 14));
         aiButton.setBackground(new Color(106, 140, 210));
         aiButton.setForeground(Color.WHITE);
@@ -309,11 +447,65 @@ public class ChessGUI extends JFrame {
         });
         
         aiButton.addActionListener(e -> {
+            stopAnalysis(); // a busca da IA, se começar agora, não pode esperar pela análise
             game.toggleAIMode();
+            restartAnalysis();
             aiButton.setText(game.isAIMode() ? "DESATIVAR IA" : "ATIVAR IA");
+            if (game.isAIMode()) {
+                JOptionPane.showMessageDialog(this, "Modo IA ativado! A IA joga como " + (game.isAIWhite() ? "Brancas" : "Pretas") + ".");
+            } else {
+                JOptionPane.showMessageDialog(this, "Modo IA desativado!");
+            }
             updateBoardDisplay();
         });
         buttonPanel.add(aiButton);
+
+        // --- Botão para ligar/desligar a análise contínua ---
+        analysisButton = new JButton("ANALISAR");
+        analysisButton.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        analysisButton.setBackground(new Color(106, 168, 79));
+        analysisButton.setForeground(Color.WHITE);
+        analysisButton.setFocusPainted(false);
+        analysisButton.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+        analysisButton.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                analysisButton.setBackground(new Color(126, 188, 99));
+                analysisButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                analysisButton.setBackground(new Color(106, 168, 79));
+                analysisButton.setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+            }
+        });
+        analysisButton.addActionListener(e -> toggleAnalysis());
+        buttonPanel.add(analysisButton);
+
+        // --- Botão para voltar lances (o tempo do relógio não pode ser desfeito) ---
+        JButton takeBackButton = new JButton("VOLTAR LANCE");
+        takeBackButton.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        takeBackButton.setBackground(new Color(150, 120, 180));
+        takeBackButton.setForeground(Color.WHITE);
+        takeBackButton.setFocusPainted(false);
+        takeBackButton.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+        takeBackButton.setEnabled(timeControl == null);
+        takeBackButton.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                takeBackButton.setBackground(new Color(170, 140, 200));
+                takeBackButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                takeBackButton.setBackground(new Color(150, 120, 180));
+                takeBackButton.setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+            }
+        });
+        takeBackButton.addActionListener(e -> takeBack());
+        buttonPanel.add(takeBackButton);
         
         // --- Botão para reiniciar o jogo ---
         JButton restartButton = new JButton("REINICIAR JOGO");
@@ -342,7 +534,11 @@ public class ChessGUI extends JFrame {
         buttonPanel.add(restartButton);
         // --- FIM: MELHORIA DE FRONTEND - BOTÃO REINICIAR ---
         
-        sidePanel.add(buttonPanel, BorderLayout.SOUTH);
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.setBackground(BACKGROUND_COLOR);
+        bottomPanel.add(analysisPanel, BorderLayout.NORTH);
+        bottomPanel.add(buttonPanel, BorderLayout.SOUTH);
+        sidePanel.add(bottomPanel, BorderLayout.SOUTH);
         add(sidePanel, BorderLayout.EAST);
 
         setLocationRelativeTo(null);
@@ -354,11 +550,16 @@ public class ChessGUI extends JFrame {
     
     /**
      * Inicializa o objeto Timer para o cronômetro do jogo.
-     * O timer é configurado para disparar a cada segundo e atualizar a exibição.
+     * O timer é configurado para disparar a cada segundo e atualizar a exibição; com relógio,
+     * a cada décimo de segundo, que é também quando se verifica se o tempo de um lado acabou.
      */
     private void initializeTimer() {
-        gameTimer = new Timer(1000, e -> updateTimerDisplay());
+        gameTimer = new Timer(timeControl != null ? 100 : 1000, e -> {
+            updateTimerDisplay();
+            if (isGameRunning) game.checkTimeout();
+        });
         gameTimer.setRepeats(true);
+        updateTimerDisplay();
     }
     
     /**
@@ -367,7 +568,7 @@ public class ChessGUI extends JFrame {
      */
     private void startTimer() {
         if (!isGameRunning) {
-            gameStartTime = System.currentTimeMillis() - elapsedTime;
+            gameStartTime = currentMillis() - elapsedTime;
             isGameRunning = true;
             gameTimer.start();
         }
@@ -381,9 +582,14 @@ public class ChessGUI extends JFrame {
         if (isGameRunning) {
             isGameRunning = false;
             gameTimer.stop();
-            elapsedTime = System.currentTimeMillis() - gameStartTime;
+            elapsedTime = currentMillis() - gameStartTime;
         }
     }
+
+    // Relógio monotônico: não pula com ajustes da hora do sistema
+    private static long currentMillis() {
+        return System.nanoTime() / 1_000_000L;
+    }
     
     /**
      * Reseta o cronômetro para zero.
@@ -396,11 +602,19 @@ public class ChessGUI extends JFrame {
     }
     
     /**
-     * Atualiza o texto do JLabel do cronômetro com o tempo decorrido formatado.
+     * Atualiza o texto do JLabel do cronômetro com o tempo decorrido formatado
+     * ou, com relógio, com o tempo restante de cada lado.
      */
     private void updateTimerDisplay() {
         if (isGameRunning) {
-            elapsedTime = System.currentTimeMillis() - gameStartTime;
+            elapsedTime = currentMillis() - gameStartTime;
+        }
+
+        ChessClock clock = game.getClock();
+        if (clock != null) {
+            timerLabel.setText("B " + formatClock(clock.getRemainingMillis(true))
+                    + "  P " + formatClock(clock.getRemainingMillis(false)));
+            return;
         }
         
         long seconds = elapsedTime / 1000;
@@ -411,93 +625,67 @@ public class ChessGUI extends JFrame {
         timerLabel.setText(timeText);
     }
 
+    // MM:SS, com décimos nos últimos 10 segundos
+    private static String formatClock(long millis) {
+        millis = Math.max(0, millis);
+        if (millis < 10_000) return String.format("%d.%d", millis / 1000, millis / 100 % 10);
+        long seconds = millis / 1000;
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
     private void loadPieceIcons() {
-        pieceIcons = new HashMap<>();
-
-        // Símbolos das peças (k=rei, q=rainha, r=torre, b=bispo, n=cavalo, p=peão)
-        String[] symbols = {"k", "q", "r", "b", "n", "p"};
-        String[] colors = {"w", "b"}; // w = branco, b = preto
-
-        for (String color : colors) {
-            for (String sym : symbols) {
-                String key = color + sym;
-                String resourcePath = "resources/" + key + ".png";
-                
-                try {
-                    // Tenta carregar o recurso usando ClassLoader 
-                    java.net.URL imageURL = getClass().getClassLoader().getResource(resourcePath);
-                    ImageIcon icon;
-                    
-                    if (imageURL != null) {
-                        icon = new ImageIcon(imageURL);
-                        System.out.println("✓ Carregado via ClassLoader: " + resourcePath);
-                    } else {
-                        // Fallback: tenta carregar via caminho relativo 
-                        String fallbackPath = "../resources/" + key + ".png";
-                        icon = new ImageIcon(fallbackPath);
-                        
-                        if (icon.getIconWidth() <= 0) {
-                            // Segundo fallback: tenta carregar via caminho absoluto
-                            String absolutePath = System.getProperty("user.dir") + "/resources/" + key + ".png";
-                            icon = new ImageIcon(absolutePath);
-                            
-                            if (icon.getIconWidth() <= 0) {
-                                System.out.println("⚠️ Não foi possível carregar: " + key + ".png");
-                                icon = new ImageIcon(); // Ícone vazio como fallback
-                            } else {
-                                System.out.println("✓ Carregado via caminho absoluto: " + absolutePath);
-                            }
-                        } else {
-                            System.out.println("✓ Carregado via caminho relativo: " + fallbackPath);
-                        }
-                    }
-                    
-                    // Redimensiona a imagem se ela foi carregada com sucesso
-                    if (icon.getIconWidth() > 0) {
-                        Image scaled = icon.getImage().getScaledInstance(65, 65, Image.SCALE_SMOOTH);
-                        icon = new ImageIcon(scaled);
-                    }
-                    
-                    pieceIcons.put(key, icon);
-                    
-                } catch (Exception e) {
-                    System.out.println("❌ Erro ao carregar " + key + ".png: " + e.getMessage());
-                    pieceIcons.put(key, new ImageIcon()); // Ícone vazio como fallback em caso de erro
-                }
-            }
-        }
+        // As imagens são decodificadas fora da thread do Swing; até lá o tabuleiro mostra os símbolos das peças
+        PieceSprites.loadAsync().thenAccept(sprites -> SwingUtilities.invokeLater(() -> boardView.setSprites(sprites)));
     }
 
+    /**
+     * Redesenha todas as casas; usado quando muda o tema ou a partida. Depois de um lance só as
+     * casas afetadas são redesenhadas (ver scheduleBoardRefresh).
+     */
     private void updateBoardDisplay() {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                // Restaurar cores originais do tabuleiro
-                boolean isWhite = (row + col) % 2 == 0;
-                squares[row][col].setBackground(isWhite ? LIGHT_SQUARE : DARK_SQUARE);
-                
-                Piece piece = game.getBoard().getPieceAt(new Position(row, col));
-                if (piece == null) {
-                    squares[row][col].setIcon(null);
-                } else {
-                    String key = (piece.isWhite() ? "w" : "b") + piece.getSymbol();
-                    squares[row][col].setIcon(pieceIcons.get(key));
-                }
-            }
-        }
+        dirtySquares = 0;
+        boardView.setSquareColors(LIGHT_SQUARE, DARK_SQUARE);
+        boardView.setBackground(BACKGROUND_COLOR);
+        boardView.setBoard(viewedBoard != null ? viewedBoard : game.getBoard());
+        updateTurnAndStatus();
+    }
+
+    /**
+     * Agenda o redesenho das casas sujas para depois dos eventos já na fila da thread do Swing:
+     * vários lances seguidos (ex: IA contra IA) são redesenhados de uma vez.
+     */
+    private void scheduleBoardRefresh() {
+        if (boardRefreshScheduled) return;
+        boardRefreshScheduled = true;
+        SwingUtilities.invokeLater(() -> {
+            boardRefreshScheduled = false;
+            boardView.repaintSquares(dirtySquares);
+            dirtySquares = 0;
+            updateTurnAndStatus();
+        });
+    }
+
+    private void updateTurnAndStatus() {
         // Atualizar turno
         String turnText = game.isWhiteTurn() ? "VEZ DAS BRANCAS" : "VEZ DAS PRETAS";
         turnLabel.setText(turnText);
         
         // Atualizar status
-        if (game.isGameOver()) {
-            String winner = game.isWhiteTurn() ? "PRETAS" : "BRANCAS";
-            statusLabel.setText(winner + " VENCERAM!");
+        if (game.isGameOver() && "1/2-1/2".equals(game.getResult())) {
+            statusLabel.setText("EMPATE!");
+        } else if (game.isGameOver()) {
+            statusLabel.setText(winnerText().toUpperCase() + " VENCERAM!");
         } else {
             statusLabel.setText("Jogo em andamento");
         }
     }
 
     private void handleSquareClick(int row, int col) {
+        // Posições anteriores só podem ser vistas
+        if (viewedBoard != null) {
+            return;
+        }
+
         // Bloquear movimentos se for a vez da IA
         if (game.isAIMode() && game.isAIWhite() == game.isWhiteTurn()) {
             return;
@@ -508,101 +696,8 @@ public class ChessGUI extends JFrame {
         if (game.getSelectedPiece() == null) {
             // Primeira seleção: escolher uma peça
             game.selectPiece(position);
-
-            // Destacar a peça selecionada
             if (game.getSelectedPiece() != null) {
-                squares[row][col].setBorder(BorderFactory.createLineBorder(HIGHLIGHT_SELECTED, 3));
-                
-                // Efeito de brilho pulsante para a peça selecionada
-                Timer pulseTimer = new Timer(500, null);
-                pulseTimer.addActionListener(pulseEvent -> {
-                    if (game.getSelectedPiece() != null && 
-                        game.getSelectedPiece().getPosition().getRow() == row &&
-                        game.getSelectedPiece().getPosition().getColumn() == col) {
-                        
-                        Color currentBg = squares[row][col].getBackground();
-                        boolean isLight = (row + col) % 2 == 0;
-                        Color baseBg = isLight ? LIGHT_SQUARE : DARK_SQUARE;
-                        
-                        // Alternar entre cor base e cor destacada
-                        if (currentBg.equals(baseBg)) {
-                            squares[row][col].setBackground(new Color(
-                                Math.min(255, baseBg.getRed() + 30),
-                                Math.min(255, baseBg.getGreen() + 30),
-                                Math.min(255, baseBg.getBlue() + 30)
-                            ));
-                        } else {
-                            squares[row][col].setBackground(baseBg);
-                        }
-                    } else {
-                        pulseTimer.stop();
-                    }
-                });
-                pulseTimer.start();
-
-                // Destacar movimentos possíveis
-                for (Position pos : game.getSelectedPiece().getPossibleMoves()) {
-                    boolean isCapture = game.getBoard().getPieceAt(pos) != null;
-                    Color borderColor = isCapture ? HIGHLIGHT_CAPTURE : HIGHLIGHT_MOVE;
-                    
-                    squares[pos.getRow()][pos.getColumn()].setBorder(
-                            BorderFactory.createLineBorder(borderColor, 4));
-                    
-                    // Criar indicadores visuais diferentes para movimentos e capturas
-                    if (isCapture) {
-                        // Para capturas: criar um X vermelho sobre a peça inimiga
-                        JPanel capturePanel = new JPanel() {
-                            @Override
-                            protected void paintComponent(Graphics g) {
-                                super.paintComponent(g);
-                                Graphics2D g2d = (Graphics2D) g;
-                                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                                g2d.setColor(HIGHLIGHT_CAPTURE);
-                                g2d.setStroke(new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                                
-                                int size = Math.min(getWidth(), getHeight());
-                                int margin = size / 4;
-                                
-                                // Desenhar X
-                                g2d.drawLine(margin, margin, size - margin, size - margin);
-                                g2d.drawLine(size - margin, margin, margin, size - margin);
-                                
-                                // Adicionar um círculo ao redor
-                                g2d.setStroke(new BasicStroke(3));
-                                g2d.drawOval(margin/2, margin/2, size - margin, size - margin);
-                            }
-                        };
-                        capturePanel.setOpaque(false);
-                        squares[pos.getRow()][pos.getColumn()].setLayout(new BorderLayout());
-                        squares[pos.getRow()][pos.getColumn()].add(capturePanel, BorderLayout.CENTER);
-                    } else {
-                        // Para movimentos normais: círculo azul maior e mais visível
-                        JPanel movePanel = new JPanel() {
-                            @Override
-                            protected void paintComponent(Graphics g) {
-                                super.paintComponent(g);
-                                Graphics2D g2d = (Graphics2D) g;
-                                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                                
-                                // Círculo preenchido
-                                g2d.setColor(new Color(HIGHLIGHT_MOVE.getRed(), HIGHLIGHT_MOVE.getGreen(), 
-                                                      HIGHLIGHT_MOVE.getBlue(), 200));
-                                int circleSize = 24;
-                                g2d.fillOval(getWidth()/2 - circleSize/2, getHeight()/2 - circleSize/2, 
-                                           circleSize, circleSize);
-                                
-                                // Borda do círculo
-                                g2d.setColor(HIGHLIGHT_MOVE);
-                                g2d.setStroke(new BasicStroke(2));
-                                g2d.drawOval(getWidth()/2 - circleSize/2, getHeight()/2 - circleSize/2, 
-                                           circleSize, circleSize);
-                            }
-                        };
-                        movePanel.setOpaque(false);
-                        squares[pos.getRow()][pos.getColumn()].setLayout(new BorderLayout());
-                        squares[pos.getRow()][pos.getColumn()].add(movePanel, BorderLayout.CENTER);
-                    }
-                }
+                showSelection(row, col);
             }
         } else {
             // Segunda seleção: mover a peça ou selecionar outra
@@ -614,181 +709,345 @@ public class ChessGUI extends JFrame {
             if (selectedPiece.getPosition().equals(position)) {
                 // Clicou na mesma peça, deselecionar
                 game.selectPiece(null);
-            } else if (game.getBoard().getPieceAt(position) != null &&
-                    game.getBoard().getPieceAt(position).isWhite() == game.isWhiteTurn()) {
+            } else if (game.getBoard().getPieceAt(row, col) != null &&
+                    game.getBoard().getPieceAt(row, col).isWhite() == game.isWhiteTurn()) {
                 // Clicou em outra peça do mesmo lado, selecionar essa nova peça
                 game.selectPiece(position);
-                squares[row][col].setBorder(BorderFactory.createLineBorder(HIGHLIGHT_SELECTED, 3));
-                
-                // Efeito de brilho para a peça selecionada
-                squares[row][col].setBackground(new Color(
-                    squares[row][col].getBackground().getRed() + 15,
-                    squares[row][col].getBackground().getGreen() + 15,
-                    squares[row][col].getBackground().getBlue() + 15
-                ));
-
-                // Destacar movimentos possíveis da nova peça
-                for (Position pos : game.getSelectedPiece().getPossibleMoves()) {
-                    boolean isCapture = game.getBoard().getPieceAt(pos) != null;
-                    Color borderColor = isCapture ? HIGHLIGHT_CAPTURE : HIGHLIGHT_MOVE;
-                    
-                    squares[pos.getRow()][pos.getColumn()].setBorder(
-                            BorderFactory.createLineBorder(borderColor, 4));
-                    
-                    // Criar indicadores visuais diferentes para movimentos e capturas
-                    if (isCapture) {
-                        // Para capturas: criar um X vermelho sobre a peça inimiga
-                        JPanel capturePanel = new JPanel() {
-                            @Override
-                            protected void paintComponent(Graphics g) {
-                                super.paintComponent(g);
-                                Graphics2D g2d = (Graphics2D) g;
-                                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                                g2d.setColor(HIGHLIGHT_CAPTURE);
-                                g2d.setStroke(new BasicStroke(4, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-                                
-                                int size = Math.min(getWidth(), getHeight());
-                                int margin = size / 4;
-                                
-                                // Desenhar X
-                                g2d.drawLine(margin, margin, size - margin, size - margin);
-                                g2d.drawLine(size - margin, margin, margin, size - margin);
-                                
-                                // Adicionar um círculo ao redor
-                                g2d.setStroke(new BasicStroke(3));
-                                g2d.drawOval(margin/2, margin/2, size - margin, size - margin);
-                            }
-                        };
-                        capturePanel.setOpaque(false);
-                        squares[pos.getRow()][pos.getColumn()].setLayout(new BorderLayout());
-                        squares[pos.getRow()][pos.getColumn()].add(capturePanel, BorderLayout.CENTER);
-                    } else {
-                        // Para movimentos normais: círculo azul maior e mais visível
-                        JPanel movePanel = new JPanel() {
-                            @Override
-                            protected void paintComponent(Graphics g) {
-                                super.paintComponent(g);
-                                Graphics2D g2d = (Graphics2D) g;
-                                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                                
-                                // Círculo preenchido
-                                g2d.setColor(new Color(HIGHLIGHT_MOVE.getRed(), HIGHLIGHT_MOVE.getGreen(), 
-                                                      HIGHLIGHT_MOVE.getBlue(), 200));
-                                int circleSize = 24;
-                                g2d.fillOval(getWidth()/2 - circleSize/2, getHeight()/2 - circleSize/2, 
-                                           circleSize, circleSize);
-                                
-                                // Borda do círculo
-                                g2d.setColor(HIGHLIGHT_MOVE);
-                                g2d.setStroke(new BasicStroke(2));
-                                g2d.drawOval(getWidth()/2 - circleSize/2, getHeight()/2 - circleSize/2, 
-                                           circleSize, circleSize);
-                            }
-                        };
-                        movePanel.setOpaque(false);
-                        squares[pos.getRow()][pos.getColumn()].setLayout(new BorderLayout());
-                        squares[pos.getRow()][pos.getColumn()].add(movePanel, BorderLayout.CENTER);
-                    }
+                showSelection(row, col);
+            } else {
+                // Tentar mover a peça (o histórico e o fim de jogo são tratados pelo GameListener)
+                String promotion = null;
+                if ((game.getLegalTargets(selectedPiece.getPosition()) & BoardChange.bit(row, col)) != 0
+                        && game.isPromotionMove(selectedPiece.getPosition(), position)) {
+                    promotion = askPromotionPiece();
                 }
-            }
-    
-            else {
-                // Tentar mover a peça
-                boolean moveSuccessful = game.movePiece(position);
+                boolean moveSuccessful = game.movePiece(position, promotion);
                 if (moveSuccessful) {
-                    // Iniciar cronômetro no primeiro movimento
-                    if (!isGameRunning && moveHistory.getText().isEmpty()) {
-                        startTimer();
-                    }
-                    
                     // Efeito visual de movimento bem-sucedido
-                    squares[row][col].setBackground(new Color(106, 168, 79, 100));
-                    Timer flashTimer = new Timer(200, null);
-                    flashTimer.addActionListener(flashEvent -> {
-                        boolean isLight = (row + col) % 2 == 0;
-                        squares[row][col].setBackground(isLight ? LIGHT_SQUARE : DARK_SQUARE);
-                        flashTimer.stop();
-                    });
-                    flashTimer.start();
-                    
-                    updateBoardDisplay();
-
-                    // Adicionar ao histórico com formatação melhorada
-                    String pieceColor = selectedPiece.isWhite() ? "Branca" : "Preta";
-                    String moveText = String.format("%s %s → %s\n", 
-                                                   pieceColor, 
-                                                   selectedPiece.getName(), 
-                                                   getChessNotation(position));
-                    moveHistory.append(moveText);
-                    
-                    // Rolar para o final do histórico
-                    moveHistory.setCaretPosition(moveHistory.getDocument().getLength());
-
-                    // Verificar fim de jogo
-                    if (game.isGameOver()) {
-                        stopTimer(); // Parar cronômetro quando o jogo termina
-                        String winner = game.isWhiteTurn() ? "Pretas" : "Brancas";
-                        
-                        // Mostrar tempo final no diálogo
-                        long seconds = elapsedTime / 1000;
-                        long minutes = seconds / 60;
-                        seconds = seconds % 60;
-                        String finalTime = String.format("%02d:%02d", minutes, seconds);
-                        
-                        JOptionPane.showMessageDialog(this,
-                                winner + " vencem!\nTempo de jogo: " + finalTime,
-                                "Fim de Jogo",
-                                JOptionPane.INFORMATION_MESSAGE);
+                    boardView.flash(row, col);
+                    if (game.isAIThinking()) {
+                        statusLabel.setText("IA pensando...");
                     }
                 }
             }
         }
     }
-    
-    // Método auxiliar para converter posição em notação de xadrez (ex: e4)
-    private String getChessNotation(Position position) {
-        char column = (char) ('a' + position.getColumn());
-        int row = 8 - position.getRow();
-        return column + "" + row;
+
+    // Destaca a peça selecionada (com brilho pulsante) e os movimentos possíveis:
+    // círculos azuis nas casas vazias e X vermelho nas capturas
+    private void showSelection(int row, int col) {
+        long moves = 0;
+        long captures = 0;
+        for (long bits = game.getLegalTargets(new Position(row, col)); bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            if (game.getBoard().getPieceAt(square >> 3, square & 7) != null) {
+                captures |= 1L << square;
+            } else {
+                moves |= 1L << square;
+            }
+        }
+        boardView.setSelection(row, col, moves, captures);
     }
 
-    private void clearHighlights() {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                squares[r][c].setBorder(null);
-                
-                // Remover os painéis de círculos
-                squares[r][c].removeAll();
-                
-                // Restaurar cores originais
-                boolean isWhite = (r + c) % 2 == 0;
-                squares[r][c].setBackground(isWhite ? LIGHT_SQUARE : DARK_SQUARE);
-                
-                // Restaurar ícones
-                Piece piece = game.getBoard().getPieceAt(new Position(r, c));
-                if (piece != null) {
-                    String key = (piece.isWhite() ? "w" : "b") + piece.getSymbol();
-                    squares[r][c].setIcon(pieceIcons.get(key));
-                }
+    private void appendHistory() {
+        moveListModel.moveAdded();
+        // Um lance novo volta o tabuleiro para a posição atual
+        showPly(game.getMoveCount());
+    }
+
+    /**
+     * Mostra no tabuleiro a posição depois do lance escolhido na lista; o último lance, ou
+     * nenhum, volta para a posição atual da partida.
+     */
+    private void showPosition(int index) {
+        showPly(index < 0 ? game.getMoveCount() : index + 1);
+    }
+
+    /**
+     * Mostra a posição depois das primeiras meias-jogadas (a partir da posição atual, volta a
+     * ela). A posição vem do quadro-chave mais próximo da árvore da partida mais alguns lances,
+     * num dos tabuleiros alternados, e só as casas que mudaram são redesenhadas: arrastar o
+     * controle deslizante por uma partida inteira não refaz a partida do início a cada passo.
+     */
+    private void showPly(int ply) {
+        if (ply >= game.getMoveCount()) {
+            if (viewedBoard != null) {
+                viewedBoard = null;
+                boardView.showBoard(game.getBoard());
             }
+        } else if (viewedBoard == null || ply != viewedPly) {
+            if (viewedBoard == null) {
+                clearHighlights();
+                game.selectPiece(null);
+            }
+            Board next = viewedBoard == scrubBoards[0] ? scrubBoards[1] : scrubBoards[0];
+            game.loadPosition(ply, next);
+            viewedBoard = next;
+            viewedPly = ply;
+            boardView.showBoard(next);
+        }
+        syncNavigation(ply);
+    }
+
+    // Acerta a lista de lances e o controle deslizante com a posição mostrada, sem que eles
+    // avisem de volta
+    private void syncNavigation(int ply) {
+        int count = game.getMoveCount();
+        ply = Math.min(ply, count);
+        syncingNavigation = true;
+        plySlider.setMaximum(count);
+        plySlider.setValue(ply);
+        if (ply == 0) {
+            moveList.clearSelection();
+        } else {
+            moveList.setSelectedIndex(ply - 1);
+        }
+        if (count > 0) moveList.ensureIndexIsVisible(Math.max(0, ply - 1));
+        syncingNavigation = false;
+    }
+
+    /**
+     * Abre uma partida de um arquivo PGN ou de um arquivo de partidas (GameArchive) no lugar da
+     * atual. A partida importada pode ser percorrida e continuada como qualquer outra.
+     */
+    private void importGame() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setFileFilter(new FileNameExtensionFilter("Partidas (PGN ou arquivo de partidas)", "pgn", "partidas"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path path = chooser.getSelectedFile().toPath();
+        try {
+            if (path.getFileName().toString().endsWith(".partidas")) {
+                importFromArchive(path);
+            } else {
+                importPgn(path);
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Erro ao ler o arquivo: " + e.getMessage(), "Importar partida",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // A partida escolhida numa lista, se o PGN tiver várias
+    private void importPgn(Path path) throws IOException {
+        List<PgnGame> games;
+        try (PgnReader reader = new PgnReader(path)) {
+            games = reader.games().limit(MAX_IMPORT_CHOICES).collect(Collectors.toList());
+        }
+        if (games.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Nenhuma partida encontrada no arquivo.", "Importar partida",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        PgnGame chosen = games.get(0);
+        if (games.size() > 1) {
+            chosen = (PgnGame) JOptionPane.showInputDialog(this, "Escolha a partida:", "Importar partida",
+                    JOptionPane.QUESTION_MESSAGE, null, games.toArray(), chosen);
+            if (chosen == null) return;
+        }
+
+        startGame(replay(new Game(chosen.getStartFen()), chosen.getMoves()));
+        if (!chosen.isValid()) {
+            JOptionPane.showMessageDialog(this, "Lance inválido na meia-jogada " + (chosen.getErrorPly() + 1)
+                    + ": a partida foi importada até o lance anterior.", "Importar partida", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    // A partida de número indicado pelo usuário; só ela é lida do arquivo
+    private void importFromArchive(Path path) throws IOException {
+        GameRecord record;
+        try (GameArchive archive = new GameArchive(path)) {
+            if (archive.size() == 0) {
+                JOptionPane.showMessageDialog(this, "Nenhuma partida encontrada no arquivo.", "Importar partida",
+                        JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            String answer = JOptionPane.showInputDialog(this, "Número da partida (1 a " + archive.size() + "):", "1");
+            if (answer == null) return;
+            long number;
+            try {
+                number = Long.parseLong(answer.trim());
+            } catch (NumberFormatException e) {
+                number = 0;
+            }
+            if (number < 1 || number > archive.size()) {
+                JOptionPane.showMessageDialog(this, "Número de partida inválido.", "Importar partida",
+                        JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            record = archive.get(number - 1);
+        }
+        startGame(replay(new Game(record.getStartFen()), record.getMoves()));
+    }
+
+    // Aplica os lances à partida, parando se ela terminar antes (ex: por repetição)
+    private static Game replay(Game game, List<Move> moves) {
+        for (Move move : moves) {
+            if (game.isGameOver()) break;
+            game.applyMove(move);
+        }
+        return game;
+    }
+
+    /**
+     * Desfaz o último lance. Contra a IA, na vez do jogador, desfaz também a resposta dela para
+     * que seja de novo a vez do jogador; os lances desfeitos ficam na árvore da partida.
+     */
+    private void takeBack() {
+        if (game.getMoveCount() == 0 || game.getClock() != null) return;
+        stopAnalysis();
+        boolean aiToMove = game.isAIMode() && game.isAIWhite() == game.isWhiteTurn();
+        game.takeBack(game.isAIMode() && !aiToMove ? 2 : 1);
+    }
+
+    // Opções de promoção para o usuário
+    private String askPromotionPiece() {
+        String[] options = {"Rainha", "Torre", "Bispo", "Cavalo"};
+        int choice = JOptionPane.showOptionDialog(this,
+                "Escolha uma peça para promoção:",
+                "Promoção de Peão",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.QUESTION_MESSAGE,
+                null, options, options[0]);
+        return choice > 0 ? String.valueOf("qrbn".charAt(choice)) : "q";
+    }
+
+    private void showStatus(GameStatus status) {
+        String side = game.isWhiteTurn() ? "Brancas" : "Pretas";
+        if (status == GameStatus.CHECK) {
+            JOptionPane.showMessageDialog(this, side + " estão em XEQUE!");
+        }
+        if (!status.isGameOver()) {
+            return;
+        }
+
+        stopTimer(); // Parar cronômetro quando o jogo termina
+        String message;
+        if (status == GameStatus.CHECKMATE) {
+            message = side + " estão em XEQUE-MATE!\n" + winnerText() + " vencem!";
+        } else if (status == GameStatus.STALEMATE) {
+            message = "EMPATE por afogamento!";
+        } else if (status == GameStatus.TIME_FORFEIT) {
+            message = "Tempo das " + side + " esgotado!\n" + ("1/2-1/2".equals(game.getResult())
+                    ? "EMPATE: o adversário não tem material para dar mate." : winnerText() + " vencem!");
+        } else if (status == GameStatus.DRAW_REPETITION) {
+            message = "EMPATE por tripla repetição!";
+        } else if (status == GameStatus.DRAW_FIFTY_MOVES) {
+            message = "EMPATE pela regra dos 50 lances!";
+        } else if (status == GameStatus.DRAW_INSUFFICIENT_MATERIAL) {
+            message = "EMPATE por material insuficiente!";
+        } else if ("1/2-1/2".equals(game.getResult())) {
+            message = "EMPATE pela tabela de finais!";
+        } else {
+            message = winnerText() + " vencem pela tabela de finais!";
         }
+
+        // Mostrar tempo final no diálogo
+        long seconds = elapsedTime / 1000;
+        long minutes = seconds / 60;
+        seconds = seconds % 60;
+        String finalTime = String.format("%02d:%02d", minutes, seconds);
+
+        JOptionPane.showMessageDialog(this,
+                message + "\nTempo de jogo: " + finalTime,
+                "Fim de Jogo",
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private String winnerText() {
+        return "1-0".equals(game.getResult()) ? "Brancas" : "Pretas";
+    }
+
+    private void clearHighlights() {
+        boardView.clearSelection();
     }
 
     private void restartGame() {
-        game = new Game();
-        moveHistory.setText("");
+        startGame(new Game());
+    }
+
+    // Troca a partida mostrada pela indicada (nova ou importada)
+    private void startGame(Game newGame) {
+        game.cancelAIMove(); // Descarta a busca da IA da partida anterior
+        stopAnalysis();
+        game = newGame;
+        configureGame();
+        viewedBoard = null;
+        moveListModel.setGame(game);
+        syncNavigation(game.getMoveCount());
         resetTimer(); // Reiniciar cronômetro
+        clearHighlights();
         updateBoardDisplay();
         
         // Resetar o botão de IA
-        Component[] components = ((JPanel) ((JPanel) getContentPane().getComponent(2)).getComponent(1)).getComponents();
-        for (Component comp : components) {
-            if (comp instanceof JButton && ((JButton) comp).getText().contains("IA")) {
-                ((JButton) comp).setText("ATIVAR IA");
-                break;
-            }
+        aiButton.setText("ATIVAR IA");
+        evaluationBar.clear();
+        restartAnalysis();
+    }
+
+    /**
+     * Liga ou desliga a análise contínua da posição atual, que recomeça a cada lance.
+     */
+    private void toggleAnalysis() {
+        analysisEnabled = !analysisEnabled;
+        analysisButton.setText(analysisEnabled ? "PARAR ANÁLISE" : "ANALISAR");
+        analysisPanel.setVisible(analysisEnabled);
+        game.setPondering(!analysisEnabled);
+        if (analysisEnabled) {
+            evaluationBar.clear();
+            analysisLabel.setText("Analisando...");
+            principalVariation.setText("");
+            restartAnalysis();
+        } else {
+            stopAnalysis();
         }
     }
+
+    // Busca sem limite de tempo na posição atual, até o próximo lance. Na vez da IA o painel mostra
+    // a busca dela, e a análise só volta depois do lance, já que as duas usariam a mesma thread.
+    // Os resultados passam por um SwingThrottle próprio, no máximo 10 por segundo.
+    private void restartAnalysis() {
+        stopAnalysis();
+        if (!analysisEnabled || game.isGameOver() || game.isAIThinking()) return;
+        int run = analysisRun;
+        boolean white = game.isWhiteTurn();
+        SwingThrottle<SearchInfo> throttle = new SwingThrottle<>(100, info -> {
+            if (run == analysisRun) showAnalysis(info, white);
+        });
+        analysis = game.getAIPlayer().analyzeAsync(white, 0, throttle::submit);
+    }
+
+    private void stopAnalysis() {
+        analysisRun++;
+        if (analysis != null) {
+            analysis.cancel(false);
+            analysis = null;
+        }
+    }
+
+    /**
+     * Mostra uma iteração da busca no painel de análise.
+     * @param white Lado para o qual a pontuação da busca é dada.
+     */
+    private void showAnalysis(SearchInfo info, boolean white) {
+        int score = white ? info.getScore() : -info.getScore();
+        String text;
+        if (info.isMateScore()) {
+            int moves = (Search.MATE - Math.abs(score) + 1) / 2;
+            text = (score > 0 ? "M" : "-M") + moves;
+        } else {
+            text = String.format("%+.2f", score / 100.0);
+        }
+        evaluationBar.setScore(score, text);
+        analysisLabel.setText(String.format("Prof. %d | %,d nós/s", info.getDepth(), info.getNodesPerSecond()));
+
+        StringBuilder pv = new StringBuilder();
+        for (Move move : info.getPrincipalVariation()) {
+            if (pv.length() > 0) pv.append(' ');
+            pv.append(move);
+        }
+        principalVariation.setText(pv.toString());
+        principalVariation.setCaretPosition(0);
+    }
     
        private void toggleTheme() {
         isDarkTheme = !isDarkTheme;
@@ -815,8 +1074,11 @@ public class ChessGUI extends JFrame {
         }
         
         // Atualizar cores da área de histórico de jogadas
-        moveHistory.setBackground(PANEL_COLOR);
-        moveHistory.setForeground(TEXT_COLOR);
+        moveList.setBackground(PANEL_COLOR);
+        moveList.setForeground(TEXT_COLOR);
+        plySlider.setBackground(BACKGROUND_COLOR);
+        principalVariation.setBackground(PANEL_COLOR);
+        principalVariation.setForeground(TEXT_COLOR);
         
         // Atualizar cores dos rótulos de texto
         turnLabel.setForeground(TEXT_COLOR);
@@ -852,7 +1114,12 @@ public class ChessGUI extends JFrame {
         }
     }
 
+    /**
+     * @param args Opcional: o controle de tempo, ex: "5+3" (5 minutos e 3 segundos de incremento).
+     */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(ChessGUI::new);
+        String timeControl = args.length > 0 ? args[0] : null;
+        if (timeControl != null) ChessClock.parse(timeControl); // formato inválido: erro antes de abrir a janela
+        SwingUtilities.invokeLater(() -> new ChessGUI(timeControl));
     }
 }
\ No newline at end of file
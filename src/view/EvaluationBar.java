@@ -0,0 +1,69 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import javax.swing.JComponent;
+
+/**
+ * Barra de avaliação do painel de análise: a parte clara cresce com a vantagem das brancas.
+ * A pontuação passa por uma sigmoide, para que uma vantagem de alguns peões não encha a barra
+ * e os mates a levem até o fim.
+ */
+public class EvaluationBar extends JComponent {
+    private static final Color WHITE_SIDE = new Color(235, 235, 235);
+    private static final Color BLACK_SIDE = new Color(40, 40, 40);
+    private static final double SCALE = 400.0; // centipeões para meia barra de vantagem
+
+    private int score;
+    private String text = "";
+
+    public EvaluationBar() {
+        setPreferredSize(new Dimension(200, 22));
+        setFont(new Font("Segoe UI", Font.BOLD, 12));
+    }
+
+    /**
+     * @param score Pontuação do ponto de vista das brancas, em centipeões.
+     * @param text Pontuação formatada, escrita sobre a barra.
+     */
+    public void setScore(int score, String text) {
+        this.score = score;
+        this.text = text;
+        repaint();
+    }
+
+    public void clear() {
+        setScore(0, "");
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        int width = getWidth();
+        int height = getHeight();
+        int white = (int) Math.round(width / (1 + Math.exp(-score / SCALE)));
+
+        g2.setColor(BLACK_SIDE);
+        g2.fillRect(0, 0, width, height);
+        g2.setColor(WHITE_SIDE);
+        g2.fillRect(0, 0, white, height);
+
+        // Texto do lado de quem está melhor, na cor oposta à da barra embaixo dele
+        FontMetrics metrics = g2.getFontMetrics();
+        int y = (height - metrics.getHeight()) / 2 + metrics.getAscent();
+        if (score >= 0) {
+            g2.setColor(BLACK_SIDE);
+            g2.drawString(text, 4, y);
+        } else {
+            g2.setColor(WHITE_SIDE);
+            g2.drawString(text, width - metrics.stringWidth(text) - 4, y);
+        }
+        g2.dispose();
+    }
+}
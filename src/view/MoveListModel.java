@@ -0,0 +1,59 @@
+package view;
+
+import controller.Game;
+import javax.swing.AbstractListModel;
+import model.board.MoveHistory;
+
+/**
+ * Modelo da lista de lances: lê os lances codificados da partida e só monta o texto das linhas
+ * que a JList desenha. Acrescentar um lance avisa a lista de uma única linha nova.
+ */
+public class MoveListModel extends AbstractListModel<String> {
+    private Game game;
+    private int size;
+
+    public MoveListModel(Game game) {
+        this.game = game;
+        this.size = game.getMoveCount();
+    }
+
+    /**
+     * Troca a partida mostrada (ao reiniciar o jogo).
+     */
+    public void setGame(Game game) {
+        int previous = size;
+        this.game = game;
+        size = 0;
+        if (previous > 0) fireIntervalRemoved(this, 0, previous - 1);
+        moveAdded();
+    }
+
+    /**
+     * Acompanha os lances que a partida ganhou desde a última chamada.
+     */
+    public void moveAdded() {
+        int count = game.getMoveCount();
+        if (count > size) {
+            int first = size;
+            size = count;
+            fireIntervalAdded(this, first, count - 1);
+        } else if (count < size) {
+            int previous = size;
+            size = count;
+            fireIntervalRemoved(this, count, previous - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        int code = game.getMoveCode(index);
+        String number = (index / 2 + 1) + (MoveHistory.isWhite(code) ? "." : "...");
+        return String.format("%-5s %s %s → %s", number, MoveHistory.isWhite(code) ? "Branca" : "Preta",
+                MoveHistory.pieceName(code), MoveHistory.squareName(MoveHistory.to(code)));
+    }
+}
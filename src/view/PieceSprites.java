@@ -0,0 +1,160 @@
+package view;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.imageio.ImageIO;
+
+/**
+ * Imagens das 12 peças. Os PNGs são decodificados uma vez, fora da thread do Swing (loadAsync),
+ * e redimensionados sob demanda para um atlas: uma só imagem compatível com a tela, com as 12
+ * peças lado a lado no tamanho pedido.
+ *
+ * O atlas é rasterizado em pixels da tela, já multiplicados pela escala do monitor (HiDPI), e
+ * guardado por tamanho e escala; redimensionar a janela ou mudar de monitor só gera um atlas novo
+ * na primeira vez que ele é desenhado.
+ */
+public class PieceSprites {
+    private static final String[] KEYS = {"wk", "wq", "wr", "wb", "wn", "wp", "bk", "bq", "br", "bb", "bn", "bp"};
+    private static final int MAX_ATLASES = 4; // tamanhos recentes mantidos (ex.: antes e depois de maximizar)
+
+    private final BufferedImage[] originals = new BufferedImage[KEYS.length];
+    private final Map<Long, BufferedImage> atlases = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > MAX_ATLASES;
+        }
+    };
+
+    private PieceSprites() {
+    }
+
+    /**
+     * Decodifica as imagens numa thread própria. As que não forem encontradas ficam sem imagem
+     * (o tabuleiro desenha o símbolo da peça no lugar).
+     */
+    public static CompletableFuture<PieceSprites> loadAsync() {
+        return CompletableFuture.supplyAsync(PieceSprites::load, runnable -> {
+            Thread thread = new Thread(runnable, "piece-sprites");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    public static PieceSprites load() {
+        PieceSprites sprites = new PieceSprites();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < KEYS.length; i++) {
+            sprites.originals[i] = read(KEYS[i] + ".png");
+            if (sprites.originals[i] == null) missing.add(KEYS[i]);
+        }
+        if (!missing.isEmpty()) {
+            System.out.println("⚠️ Imagens de peças não encontradas: " + missing);
+        }
+        return sprites;
+    }
+
+    // Procura a imagem no classpath e, se não achar, nas pastas resources perto do diretório atual
+    private static BufferedImage read(String name) {
+        try (InputStream in = PieceSprites.class.getClassLoader().getResourceAsStream("resources/" + name)) {
+            if (in != null) return ImageIO.read(in);
+        } catch (IOException e) {
+            System.out.println("❌ Erro ao carregar " + name + ": " + e.getMessage());
+        }
+        for (String dir : new String[] {"resources", "../resources"}) {
+            File file = new File(dir, name);
+            if (!file.isFile()) continue;
+            try {
+                return ImageIO.read(file);
+            } catch (IOException e) {
+                System.out.println("❌ Erro ao carregar " + file + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Desenha a peça ("wk", "bq", etc.) com o canto superior esquerdo em (x, y) e o lado indicado,
+     * em coordenadas do componente.
+     * @return false se a peça não tem imagem.
+     */
+    public boolean draw(Graphics2D g, String key, int x, int y, int size) {
+        int index = indexOf(key);
+        if (index < 0 || originals[index] == null || size <= 0) return false;
+        double scale = deviceScale(g);
+        int pixels = (int) Math.ceil(size * scale);
+        BufferedImage atlas = atlas(g.getDeviceConfiguration(), pixels);
+        g.drawImage(atlas, x, y, x + size, y + size, index * pixels, 0, (index + 1) * pixels, pixels, null);
+        return true;
+    }
+
+    private BufferedImage atlas(GraphicsConfiguration configuration, int pixels) {
+        BufferedImage atlas = atlases.get((long) pixels);
+        if (atlas == null) {
+            atlas = configuration != null
+                    ? configuration.createCompatibleImage(KEYS.length * pixels, pixels, Transparency.TRANSLUCENT)
+                    : new BufferedImage(KEYS.length * pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = atlas.createGraphics();
+            for (int i = 0; i < KEYS.length; i++) {
+                if (originals[i] != null) {
+                    g.drawImage(downscale(originals[i], pixels), i * pixels, 0, pixels, pixels, null);
+                }
+            }
+            g.dispose();
+            atlases.put((long) pixels, atlas);
+        }
+        return atlas;
+    }
+
+    // Reduz pela metade até chegar perto do tamanho final: a interpolação bilinear de um passo só
+    // perde detalhes quando a redução é grande
+    private static BufferedImage downscale(BufferedImage image, int pixels) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        while (width / 2 >= pixels && height / 2 >= pixels) {
+            width /= 2;
+            height /= 2;
+            BufferedImage half = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = half.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = half;
+        }
+        BufferedImage result = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = result.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(current, 0, 0, pixels, pixels, null);
+        g.dispose();
+        return result;
+    }
+
+    /**
+     * Escala do monitor em que o Graphics desenha (1 em telas comuns, 2 em telas Retina, etc.).
+     */
+    static double deviceScale(Graphics2D g) {
+        AffineTransform transform = g.getTransform();
+        double scale = Math.max(Math.abs(transform.getScaleX()), Math.abs(transform.getScaleY()));
+        return scale > 0 ? scale : 1;
+    }
+
+    private static int indexOf(String key) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (KEYS[i].equals(key)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,57 @@
+package view;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Entrega valores produzidos em outra thread para a thread do Swing sem inundá-la:
+ * apenas o valor mais recente é mantido e a entrega acontece no máximo uma vez a cada intervalo.
+ */
+public class SwingThrottle<T> {
+    private final long intervalNanos;
+    private final Consumer<T> consumer;
+    private final AtomicReference<T> latest = new AtomicReference<>();
+    private final Timer timer; // um só timer, reiniciado a cada entrega adiada
+    private long lastDelivery; // lido e escrito apenas na thread do Swing
+
+    /**
+     * @param intervalMillis Intervalo mínimo entre entregas.
+     * @param consumer Recebe os valores na thread do Swing.
+     */
+    public SwingThrottle(long intervalMillis, Consumer<T> consumer) {
+        this.intervalNanos = intervalMillis * 1_000_000L;
+        this.consumer = consumer;
+        this.lastDelivery = System.nanoTime() - intervalNanos;
+        this.timer = new Timer((int) intervalMillis, e -> deliver());
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Publica um valor; pode ser chamado de qualquer thread.
+     */
+    public void submit(T value) {
+        // Se já havia um valor pendente, a entrega já está agendada e vai levar o valor novo
+        if (latest.getAndSet(value) != null) return;
+
+        SwingUtilities.invokeLater(this::schedule);
+    }
+
+    private void schedule() {
+        long wait = lastDelivery + intervalNanos - System.nanoTime();
+        if (wait <= 0) {
+            deliver();
+        } else {
+            timer.setInitialDelay((int) Math.max(1, wait / 1_000_000L));
+            timer.restart();
+        }
+    }
+
+    private void deliver() {
+        T value = latest.getAndSet(null);
+        if (value == null) return;
+        lastDelivery = System.nanoTime();
+        consumer.accept(value);
+    }
+}